@@ -7,11 +7,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import top.itangbao.platform.data.api.client.DataServiceFeignClient;
+import top.itangbao.platform.data.api.dto.AggregateMetric;
+import top.itangbao.platform.data.api.dto.AggregateRequest;
+import top.itangbao.platform.data.api.dto.AggregateResponse;
 import top.itangbao.platform.data.api.dto.DynamicDataResponse;
 import top.itangbao.platform.data.api.dto.FilterRequestDTO;
 import top.itangbao.platform.data.api.dto.PageRequestDTO;
 import top.itangbao.platform.data.api.dto.PageResponseDTO;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -57,7 +61,8 @@ public class DataAnalysisTools {
             }
 
             // 2. 构建请求
-            PageRequestDTO pageRequest = PageRequestDTO.builder().page(0).size(10).build(); // 默认只查前10条
+            // 默认只查前10条；摘要只需要大致总数，使用估算避免每次全量 COUNT
+            PageRequestDTO pageRequest = PageRequestDTO.builder().page(0).size(10).count("estimate").build();
             FilterRequestDTO filterRequest = FilterRequestDTO.builder().filters(filters).build();
 
             // 3. 调用 Data Service
@@ -75,7 +80,7 @@ public class DataAnalysisTools {
             // 4. 格式化返回结果给 AI
             // 提示：我们不直接返回 JSON，而是返回 AI 容易阅读的摘要，节省 Token
             StringBuilder sb = new StringBuilder();
-            sb.append(String.format("查询成功，共找到 %d 条记录。以下是前 %d 条数据摘要：\n", total, records.size()));
+            sb.append(String.format("查询成功，约找到 %d 条记录。以下是前 %d 条数据摘要：\n", total, records.size()));
 
             for (DynamicDataResponse record : records) {
                 sb.append(String.format("- [ID:%d] %s\n", record.getId(), formatDataMap(record.getData())));
@@ -93,6 +98,69 @@ public class DataAnalysisTools {
         }
     }
 
+    /**
+     * 分组统计工具：在数据服务端完成聚合，只返回统计结果
+     */
+    @Tool("统计业务数据。当用户问'按...统计'、'每个...有多少'、'总金额/平均值/最大值是多少'、'每月/每天的趋势'时使用。")
+    public String aggregateBusinessData(
+            @dev.langchain4j.agent.tool.P("表单或模型名称 (Schema Name)，例如 'Car', 'Order'") String schemaName,
+            @dev.langchain4j.agent.tool.P("分组字段，多个用逗号分隔，例如 'status,brand'；不分组传空字符串") String groupBy,
+            @dev.langchain4j.agent.tool.P("统计指标的JSON数组，function 可选 count/count_distinct/sum/avg/min/max，例如 '[{\"function\": \"count\"}, {\"function\": \"sum\", \"field\": \"price\"}]'") String metricsJson,
+            @dev.langchain4j.agent.tool.P("按时间分桶的日期字段，例如 'created_at'；不需要时传空字符串") String timeField,
+            @dev.langchain4j.agent.tool.P("时间粒度: hour/day/week/month/quarter/year；不需要时传空字符串") String timeBucket,
+            @dev.langchain4j.agent.tool.P("查询过滤条件的JSON字符串 (Key-Value)，例如 '{\"status\": \"PENDING\"}'") String filterJson,
+            @dev.langchain4j.agent.tool.P("租户ID") String tenantId) {
+
+        log.info("🤖 AI正在统计数据: schema={}, groupBy={}, metrics={}", schemaName, groupBy, metricsJson);
+
+        try {
+            List<AggregateMetric> metrics;
+            Map<String, String> filters = new HashMap<>();
+            try {
+                metrics = metricsJson == null || metricsJson.isBlank()
+                        ? List.of(AggregateMetric.builder().function("count").build())
+                        : objectMapper.readValue(metricsJson, new TypeReference<List<AggregateMetric>>() {});
+                if (filterJson != null && !filterJson.isBlank()) {
+                    Map<String, Object> rawMap = objectMapper.readValue(filterJson, new TypeReference<Map<String, Object>>() {});
+                    for (Map.Entry<String, Object> entry : rawMap.entrySet()) {
+                        filters.put(entry.getKey(), String.valueOf(entry.getValue()));
+                    }
+                }
+            } catch (Exception e) {
+                return "统计失败：指标或过滤条件格式错误，请使用标准的 JSON 格式。";
+            }
+
+            AggregateRequest request = AggregateRequest.builder()
+                    .groupBy(groupBy == null || groupBy.isBlank() ? Collections.emptyList()
+                            : Arrays.stream(groupBy.split(",")).map(String::trim).filter(f -> !f.isEmpty()).toList())
+                    .timeField(timeField == null || timeField.isBlank() ? null : timeField)
+                    .timeBucket(timeBucket == null || timeBucket.isBlank() ? null : timeBucket)
+                    .metrics(metrics)
+                    .filters(filters)
+                    .limit(50) // 只返回前50组，避免 Token 爆炸
+                    .build();
+
+            AggregateResponse response = dataClient.aggregateDynamicData(tenantId, schemaName, request);
+            if (response.getRows().isEmpty()) {
+                return "未找到符合条件的数据。";
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("统计成功，共 %d 组%s：\n", response.getRows().size(),
+                    response.isTruncated() ? " (分组过多，仅展示前50组)" : ""));
+            for (Map<String, Object> row : response.getRows()) {
+                sb.append("- ").append(row.entrySet().stream()
+                        .map(e -> e.getKey() + ":" + e.getValue())
+                        .collect(Collectors.joining(", "))).append("\n");
+            }
+            return sb.toString();
+
+        } catch (Exception e) {
+            log.error("数据统计失败", e);
+            return "数据统计发生错误: " + e.getMessage();
+        }
+    }
+
     private String formatDataMap(Map<String, Object> data) {
         if (data == null) return "";
         return data.entrySet().stream()
@@ -0,0 +1,164 @@
+package top.itangbao.platform.benchmarks;
+
+import top.itangbao.platform.common.enums.FieldType;
+import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准用的模式与数据
+ * 字段类型按固定顺序轮转，覆盖字符串 (部分带正则)、数值、布尔、日期、枚举、长文本，
+ * 约三分之一字段必填；生成的输入值与前端提交的一致 (字符串形式的数字、日期)
+ */
+public final class BenchmarkSchemas {
+
+    public static final String TENANT_ID = "bench-tenant";
+    public static final String SCHEMA_NAME = "bench_schema";
+
+    private static final FieldType[] TYPES = {
+            FieldType.STRING, FieldType.INTEGER, FieldType.NUMBER, FieldType.BOOLEAN,
+            FieldType.DATE, FieldType.DATETIME, FieldType.ENUM, FieldType.TEXT
+    };
+
+    private static final List<String> SYSTEM_COLUMNS = List.of("id", "tenant_id", "created_at", "updated_at", "created_by", "dept_id");
+
+    private BenchmarkSchemas() {
+    }
+
+    public static MetadataSchemaDTO schema(int fieldCount) {
+        List<MetadataFieldDTO> fields = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            FieldType type = TYPES[i % TYPES.length];
+            MetadataFieldDTO.MetadataFieldDTOBuilder field = MetadataFieldDTO.builder()
+                    .id((long) i)
+                    .fieldName(fieldName(i))
+                    .fieldType(type)
+                    .required(i % 3 == 0);
+            if (type == FieldType.STRING && i % 2 == 0) {
+                field.validationRule("^[A-Za-z0-9_-]{1,64}$").description("编码");
+            }
+            if (type == FieldType.ENUM) {
+                field.options("[\"DRAFT\",\"RUNNING\",\"DONE\",\"CANCELLED\"]");
+            }
+            fields.add(field.build());
+        }
+        return MetadataSchemaDTO.builder()
+                .id(1L)
+                .name(SCHEMA_NAME)
+                .tenantId(TENANT_ID)
+                .version(1L)
+                .fields(fields)
+                .build();
+    }
+
+    public static String fieldName(int index) {
+        return "f" + index;
+    }
+
+    /**
+     * 一行合法输入 (请求体中的 data)
+     */
+    public static Map<String, Object> input(MetadataSchemaDTO schema, int row) {
+        Map<String, Object> data = new HashMap<>();
+        for (MetadataFieldDTO field : schema.getFields()) {
+            data.put(field.getFieldName(), inputValue(field.getFieldType(), row));
+        }
+        return data;
+    }
+
+    public static List<Map<String, Object>> inputs(MetadataSchemaDTO schema, int rows) {
+        List<Map<String, Object>> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(input(schema, i));
+        }
+        return result;
+    }
+
+    /**
+     * 查询返回的列 (系统列 + 字段列)，顺序与建表一致
+     */
+    public static List<String> columns(MetadataSchemaDTO schema) {
+        List<String> columns = new ArrayList<>(SYSTEM_COLUMNS);
+        for (MetadataFieldDTO field : schema.getFields()) {
+            columns.add(field.getFieldName());
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * 模拟 JDBC 返回的一行 (与 columns 顺序一致)
+     */
+    public static Object[] resultRow(MetadataSchemaDTO schema, int row) {
+        List<MetadataFieldDTO> fields = schema.getFields();
+        Object[] values = new Object[SYSTEM_COLUMNS.size() + fields.size()];
+        Timestamp now = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 8, 0));
+        values[0] = (long) row + 1;
+        values[1] = TENANT_ID;
+        values[2] = now;
+        values[3] = now;
+        values[4] = "bench-user";
+        values[5] = 10L;
+        for (int i = 0; i < fields.size(); i++) {
+            values[SYSTEM_COLUMNS.size() + i] = storedValue(fields.get(i).getFieldType(), row);
+        }
+        return values;
+    }
+
+    /**
+     * H2 (MySQL 兼容模式) 建表语句，列类型与 DynamicTableManager 一致
+     */
+    public static String createTableSql(String tableName, MetadataSchemaDTO schema) {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE `").append(tableName).append("` (")
+                .append("`id` BIGINT AUTO_INCREMENT PRIMARY KEY, ")
+                .append("`tenant_id` VARCHAR(50) NOT NULL, ")
+                .append("`created_at` DATETIME, `updated_at` DATETIME, ")
+                .append("`created_by` VARCHAR(100), `dept_id` BIGINT");
+        for (MetadataFieldDTO field : schema.getFields()) {
+            ddl.append(", `").append(field.getFieldName()).append("` ").append(columnType(field.getFieldType()));
+        }
+        return ddl.append(")").toString();
+    }
+
+    private static String columnType(FieldType type) {
+        return switch (type) {
+            case TEXT -> "TEXT";
+            case NUMBER -> "DOUBLE";
+            case INTEGER, REFERENCE -> "BIGINT";
+            case BOOLEAN -> "TINYINT(1)";
+            case DATE -> "DATE";
+            case DATETIME -> "DATETIME";
+            default -> "VARCHAR(255)";
+        };
+    }
+
+    private static Object inputValue(FieldType type, int row) {
+        return switch (type) {
+            case STRING -> "CODE-" + row;
+            case INTEGER -> String.valueOf(row * 7);
+            case NUMBER -> String.valueOf(row * 1.5);
+            case BOOLEAN -> row % 2 == 0 ? "true" : "false";
+            case DATE -> LocalDate.of(2024, 1, 1).plusDays(row % 365).toString();
+            case DATETIME -> LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(row).toString();
+            case ENUM -> row % 2 == 0 ? "RUNNING" : "DONE";
+            default -> "批次 " + row + " 的检测备注，包含中文与 ASCII 混合内容";
+        };
+    }
+
+    private static Object storedValue(FieldType type, int row) {
+        return switch (type) {
+            case INTEGER -> (long) row * 7;
+            case NUMBER -> row * 1.5;
+            case BOOLEAN -> row % 2 == 0;
+            case DATE -> java.sql.Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(row % 365));
+            case DATETIME -> Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(row));
+            default -> inputValue(type, row);
+        };
+    }
+}
@@ -0,0 +1,140 @@
+package top.itangbao.platform.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import top.itangbao.platform.data.api.dto.DynamicDataResponse;
+import top.itangbao.platform.data.manager.DynamicDmlExecutor;
+import top.itangbao.platform.data.plan.FieldPlan;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.FilterCondition;
+import top.itangbao.platform.data.query.RowLayout;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端写入/列表：校验 + 转换 + JDBC 批量写入，以及 WHERE 拼接 + 分页查询 + 行映射
+ * 使用 H2 内存库 (MySQL 兼容模式)，数值只用于对比同一环境下的回归，不代表 MySQL 上的绝对耗时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class H2DynamicTableBenchmark {
+
+    private static final int SEED_ROWS = 20_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"10", "50", "200"})
+    private int fieldCount;
+
+    @Param({"100"})
+    private int batchSize;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DynamicDmlExecutor dmlExecutor;
+    private SchemaPlan plan;
+    private List<Map<String, Object>> batch;
+    private String insertSql;
+    private String listSql;
+    private RowLayout layout;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:bench_" + fieldCount + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(4);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        dmlExecutor = new DynamicDmlExecutor(jdbcTemplate);
+
+        MetadataSchemaDTO schema = BenchmarkSchemas.schema(fieldCount);
+        plan = SchemaPlan.compile(schema, 1L, new ObjectMapper());
+        String tableName = "mf_bench_" + fieldCount;
+        jdbcTemplate.execute("DROP TABLE IF EXISTS `" + tableName + "`");
+        jdbcTemplate.execute(BenchmarkSchemas.createTableSql(tableName, schema));
+        jdbcTemplate.execute("CREATE INDEX `idx_" + tableName + "_tenant` ON `" + tableName + "` (`tenant_id`, `dept_id`)");
+
+        List<String> insertColumns = new ArrayList<>(List.of("tenant_id", "created_at", "updated_at", "created_by", "dept_id"));
+        for (FieldPlan field : plan.getFields()) {
+            insertColumns.add(field.getName());
+        }
+        insertSql = dmlExecutor.buildInsertSql(tableName, insertColumns);
+        batch = BenchmarkSchemas.inputs(schema, batchSize);
+
+        List<Map<String, Object>> seed = BenchmarkSchemas.inputs(schema, SEED_ROWS);
+        for (int from = 0; from < SEED_ROWS; from += 1000) {
+            dmlExecutor.batchInsert(insertSql, toRows(seed.subList(from, Math.min(from + 1000, SEED_ROWS))));
+        }
+
+        layout = RowLayout.of(BenchmarkSchemas.columns(schema));
+        StringBuilder where = new StringBuilder(" WHERE tenant_id = ? ");
+        new FilterCondition("dept_id", "in", 3).appendTo(where);
+        FilterCondition.of(BenchmarkSchemas.fieldName(0), "like").appendTo(where);
+        listSql = "SELECT " + layout.getSelectList() + " FROM `" + tableName + "`" + where + " ORDER BY `id` DESC LIMIT ? OFFSET ?";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * 批量写入：逐行校验、转换后一次 JDBC batch 写入
+     */
+    @Benchmark
+    public int[] insertBatch() {
+        for (Map<String, Object> row : batch) {
+            plan.validateOrThrow(row);
+        }
+        return dmlExecutor.batchInsert(insertSql, toRows(batch));
+    }
+
+    /**
+     * 列表查询第一页：参数绑定、查询、行映射
+     */
+    @Benchmark
+    public void listPage(Blackhole blackhole) {
+        int columnCount = layout.getColumns().size();
+        List<DynamicDataResponse> page = jdbcTemplate.query(listSql,
+                (rs, rowNum) -> {
+                    Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    return layout.map(row, BenchmarkSchemas.TENANT_ID, BenchmarkSchemas.SCHEMA_NAME);
+                },
+                BenchmarkSchemas.TENANT_ID, 10L, 11L, 12L, "%CODE-1%", PAGE_SIZE, 0);
+        blackhole.consume(page);
+    }
+
+    private List<Object[]> toRows(List<Map<String, Object>> inputs) {
+        LocalDateTime now = LocalDateTime.now();
+        List<FieldPlan> fields = plan.getFields();
+        List<Object[]> rows = new ArrayList<>(inputs.size());
+        for (Map<String, Object> input : inputs) {
+            Object[] row = new Object[5 + fields.size()];
+            row[0] = BenchmarkSchemas.TENANT_ID;
+            row[1] = now;
+            row[2] = now;
+            row[3] = "bench-user";
+            row[4] = 10L + rows.size() % 3;
+            for (int i = 0; i < fields.size(); i++) {
+                row[5 + i] = fields.get(i).convert(input.get(fields.get(i).getName()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
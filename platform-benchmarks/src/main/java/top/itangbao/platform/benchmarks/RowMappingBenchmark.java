@@ -0,0 +1,56 @@
+package top.itangbao.platform.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import top.itangbao.platform.data.query.RowLayout;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取路径的结果行映射 (RowLayout.map)，每次调用映射一页数据
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int fieldCount;
+
+    @Param({"20", "500"})
+    private int pageSize;
+
+    private RowLayout layout;
+    private List<Object[]> rows;
+
+    @Setup
+    public void setUp() {
+        MetadataSchemaDTO schema = BenchmarkSchemas.schema(fieldCount);
+        layout = RowLayout.of(BenchmarkSchemas.columns(schema));
+        rows = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            rows.add(BenchmarkSchemas.resultRow(schema, i));
+        }
+    }
+
+    @Benchmark
+    public void mapPage(Blackhole blackhole) {
+        for (Object[] row : rows) {
+            blackhole.consume(layout.map(row, BenchmarkSchemas.TENANT_ID, BenchmarkSchemas.SCHEMA_NAME));
+        }
+    }
+
+    /**
+     * 布局构建在列快照变化时发生一次
+     */
+    @Benchmark
+    public RowLayout buildLayout() {
+        return RowLayout.of(layout.getColumns());
+    }
+}
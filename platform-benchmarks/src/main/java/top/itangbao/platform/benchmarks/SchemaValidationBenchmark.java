@@ -0,0 +1,64 @@
+package top.itangbao.platform.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import top.itangbao.platform.data.plan.FieldPlan;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入路径的校验与类型转换 (SchemaPlan.validate / FieldPlan.convert)，每次调用处理一批行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SchemaValidationBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int fieldCount;
+
+    @Param({"100"})
+    private int batchSize;
+
+    private SchemaPlan plan;
+    private List<Map<String, Object>> rows;
+
+    @Setup
+    public void setUp() {
+        MetadataSchemaDTO schema = BenchmarkSchemas.schema(fieldCount);
+        plan = SchemaPlan.compile(schema, 1L, new ObjectMapper());
+        rows = BenchmarkSchemas.inputs(schema, batchSize);
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (Map<String, Object> row : rows) {
+            blackhole.consume(plan.validate(row));
+        }
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (Map<String, Object> row : rows) {
+            for (FieldPlan field : plan.getFields()) {
+                blackhole.consume(field.convert(row.get(field.getName())));
+            }
+        }
+    }
+
+    /**
+     * 模式编译只在版本变化时发生，这里用于观察它与单行校验的成本比例
+     */
+    @Benchmark
+    public SchemaPlan compile() {
+        return SchemaPlan.compile(BenchmarkSchemas.schema(fieldCount), 1L, new ObjectMapper());
+    }
+}
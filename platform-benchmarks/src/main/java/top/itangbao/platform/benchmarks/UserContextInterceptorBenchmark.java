@@ -0,0 +1,51 @@
+package top.itangbao.platform.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import top.itangbao.platform.data.config.UserContextInterceptor;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求都会经过的 UserContextInterceptor：解析网关透传的用户、数据权限与可访问部门请求头
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UserContextInterceptorBenchmark {
+
+    /**
+     * 可访问部门数 (部门树越大，X-User-Accessible-Depts 越长)
+     */
+    @Param({"1", "20", "500"})
+    private int accessibleDepts;
+
+    private final UserContextInterceptor interceptor = new UserContextInterceptor();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/data/" + BenchmarkSchemas.TENANT_ID + "/" + BenchmarkSchemas.SCHEMA_NAME);
+        request.addHeader("X-Auth-User", "bench-user");
+        request.addHeader("X-User-Dept-Id", "10");
+        request.addHeader("X-User-Data-Scopes", "[DEPT_AND_CHILD, SELF]");
+        StringJoiner depts = new StringJoiner(",");
+        for (int i = 0; i < accessibleDepts; i++) {
+            depts.add(String.valueOf(10 + i));
+        }
+        request.addHeader("X-User-Accessible-Depts", depts.toString());
+    }
+
+    @Benchmark
+    public boolean preHandleAndClear() {
+        boolean proceed = interceptor.preHandle(request, response, null);
+        interceptor.afterCompletion(request, response, null, null);
+        return proceed;
+    }
+}
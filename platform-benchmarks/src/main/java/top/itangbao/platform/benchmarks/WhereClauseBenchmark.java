@@ -0,0 +1,96 @@
+package top.itangbao.platform.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import top.itangbao.platform.data.api.dto.FilterRequestDTO;
+import top.itangbao.platform.data.context.UserContext;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.FilterCondition;
+import top.itangbao.platform.data.query.QueryTemplateCache;
+import top.itangbao.platform.data.query.WhereClauseBuilder;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表查询的 WHERE 子句生成 (WhereClauseBuilder，服务中列表、导出、聚合共用)
+ * - build: 收集条件 + 未命中模板缓存时的拼接成本
+ * - cached: 收集条件 + 命中 QueryTemplateCache (构造缓存键 + 查找)，即稳定状态下每个请求的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class WhereClauseBenchmark {
+
+    private static final String[] OPERATORS = {"eq", "like", "gt", "in", "le", "ne"};
+
+    @Param({"10", "50", "200"})
+    private int fieldCount;
+
+    @Param({"1", "4", "12"})
+    private int filterCount;
+
+    private String tableName;
+    private List<String> columns;
+    private SchemaPlan plan;
+    private FilterRequestDTO filterRequest;
+    private WhereClauseBuilder builder;
+
+    @Setup
+    public void setUp() {
+        MetadataSchemaDTO schema = BenchmarkSchemas.schema(fieldCount);
+        tableName = "mf_" + BenchmarkSchemas.TENANT_ID + "_" + BenchmarkSchemas.SCHEMA_NAME;
+        columns = BenchmarkSchemas.columns(schema);
+        plan = SchemaPlan.compile(schema, 1L, new ObjectMapper());
+        filterRequest = filters();
+
+        QueryTemplateCache cache = new QueryTemplateCache();
+        ReflectionTestUtils.setField(cache, "maximumSize", 5000L);
+        cache.init();
+        builder = new WhereClauseBuilder(cache);
+
+        // 部门数据权限：每个请求都会追加 dept_id IN (...)
+        UserContext.set("bench-user", 10L, Set.of("DEPT_AND_CHILD"), Set.of(10L, 11L, 12L));
+    }
+
+    @TearDown
+    public void tearDown() {
+        UserContext.clear();
+    }
+
+    @Benchmark
+    public String build() {
+        List<FilterCondition> conditions = builder.collectConditions(BenchmarkSchemas.TENANT_ID, tableName, columns, plan,
+                filterRequest, new ArrayList<>());
+        return WhereClauseBuilder.render(conditions);
+    }
+
+    @Benchmark
+    public String cached() {
+        List<FilterCondition> conditions = builder.collectConditions(BenchmarkSchemas.TENANT_ID, tableName, columns, plan,
+                filterRequest, new ArrayList<>());
+        return builder.buildWhereClause(tableName, 1L, columns, conditions);
+    }
+
+    /**
+     * 请求中的过滤参数，字段与操作符轮转
+     */
+    private FilterRequestDTO filters() {
+        Map<String, String> filters = new HashMap<>();
+        for (int i = 0; i < filterCount; i++) {
+            String field = BenchmarkSchemas.fieldName(i % fieldCount);
+            String operator = OPERATORS[i % OPERATORS.length];
+            filters.put(field + "." + operator, "in".equals(operator) ? "1,2,3,4,5" : "v" + i);
+        }
+        return FilterRequestDTO.builder().filters(filters).build();
+    }
+}
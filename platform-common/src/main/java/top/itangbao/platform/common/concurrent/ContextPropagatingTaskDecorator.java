@@ -0,0 +1,50 @@
+package top.itangbao.platform.common.concurrent;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 异步任务的上下文传递：SecurityContext、RequestAttributes (Feign 透传请求头依赖它) 及各模块注册的 ThreadContextCarrier
+ * 虚拟线程与平台线程池都适用，任务结束后一律清理
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    private final List<ThreadContextCarrier> carriers;
+
+    public ContextPropagatingTaskDecorator(List<ThreadContextCarrier> carriers) {
+        this.carriers = List.copyOf(carriers);
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        List<Object> snapshots = new ArrayList<>(carriers.size());
+        for (ThreadContextCarrier carrier : carriers) {
+            snapshots.add(carrier.capture());
+        }
+
+        return () -> {
+            SecurityContextHolder.setContext(securityContext);
+            RequestContextHolder.setRequestAttributes(requestAttributes);
+            for (int i = 0; i < carriers.size(); i++) {
+                carriers.get(i).restore(snapshots.get(i));
+            }
+            try {
+                runnable.run();
+            } finally {
+                for (ThreadContextCarrier carrier : carriers) {
+                    carrier.clear();
+                }
+                RequestContextHolder.resetRequestAttributes();
+                SecurityContextHolder.clearContext();
+            }
+        };
+    }
+}
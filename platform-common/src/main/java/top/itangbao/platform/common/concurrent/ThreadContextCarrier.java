@@ -0,0 +1,23 @@
+package top.itangbao.platform.common.concurrent;
+
+/**
+ * 业务模块自定义的线程上下文 (如 UserContext) 的传递方式
+ * 注册为 Bean 后，由 {@link ContextPropagatingTaskDecorator} 在异步任务中恢复
+ */
+public interface ThreadContextCarrier {
+
+    /**
+     * 在提交任务的线程上抓取当前上下文
+     */
+    Object capture();
+
+    /**
+     * 在执行任务的线程上恢复上下文
+     */
+    void restore(Object snapshot);
+
+    /**
+     * 任务结束后清理，避免线程复用时串号
+     */
+    void clear();
+}
@@ -0,0 +1,44 @@
+package top.itangbao.platform.common.concurrent;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 虚拟线程请求模式 (Servlet 服务通用)
+ * 开启 spring.threads.virtual.enabled 后，在 Java 21+ 上 Spring Boot 会让 Tomcat、@Async 与 MVC 异步任务跑在虚拟线程上；
+ * 这里补充两件事：
+ * 1. 异步任务的上下文传递 (对线程池模式同样生效，始终注册)
+ * 2. 按连接池容量限制并发请求数的舱壁，仅虚拟线程模式下启用
+ * 请求线程内的 ThreadLocal (UserContext、SecurityContextHolder) 由同一个虚拟线程处理整个请求，无需额外处理
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public TaskDecorator contextPropagatingTaskDecorator(ObjectProvider<ThreadContextCarrier> carriers) {
+        return new ContextPropagatingTaskDecorator(carriers.orderedStream().toList());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public FilterRegistrationBean<ConcurrencyBulkheadFilter> concurrencyBulkheadFilter(
+            @Value("${platform.bulkhead.max-concurrent-requests:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentRequests,
+            @Value("${platform.bulkhead.acquire-timeout-ms:2000}") long acquireTimeoutMs) {
+        FilterRegistrationBean<ConcurrencyBulkheadFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyBulkheadFilter(maxConcurrentRequests, acquireTimeoutMs));
+        registration.addUrlPatterns("/*");
+        // 在安全过滤器之前拦截，被拒绝的请求不再占用后续资源
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
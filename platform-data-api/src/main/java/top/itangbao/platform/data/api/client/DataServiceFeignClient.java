@@ -29,6 +29,11 @@ public interface DataServiceFeignClient {
             @PathVariable("schemaName") String schemaName,
             @PathVariable("schemaId") Long schemaId);
 
+    @DeleteMapping("/api/data/schema-cache/{tenantId}/{schemaName}")
+    void evictSchemaCache(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName);
+
     // --- 动态数据 CRUD API ---
     @PostMapping("/api/data/{tenantId}/{schemaName}")
     DynamicDataResponse insertDynamicData(
@@ -42,6 +47,16 @@ public interface DataServiceFeignClient {
             @PathVariable("schemaName") String schemaName,
             @PathVariable("id") Long id);
 
+    /**
+     * 只返回指定字段 (逗号分隔)，系统字段始终返回
+     */
+    @GetMapping("/api/data/{tenantId}/{schemaName}/{id}")
+    DynamicDataResponse getDynamicDataById(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName,
+            @PathVariable("id") Long id,
+            @RequestParam("fields") String fields);
+
     @GetMapping("/api/data/{tenantId}/{schemaName}")
     PageResponseDTO<DynamicDataResponse> getAllDynamicData(
             @PathVariable("tenantId") String tenantId,
@@ -62,6 +77,30 @@ public interface DataServiceFeignClient {
             @PathVariable("schemaName") String schemaName,
             @PathVariable("id") Long id);
 
+    @PostMapping("/api/data/{tenantId}/{schemaName}/batch")
+    BatchOperationResponse batchInsertDynamicData(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName,
+            BatchInsertRequest request);
+
+    @PutMapping("/api/data/{tenantId}/{schemaName}/batch")
+    BatchOperationResponse batchUpdateDynamicData(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName,
+            BatchUpdateRequest request);
+
+    @PostMapping("/api/data/{tenantId}/{schemaName}/batch/delete")
+    BatchOperationResponse batchDeleteDynamicData(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName,
+            BatchDeleteRequest request);
+
+    @PostMapping("/api/data/{tenantId}/{schemaName}/aggregate")
+    AggregateResponse aggregateDynamicData(
+            @PathVariable("tenantId") String tenantId,
+            @PathVariable("schemaName") String schemaName,
+            AggregateRequest request);
+
     @PostMapping(value = "/api/data/{tenantId}/{schemaName}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     DataImportResponse importData(
             @PathVariable("tenantId") String tenantId,
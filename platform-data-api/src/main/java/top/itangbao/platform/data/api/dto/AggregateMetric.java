@@ -0,0 +1,20 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AggregateMetric {
+    @NotBlank(message = "Aggregate function cannot be empty")
+    private String function; // count / count_distinct / sum / avg / min / max
+
+    private String field; // 聚合字段，count 时可为空 (即 COUNT(*))
+
+    private String alias; // 结果列名，为空时生成 function_field
+}
@@ -0,0 +1,34 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AggregateRequest {
+    private List<String> groupBy; // 分组字段
+
+    private String timeField; // 按时间分桶的 DATE/DATETIME 字段 (可选)
+
+    private String timeBucket; // 时间粒度: hour / day / week / month / quarter / year
+
+    @NotEmpty(message = "Metrics cannot be empty")
+    private List<@Valid AggregateMetric> metrics; // 统计指标
+
+    private Map<String, String> filters; // 过滤条件，格式与列表查询相同，例如 {"status": "DONE", "price.gt": "100"}
+
+    private String sortBy; // 排序的结果列 (分组字段、时间桶或指标别名)，默认按分组列升序
+
+    private String sortOrder; // asc / desc
+
+    private Integer limit; // 最多返回的分组数
+}
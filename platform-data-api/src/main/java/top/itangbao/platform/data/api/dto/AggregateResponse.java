@@ -0,0 +1,19 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AggregateResponse {
+    private List<String> columns; // 结果列，顺序为 时间桶、分组字段、指标
+    private List<Map<String, Object>> rows; // 每个分组一行 (列名 -> 值)
+    private boolean truncated; // 分组数超过 limit 被截断
+}
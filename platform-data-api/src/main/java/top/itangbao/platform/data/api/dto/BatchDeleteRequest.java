@@ -0,0 +1,18 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchDeleteRequest {
+    @NotEmpty(message = "IDs cannot be empty")
+    private List<Long> ids; // 待删除的记录ID
+}
@@ -0,0 +1,19 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchInsertRequest {
+    @NotEmpty(message = "Batch items cannot be empty")
+    private List<Map<String, Object>> items; // 待插入的记录，每项的键是字段名，值是字段值
+}
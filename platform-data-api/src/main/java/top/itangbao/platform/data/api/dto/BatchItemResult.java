@@ -0,0 +1,26 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String DELETED = "DELETED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String INVALID = "INVALID";
+
+    private int index; // 在请求数组中的下标 (从 0 开始)
+    private Long id; // 记录ID，插入成功时为生成的ID
+    private String status; // CREATED / UPDATED / DELETED / NOT_FOUND / INVALID
+    private String message; // 失败原因
+    private Map<String, String> fieldErrors; // 字段级校验错误 (字段名 -> 错误信息)
+}
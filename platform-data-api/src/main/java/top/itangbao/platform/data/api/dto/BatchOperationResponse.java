@@ -0,0 +1,19 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchOperationResponse {
+    private int total; // 请求项总数
+    private int successCount; // 成功项数
+    private int failedCount; // 失败项数 (校验失败或记录不存在)
+    private List<BatchItemResult> results; // 每一项的处理结果，顺序与请求一致
+}
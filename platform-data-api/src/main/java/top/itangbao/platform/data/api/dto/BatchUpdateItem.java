@@ -0,0 +1,20 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUpdateItem {
+    @NotNull(message = "Record ID cannot be null")
+    private Long id; // 记录ID
+
+    private Map<String, Object> data; // 部分更新，只包含需要修改的字段
+}
@@ -0,0 +1,19 @@
+package top.itangbao.platform.data.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchUpdateRequest {
+    @NotEmpty(message = "Batch items cannot be empty")
+    private List<@Valid BatchUpdateItem> items;
+}
@@ -0,0 +1,33 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 动态数据变更事件 (经 outbox 投递到 Kafka，消息键为 tenantId/schemaName)
+ * 同一条记录的事件按提交顺序投递；投递语义为至少一次，消费方按 eventId 去重
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataChangeEvent {
+    public static final String INSERT = "INSERT";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    private String eventId; // 事件ID (UUID)
+    private String tenantId;
+    private String schemaName;
+    private Long recordId;
+    private String operation; // INSERT / UPDATE / DELETE
+    private Map<String, Object> before; // 变更前的字段值：UPDATE 只含变化的字段，DELETE 为整行，INSERT 为 null
+    private Map<String, Object> after; // 变更后的字段值：UPDATE 只含变化的字段，INSERT 为写入的字段，DELETE 为 null
+    private String changedBy; // 操作人
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,20 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataChangesResponse {
+    private List<DynamicDataResponse> upserts; // 新增或更新的记录 (整行)，按 updatedAt、id 升序
+    private List<Long> deletes; // 已删除的记录 ID，按删除时间升序
+    private String nextToken; // 下次请求的 since 参数
+    private boolean hasMore; // 还有未返回的变更，可立即用 nextToken 继续拉取
+    private boolean resyncRequired; // since 早于删除记录的保留期，需丢弃本地数据后不带 since 重新同步
+}
@@ -0,0 +1,18 @@
+package top.itangbao.platform.data.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DataImportError {
+    private long rowNumber; // 数据行号 (从 1 开始，不含表头)
+    private String message; // 失败原因
+    private Map<String, String> fieldErrors; // 字段级校验错误 (字段名 -> 错误信息)
+}
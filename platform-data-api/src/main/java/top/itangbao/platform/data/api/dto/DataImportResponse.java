@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -14,5 +16,5 @@ public class DataImportResponse {
     private int successCount; // 成功导入的记录数
     private int failedCount; // 导入失败的记录数
     private String message; // 导入结果消息
-    // 可以添加 List<Map<String, Object>> failedRecords; 来返回失败的详细信息
+    private List<DataImportError> errors; // 失败记录明细 (只返回前若干条)
 }
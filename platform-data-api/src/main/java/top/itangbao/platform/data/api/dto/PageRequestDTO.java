@@ -19,4 +19,7 @@ public class PageRequestDTO {
 
     private String sortBy; // 排序字段
     private String sortOrder; // 排序顺序 (asc/desc)
+    private String count; // 总数统计模式：exact (默认，精确 COUNT)、estimate (缓存/统计信息估算)、none (不统计，返回 -1)
+    private String fields; // 投影字段，逗号分隔；为空时返回全部字段
+    private String cursor; // 游标分页令牌：不为 null 时使用 keyset 分页并忽略 page，空串表示第一页
 }
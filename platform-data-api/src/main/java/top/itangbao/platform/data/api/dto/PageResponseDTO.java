@@ -19,4 +19,6 @@ public class PageResponseDTO<T> {
     private int totalPages; // 总页数
     private boolean first; // 是否为第一页
     private boolean last; // 是否为最后一页
+    private String nextCursor; // 游标分页：下一页令牌，没有更多数据时为 null
+    private String prevCursor; // 游标分页：上一页令牌，已是第一页时为 null
 }
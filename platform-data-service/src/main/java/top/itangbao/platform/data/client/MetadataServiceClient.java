@@ -7,6 +7,8 @@ import top.itangbao.platform.common.exception.ResourceNotFoundException;
 import top.itangbao.platform.metadata.api.client.MetadataServiceFeignClient; // 导入新的 Feign 客户端路径
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
 
+import java.util.List;
+
 @Service
 public class MetadataServiceClient {
 
@@ -38,4 +40,12 @@ public class MetadataServiceClient {
             return Mono.error(new RuntimeException("Failed to retrieve metadata schema by ID: " + e.getMessage(), e));
         }
     }
+
+    public Mono<List<MetadataSchemaDTO>> getAllSchemasByTenantId(String tenantId) {
+        try {
+            return Mono.just(feignClient.getAllSchemasByTenantId(tenantId));
+        } catch (Exception e) {
+            return Mono.error(new RuntimeException("Failed to retrieve metadata schemas of tenant: " + e.getMessage(), e));
+        }
+    }
 }
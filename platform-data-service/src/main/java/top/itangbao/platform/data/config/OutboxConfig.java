@@ -0,0 +1,41 @@
+package top.itangbao.platform.data.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import top.itangbao.platform.data.manager.OutboxRelay;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 数据变更事件 outbox (data.outbox.enabled=true 时生效)
+ * 启用分片时逐个分片投递 (每个分片有自己的 mf_data_outbox)，否则只处理主库
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "data.outbox", name = "enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Value("${data.outbox.topic:mf-data-change-events}")
+    private String topic;
+
+    @Value("${data.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${data.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${data.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public OutboxRelay outboxRelay(DataSource dataSource, ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                                   KafkaTemplate<String, String> kafkaTemplate) {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        Map<String, DataSource> dataSources = shards != null ? shards.getShards() : Map.of("default", dataSource);
+        return new OutboxRelay(dataSources, kafkaTemplate, topic, batchSize, pollIntervalMs, sendTimeoutMs);
+    }
+}
@@ -0,0 +1,89 @@
+package top.itangbao.platform.data.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离 (data.read-replica.enabled=true 时生效)
+ * 主库沿用 spring.datasource 配置，副本共用账号与连接池参数，仅地址不同
+ * 对外暴露的 DataSource 为 LazyConnectionDataSourceProxy(ReplicaRoutingDataSource)，JPA 与 JdbcTemplate 均经过路由
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "data.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${data.read-replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${data.read-replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${data.read-replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${data.read-replica.maximum-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${data.read-replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    @Value("${data.read-replica.check-interval-ms:2000}")
+    private long checkIntervalMs;
+
+    @Value("${data.read-replica.read-your-writes-ms:10000}")
+    private long readYourWritesMs;
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = createPrimary(properties, environment);
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagSeconds, checkIntervalMs, readYourWritesMs);
+    }
+
+    /**
+     * 启用分片时由 ShardingConfig 暴露 DataSource，本数据源作为默认分片
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "data.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        // 延迟获取物理连接：事务开始时只读标记尚未生效，到第一条语句时再决定路由
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    /**
+     * 按 spring.datasource (含 spring.datasource.hikari) 创建主库连接池
+     */
+    static HikariDataSource createPrimary(DataSourceProperties properties, Environment environment) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+        return primary;
+    }
+}
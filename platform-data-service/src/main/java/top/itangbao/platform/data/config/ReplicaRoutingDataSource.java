@@ -0,0 +1,102 @@
+package top.itangbao.platform.data.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import top.itangbao.platform.data.context.ReadRoutingContext;
+import top.itangbao.platform.data.context.UserContext;
+import top.itangbao.platform.data.manager.ReplicaLagMonitor;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 主从路由数据源
+ * - 读写事务、无事务的普通访问 (DDL、统计信息等) 走主库
+ * - 只读事务 (@Transactional(readOnly = true)) 与声明了读意图的访问，轮询健康的只读副本；副本全部不可用或延迟过高时退回主库
+ * - 声明了读主库的只读访问 (ReadRoutingContext.enterPrimaryRead) 走主库，但不固定请求、不记录为最近写入
+ * - 读己之写：请求内发生写事务后，本请求剩余的读取走主库；同一用户在 read-your-writes 窗口内的后续请求也走主库
+ * 必须包在 LazyConnectionDataSourceProxy 中使用，使路由在事务的只读标记设置之后、第一条语句执行时才决定
+ * 最近写入的用户记录在本实例内存中，多实例部署时依赖窗口期覆盖复制延迟
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    public static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    long maxLagSeconds, long checkIntervalMs, long readYourWritesMs) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(readYourWritesMs, TimeUnit.MILLISECONDS)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        Map<String, DataSource> replicaTargets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource replica : replicas) {
+            targets.put(replica.getPoolName(), replica);
+            replicaTargets.put(replica.getPoolName(), replica);
+        }
+        this.lagMonitor = new ReplicaLagMonitor(replicaTargets, maxLagSeconds, checkIntervalMs);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        lagMonitor.start();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = inTransaction
+                ? TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                : ReadRoutingContext.isReadIntent();
+
+        String username = UserContext.getUsername();
+        if (!readOnly) {
+            if (inTransaction && RequestContextHolder.getRequestAttributes() != null) {
+                // 只在请求线程上固定，后台线程的 ThreadLocal 不会被拦截器清理
+                ReadRoutingContext.pinToPrimary();
+                if (username != null) {
+                    recentWriters.put(username, Boolean.TRUE);
+                }
+            }
+            return PRIMARY;
+        }
+
+        if (ReadRoutingContext.isPrimaryRead() || ReadRoutingContext.isPinnedToPrimary()
+                || (username != null && recentWriters.getIfPresent(username) != null)) {
+            return PRIMARY;
+        }
+        String replica = lagMonitor.nextHealthyReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    @Override
+    public void destroy() {
+        lagMonitor.stop();
+        for (HikariDataSource replica : replicas) {
+            replica.close();
+        }
+        primary.close();
+    }
+}
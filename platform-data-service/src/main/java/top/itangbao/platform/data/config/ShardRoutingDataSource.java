@@ -0,0 +1,92 @@
+package top.itangbao.platform.data.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.itangbao.platform.data.context.ShardContext;
+import top.itangbao.platform.data.manager.TenantShardResolver;
+import top.itangbao.platform.data.manager.TenantShardResolver.TenantShardAssignment;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 租户分片路由数据源：按 ShardContext 中绑定的租户查询分片映射，选择对应分片的连接池
+ * - 未绑定租户的访问 (映射表、启动检查等) 走默认分片
+ * - 默认分片可以是 ReplicaRoutingDataSource，此时默认分片上的只读事务继续按主从路由
+ * - 租户处于迁移冻结阶段时拒绝读写事务
+ * 与 ReplicaRoutingDataSource 相同，必须包在 LazyConnectionDataSourceProxy 中使用
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final String defaultShard;
+    private final Map<String, DataSource> shards;
+    private final ObjectProvider<TenantShardResolver> resolverProvider;
+
+    /**
+     * @param shards 分片名 -> 数据源，包含默认分片
+     */
+    public ShardRoutingDataSource(String defaultShard, Map<String, DataSource> shards,
+                                  ObjectProvider<TenantShardResolver> resolverProvider) {
+        this.defaultShard = defaultShard;
+        this.shards = Map.copyOf(shards);
+        this.resolverProvider = resolverProvider;
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(defaultShard));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String tenantId = ShardContext.getTenantId();
+        if (tenantId == null) {
+            return defaultShard;
+        }
+        TenantShardAssignment assignment = resolverProvider.getObject().resolve(tenantId);
+        if (!assignment.isWritable()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new IllegalStateException("租户 " + tenantId + " 正在迁移到分片 " + assignment.targetShard() + "，暂时只读，请稍后重试");
+        }
+        return assignment.shard();
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public boolean hasShard(String shard) {
+        return shards.containsKey(shard);
+    }
+
+    /**
+     * 全部分片 (分片名 -> 数据源)，供需要逐个分片处理的后台任务使用
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    /**
+     * 直接访问某个分片 (不经过租户路由)，供迁移等运维操作使用
+     */
+    public DataSource getShard(String shard) {
+        DataSource dataSource = shards.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        // 默认分片若为 ReplicaRoutingDataSource，由其自身的 Bean 生命周期关闭
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        }
+    }
+}
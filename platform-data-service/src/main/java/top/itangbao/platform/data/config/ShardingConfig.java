@@ -0,0 +1,101 @@
+package top.itangbao.platform.data.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import top.itangbao.platform.data.client.MetadataServiceClient;
+import top.itangbao.platform.data.manager.DynamicTableManager;
+import top.itangbao.platform.data.manager.TableTenantShardResolver;
+import top.itangbao.platform.data.manager.TenantShardMover;
+import top.itangbao.platform.data.manager.TenantShardResolver;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 租户分片 (data.sharding.enabled=true 时生效)
+ * - 默认分片沿用 spring.datasource (启用读写分离时为 ReplicaRoutingDataSource)，其余分片在 data.sharding.shards 下按名称配置，每个分片一个连接池
+ * - 租户 -> 分片映射默认保存在默认分片的 mf_tenant_shard 表中，可通过声明 TenantShardResolver Bean 替换
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "data.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Value("${data.sharding.default-shard:default}")
+    private String defaultShard;
+
+    @Value("${data.sharding.mapping-cache-seconds:10}")
+    private long mappingCacheSeconds;
+
+    @Value("${data.sharding.move.chunk-size:1000}")
+    private int moveChunkSize;
+
+    @Value("${data.sharding.move.catch-up-passes:5}")
+    private int moveCatchUpPasses;
+
+    /**
+     * 分片连接配置，username/password 缺省时与 spring.datasource 相同
+     */
+    public record ShardProperties(String url, String username, String password, Integer maximumPoolSize) {
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                         ObjectProvider<ReplicaRoutingDataSource> replicaRoutingDataSource,
+                                                         ObjectProvider<TenantShardResolver> tenantShardResolver) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        DataSource defaultDataSource = replicaRoutingDataSource.getIfAvailable();
+        shards.put(defaultShard, defaultDataSource != null ? defaultDataSource : ReadReplicaConfig.createPrimary(properties, environment));
+
+        Map<String, ShardProperties> configured = Binder.get(environment)
+                .bind("data.sharding.shards", Bindable.mapOf(String.class, ShardProperties.class))
+                .orElse(Collections.emptyMap());
+        configured.forEach((name, shard) -> {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setJdbcUrl(shard.url());
+            dataSource.setDriverClassName(properties.determineDriverClassName());
+            dataSource.setUsername(shard.username() != null ? shard.username() : properties.determineUsername());
+            dataSource.setPassword(shard.password() != null ? shard.password() : properties.determinePassword());
+            dataSource.setMaximumPoolSize(shard.maximumPoolSize() != null ? shard.maximumPoolSize() : 10);
+            shards.put(name, dataSource);
+        });
+        return new ShardRoutingDataSource(defaultShard, shards, tenantShardResolver);
+    }
+
+    @Bean(initMethod = "init")
+    @ConditionalOnMissingBean(TenantShardResolver.class)
+    public TableTenantShardResolver tenantShardResolver(ShardRoutingDataSource shardRoutingDataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shardRoutingDataSource.getShard(defaultShard));
+        return new TableTenantShardResolver(jdbcTemplate, defaultShard, mappingCacheSeconds);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public TenantShardMover tenantShardMover(ShardRoutingDataSource shardRoutingDataSource, TenantShardResolver tenantShardResolver,
+                                             MetadataServiceClient metadataServiceClient, DynamicTableManager dynamicTableManager) {
+        // 冻结后多等 2 秒，覆盖映射缓存过期前已开始的写事务
+        long freezeWaitMs = mappingCacheSeconds * 1000 + 2000;
+        return new TenantShardMover(shardRoutingDataSource, tenantShardResolver, metadataServiceClient, dynamicTableManager,
+                moveChunkSize, moveCatchUpPasses, freezeWaitMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        // 延迟获取物理连接：服务方法绑定租户后、第一条语句执行时才决定分片
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+}
@@ -0,0 +1,36 @@
+package top.itangbao.platform.data.config;
+
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.common.concurrent.ThreadContextCarrier;
+import top.itangbao.platform.data.context.UserContext;
+
+import java.util.Set;
+
+/**
+ * 把 UserContext 带到异步任务 (流式导出、@Async 等) 所在的线程，数据权限条件依赖它
+ */
+@Component
+public class UserContextCarrier implements ThreadContextCarrier {
+
+    @Override
+    public Object capture() {
+        return new Snapshot(UserContext.getUsername(), UserContext.getDeptId(),
+                UserContext.getDataScopes(), UserContext.getAccessibleDeptIds());
+    }
+
+    @Override
+    public void restore(Object snapshot) {
+        Snapshot s = (Snapshot) snapshot;
+        if (s.username() != null) {
+            UserContext.set(s.username(), s.deptId(), s.dataScopes(), s.accessibleDeptIds());
+        }
+    }
+
+    @Override
+    public void clear() {
+        UserContext.clear();
+    }
+
+    private record Snapshot(String username, Long deptId, Set<String> dataScopes, Set<Long> accessibleDeptIds) {
+    }
+}
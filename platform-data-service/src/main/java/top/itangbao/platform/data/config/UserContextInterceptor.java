@@ -7,12 +7,15 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import top.itangbao.platform.data.context.ReadRoutingContext;
+import top.itangbao.platform.data.context.ShardContext;
 import top.itangbao.platform.data.context.UserContext;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+@Slf4j
 @Component
 public class UserContextInterceptor implements HandlerInterceptor {
 
@@ -25,9 +28,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
         String deptIdsHeader = request.getHeader("X-User-Accessible-Depts");
 
 
-        System.out.println("====== INTERCEPTOR IS RUNNING ======");
-        System.out.println("User: " + request.getHeader("X-Auth-User"));
-        System.out.println("User: " + request.getHeader("X-User-Dept-Id"));
+        log.debug("User context: user={}, deptId={}", username, deptIdStr);
 
         // 2. 类型转换
         Long deptId = null;
@@ -61,5 +62,7 @@ public class UserContextInterceptor implements HandlerInterceptor {
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
         // 4. 清理线程变量，防止内存泄漏
         UserContext.clear();
+        ReadRoutingContext.clear();
+        ShardContext.clear();
     }
 }
\ No newline at end of file
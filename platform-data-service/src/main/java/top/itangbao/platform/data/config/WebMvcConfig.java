@@ -1,7 +1,9 @@
 package top.itangbao.platform.data.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,8 +12,17 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private UserContextInterceptor userContextInterceptor;
 
+    // 流式导出在异步线程中写出响应，大表导出耗时较长，需放宽默认的异步超时
+    @Value("${data.export.async-timeout-ms:1800000}")
+    private long asyncTimeoutMs;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(userContextInterceptor).addPathPatterns("/api/**");
     }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
 }
\ No newline at end of file
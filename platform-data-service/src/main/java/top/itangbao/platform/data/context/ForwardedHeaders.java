@@ -0,0 +1,65 @@
+package top.itangbao.platform.data.context;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 需要透传给下游服务的请求头 (Token 及网关解析好的用户信息)
+ * 后台线程 (例如缓存的异步刷新) 没有 HTTP 请求上下文，需要在提交任务时捕获当前请求头的快照
+ */
+public final class ForwardedHeaders {
+
+    public static final List<String> HEADER_NAMES = List.of(
+            "Authorization",
+            "X-Auth-User",
+            "X-Auth-Roles",
+            "X-User-Dept-Id",
+            "X-User-Data-Scopes",
+            "X-User-Tenant-Id");
+
+    private static final ThreadLocal<Map<String, String>> snapshot = new ThreadLocal<>();
+
+    private ForwardedHeaders() {
+    }
+
+    /**
+     * 获取当前线程可用的透传请求头：优先取 HTTP 请求，其次取后台任务携带的快照
+     */
+    public static Map<String, String> current() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            Map<String, String> headers = snapshot.get();
+            return headers == null ? Collections.emptyMap() : headers;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : HEADER_NAMES) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                headers.put(name, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * 包装后台任务：在提交线程上捕获请求头，在执行线程上恢复
+     */
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> captured = current();
+        return () -> {
+            snapshot.set(captured);
+            try {
+                task.run();
+            } finally {
+                snapshot.remove();
+            }
+        };
+    }
+}
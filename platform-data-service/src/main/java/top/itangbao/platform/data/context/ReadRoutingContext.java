@@ -0,0 +1,61 @@
+package top.itangbao.platform.data.context;
+
+/**
+ * 线程隔离的读写路由状态，配合 ReplicaRoutingDataSource 使用
+ * - 只读事务默认路由到只读副本
+ * - 本次请求发生过写事务后固定走主库 (读己之写)
+ * - 不在事务中的读取 (如流式导出) 需显式声明读意图，否则走主库
+ * - 必须读到最新数据的只读访问 (如增量变更) 显式声明读主库，不固定请求、不记为写入
+ */
+public class ReadRoutingContext {
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> readIntent = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> primaryRead = new ThreadLocal<>();
+
+    /**
+     * 标记当前请求后续的读取都走主库
+     */
+    public static void pinToPrimary() {
+        pinnedToPrimary.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(pinnedToPrimary.get());
+    }
+
+    /**
+     * 在没有事务的线程上声明接下来的查询为只读
+     * @param pinned 发起请求时是否已固定走主库 (在请求线程上通过 isPinnedToPrimary 取得)
+     */
+    public static void enterRead(boolean pinned) {
+        readIntent.set(Boolean.TRUE);
+        if (pinned) {
+            pinnedToPrimary.set(Boolean.TRUE);
+        }
+    }
+
+    public static boolean isReadIntent() {
+        return Boolean.TRUE.equals(readIntent.get());
+    }
+
+    /**
+     * 声明接下来的只读访问走主库，只影响这段读取，需与 exitPrimaryRead 成对调用
+     */
+    public static void enterPrimaryRead() {
+        primaryRead.set(Boolean.TRUE);
+    }
+
+    public static void exitPrimaryRead() {
+        primaryRead.remove();
+    }
+
+    public static boolean isPrimaryRead() {
+        return Boolean.TRUE.equals(primaryRead.get());
+    }
+
+    public static void clear() {
+        pinnedToPrimary.remove();
+        readIntent.remove();
+        primaryRead.remove();
+    }
+}
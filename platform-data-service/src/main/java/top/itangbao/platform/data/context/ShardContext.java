@@ -0,0 +1,21 @@
+package top.itangbao.platform.data.context;
+
+/**
+ * 线程隔离的当前租户，ShardRoutingDataSource 据此选择租户所在的分片
+ * 必须在该租户的第一条 SQL 执行之前绑定；由拦截器在请求结束时清理
+ */
+public class ShardContext {
+    private static final ThreadLocal<String> currentTenantId = new ThreadLocal<>();
+
+    public static void bind(String tenantId) {
+        currentTenantId.set(tenantId);
+    }
+
+    public static String getTenantId() {
+        return currentTenantId.get();
+    }
+
+    public static void clear() {
+        currentTenantId.remove();
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import top.itangbao.platform.data.api.dto.*;
 import top.itangbao.platform.data.service.DynamicDataService;
 
@@ -52,6 +53,17 @@ public class DynamicDataController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * 失效缓存的元数据模式 (元数据变更后由调用方通知)，接收请求的实例再广播给其他实例
+     * URL: DELETE /api/data/schema-cache/{tenantId}/{schemaName}
+     */
+    @DeleteMapping("/schema-cache/{tenantId}/{schemaName}")
+    @PreAuthorize("hasAuthority('schema:write') or hasAnyRole('ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
+    public ResponseEntity<Void> evictSchemaCache(@PathVariable String tenantId, @PathVariable String schemaName) {
+        dynamicDataService.evictSchemaCache(tenantId, schemaName);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
     // ==========================================
     // 2. 数据增删改查 (DML)
     // URL 必须包含 /{tenantId}/{schemaName}
@@ -75,8 +87,9 @@ public class DynamicDataController {
     public ResponseEntity<DynamicDataResponse> getDynamicDataById(
             @PathVariable String tenantId,
             @PathVariable String schemaName,
-            @PathVariable Long id) {
-        DynamicDataResponse response = dynamicDataService.getDynamicDataById(tenantId, schemaName, id);
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields) {
+        DynamicDataResponse response = dynamicDataService.getDynamicDataById(tenantId, schemaName, id, fields);
         return ResponseEntity.ok(response);
     }
 
@@ -89,13 +102,20 @@ public class DynamicDataController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String sortBy,
             @RequestParam(defaultValue = "asc") String sortOrder,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) String fields,
             @RequestParam Map<String, String> filters) {
 
+        // 传入 cursor (空值表示第一页) 时使用 keyset 分页，适合大表深翻页；不传则沿用 OFFSET 分页
         PageRequestDTO pageRequest = PageRequestDTO.builder()
                 .page(page)
                 .size(size)
                 .sortBy(sortBy)
                 .sortOrder(sortOrder)
+                .cursor(cursor)
+                .count(count)
+                .fields(fields)
                 .build();
 
         FilterRequestDTO filterRequest = FilterRequestDTO.builder()
@@ -106,11 +126,29 @@ public class DynamicDataController {
         filterRequest.getFilters().remove("size");
         filterRequest.getFilters().remove("sortBy");
         filterRequest.getFilters().remove("sortOrder");
+        filterRequest.getFilters().remove("cursor");
+        filterRequest.getFilters().remove("count");
+        filterRequest.getFilters().remove("fields");
 
         PageResponseDTO<DynamicDataResponse> responses = dynamicDataService.getAllDynamicData(tenantId, schemaName, pageRequest, filterRequest);
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * 增量变更 (供客户端镜像同步)：首次不带 since 拉取全部记录，之后以响应的 nextToken 作为 since 只拉取变更
+     * hasMore 为 true 时立即继续拉取；resyncRequired 为 true 时需丢弃本地数据重新同步
+     * URL: GET /api/data/{tenantId}/{schemaName}/changes?since=&limit=
+     */
+    @GetMapping("/{tenantId}/{schemaName}/changes")
+    @PreAuthorize("hasAnyAuthority('data:read_all', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<DataChangesResponse> getChanges(
+            @PathVariable String tenantId,
+            @PathVariable String schemaName,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(dynamicDataService.getChanges(tenantId, schemaName, since, limit));
+    }
+
     @PutMapping("/{tenantId}/{schemaName}/{id}")
     @PreAuthorize("hasAnyAuthority('data:update', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
     public ResponseEntity<DynamicDataResponse> updateDynamicData(
@@ -132,6 +170,58 @@ public class DynamicDataController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    // ==========================================
+    // 3. 批量操作 (一次请求、一个事务、一条 JDBC batch)
+    // ==========================================
+
+    @PostMapping("/{tenantId}/{schemaName}/batch")
+    @PreAuthorize("hasAnyAuthority('data:create', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
+    public ResponseEntity<BatchOperationResponse> batchInsertDynamicData(
+            @PathVariable String tenantId,
+            @PathVariable String schemaName,
+            @Valid @RequestBody BatchInsertRequest request) {
+        BatchOperationResponse response = dynamicDataService.batchInsertDynamicData(tenantId, schemaName, request.getItems());
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{tenantId}/{schemaName}/batch")
+    @PreAuthorize("hasAnyAuthority('data:update', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
+    public ResponseEntity<BatchOperationResponse> batchUpdateDynamicData(
+            @PathVariable String tenantId,
+            @PathVariable String schemaName,
+            @Valid @RequestBody BatchUpdateRequest request) {
+        BatchOperationResponse response = dynamicDataService.batchUpdateDynamicData(tenantId, schemaName, request.getItems());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 批量删除 (DELETE 请求体在部分网关/客户端中不可靠，使用 POST)
+     * URL: POST /api/data/{tenantId}/{schemaName}/batch/delete
+     */
+    @PostMapping("/{tenantId}/{schemaName}/batch/delete")
+    @PreAuthorize("hasAnyAuthority('data:delete', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
+    public ResponseEntity<BatchOperationResponse> batchDeleteDynamicData(
+            @PathVariable String tenantId,
+            @PathVariable String schemaName,
+            @Valid @RequestBody BatchDeleteRequest request) {
+        BatchOperationResponse response = dynamicDataService.batchDeleteDynamicData(tenantId, schemaName, request.getIds());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 聚合统计，过滤条件与数据权限同列表查询
+     * URL: POST /api/data/{tenantId}/{schemaName}/aggregate
+     */
+    @PostMapping("/{tenantId}/{schemaName}/aggregate")
+    @PreAuthorize("hasAnyAuthority('data:read_all', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN', 'ROLE_USER')")
+    public ResponseEntity<AggregateResponse> aggregateDynamicData(
+            @PathVariable String tenantId,
+            @PathVariable String schemaName,
+            @Valid @RequestBody AggregateRequest request) {
+        AggregateResponse response = dynamicDataService.aggregateDynamicData(tenantId, schemaName, request);
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping(value = "/{tenantId}/{schemaName}/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAnyAuthority('data:import', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
     public ResponseEntity<DataImportResponse> importData(
@@ -147,11 +237,14 @@ public class DynamicDataController {
 
     @GetMapping(value = "/{tenantId}/{schemaName}/export", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
     @PreAuthorize("hasAnyAuthority('data:export', 'ROLE_ADMIN', 'ROLE_TENANT_ADMIN')")
-    public ResponseEntity<byte[]> exportData(
+    public ResponseEntity<StreamingResponseBody> exportData(
             @PathVariable String tenantId,
             @PathVariable String schemaName,
             @RequestParam Map<String, String> filters,
-            @RequestParam(defaultValue = "csv") String format) throws IOException {
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(defaultValue = "1") int parallelism,
+            @RequestParam(defaultValue = "false") boolean zip) {
 
         FilterRequestDTO filterRequest = FilterRequestDTO.builder()
                 .filters(new java.util.HashMap<>(filters))
@@ -161,14 +254,19 @@ public class DynamicDataController {
         filterRequest.getFilters().remove("size");
         filterRequest.getFilters().remove("sortBy");
         filterRequest.getFilters().remove("sortOrder");
+        filterRequest.getFilters().remove("format");
+        filterRequest.getFilters().remove("gzip");
+        filterRequest.getFilters().remove("parallelism");
+        filterRequest.getFilters().remove("zip");
 
-        byte[] fileBytes = dynamicDataService.exportData(tenantId, schemaName, filterRequest, format);
+        StreamingResponseBody body = dynamicDataService.exportData(tenantId, schemaName, filterRequest, format, gzip,
+                parallelism, zip);
 
         HttpHeaders headers = new HttpHeaders();
-        String fileName = schemaName + "_data." + format;
+        String fileName = zip ? schemaName + "_data.zip" : schemaName + "_data." + format + (gzip ? ".gz" : "");
         headers.setContentDispositionFormData("attachment", fileName);
         headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
 
-        return new ResponseEntity<>(fileBytes, headers, HttpStatus.OK);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package top.itangbao.platform.data.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import top.itangbao.platform.data.manager.TenantShardMover;
+import top.itangbao.platform.data.manager.TenantShardResolver;
+import top.itangbao.platform.data.manager.TenantShardResolver.TenantShardAssignment;
+
+/**
+ * 租户分片运维接口 (仅在启用分片时注册)
+ */
+@RestController
+@RequestMapping("/api/data/admin/tenants")
+@ConditionalOnProperty(prefix = "data.sharding", name = "enabled", havingValue = "true")
+public class ShardAdminController {
+
+    @Autowired
+    private TenantShardResolver tenantShardResolver;
+
+    @Autowired
+    private TenantShardMover tenantShardMover;
+
+    /**
+     * 查询租户所在分片及迁移进度
+     * URL: GET /api/data/admin/tenants/{tenantId}/shard
+     */
+    @GetMapping("/{tenantId}/shard")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<TenantShardAssignment> getShard(@PathVariable String tenantId) {
+        return ResponseEntity.ok(tenantShardResolver.resolve(tenantId));
+    }
+
+    /**
+     * 在线迁移租户到目标分片 (后台执行，通过上面的接口查询进度)
+     * URL: POST /api/data/admin/tenants/{tenantId}/shard/move?targetShard=shard-2
+     */
+    @PostMapping("/{tenantId}/shard/move")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<TenantShardAssignment> moveTenant(@PathVariable String tenantId, @RequestParam String targetShard) {
+        return new ResponseEntity<>(tenantShardMover.startMove(tenantId, targetShard), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,51 @@
+package top.itangbao.platform.data.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import top.itangbao.platform.data.manager.DynamicTableManager;
+import top.itangbao.platform.data.manager.SchemaCacheManager;
+import top.itangbao.platform.data.manager.SharedTablePromoter;
+import top.itangbao.platform.data.manager.TablePlacementRegistry.TablePlacement;
+
+/**
+ * 共享表存储运维接口 (仅在启用共享表时注册)
+ */
+@RestController
+@RequestMapping("/api/data/admin/tenants")
+@ConditionalOnProperty(prefix = "data.shared-table", name = "enabled", havingValue = "true")
+public class TablePlacementAdminController {
+
+    @Autowired
+    private DynamicTableManager dynamicTableManager;
+
+    @Autowired
+    private SchemaCacheManager schemaCacheManager;
+
+    @Autowired
+    private SharedTablePromoter sharedTablePromoter;
+
+    /**
+     * 查询模式的存储方式 (SHARED / PROMOTING / DEDICATED) 及提升进度
+     * URL: GET /api/data/admin/tenants/{tenantId}/schemas/{schemaName}/placement
+     */
+    @GetMapping("/{tenantId}/schemas/{schemaName}/placement")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<TablePlacement> getPlacement(@PathVariable String tenantId, @PathVariable String schemaName) {
+        return ResponseEntity.ok(dynamicTableManager.getPlacement(tenantId, schemaName));
+    }
+
+    /**
+     * 将模式从共享表提升为独立表 (后台执行，期间只读，通过上面的接口查询进度)
+     * URL: POST /api/data/admin/tenants/{tenantId}/schemas/{schemaName}/promote
+     */
+    @PostMapping("/{tenantId}/schemas/{schemaName}/promote")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<TablePlacement> promote(@PathVariable String tenantId, @PathVariable String schemaName) {
+        return new ResponseEntity<>(sharedTablePromoter.startPromotion(schemaCacheManager.getSchema(tenantId, schemaName)),
+                HttpStatus.ACCEPTED);
+    }
+}
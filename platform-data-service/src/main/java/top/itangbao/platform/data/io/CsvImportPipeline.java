@@ -0,0 +1,338 @@
+package top.itangbao.platform.data.io;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import top.itangbao.platform.data.api.dto.DataChangeEvent;
+import top.itangbao.platform.data.api.dto.DataImportError;
+import top.itangbao.platform.data.api.dto.DataImportResponse;
+import top.itangbao.platform.data.context.UserContext;
+import top.itangbao.platform.data.manager.DataChangeOutbox;
+import top.itangbao.platform.data.manager.DynamicDmlExecutor;
+import top.itangbao.platform.data.plan.FieldPlan;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.OverflowColumn;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CSV 流式批量导入
+ * 解析线程 --(有界队列)--> 校验/转换 (请求线程) --> JDBC 批量 INSERT，每 N 行提交一次事务
+ * - 解析与校验并行，队列满时解析线程阻塞，内存占用有上限
+ * - 每个提交块独立事务，不会在整个导入期间持有锁
+ * - 某个块批量写入失败时回退为逐行写入，定位具体失败的行
+ * - 启用数据变更事件时，每行的 INSERT 事件与该行在同一事务内写入 outbox
+ */
+@Component
+public class CsvImportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(CsvImportPipeline.class);
+
+    private static final List<String> SYSTEM_COLUMNS = List.of("tenant_id", "created_at", "updated_at", "created_by", "dept_id");
+
+    private final DynamicDmlExecutor dmlExecutor;
+    private final DataChangeOutbox dataChangeOutbox;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${data.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${data.import.commit-interval:5000}")
+    private int commitInterval;
+
+    @Value("${data.import.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${data.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private ExecutorService parserExecutor;
+
+    public CsvImportPipeline(DynamicDmlExecutor dmlExecutor, DataChangeOutbox dataChangeOutbox,
+                             PlatformTransactionManager transactionManager) {
+        this.dmlExecutor = dmlExecutor;
+        this.dataChangeOutbox = dataChangeOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        this.parserExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "csv-import-parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parserExecutor.shutdownNow();
+    }
+
+    /**
+     * 导入 CSV (首行为表头，列名对应字段名，未知列忽略)
+     * 需要在请求线程上调用：创建人、部门取自 UserContext
+     */
+    public DataImportResponse importCsv(String tenantId, String schemaName, String tableName, SchemaPlan plan,
+                                        InputStream inputStream) throws IOException {
+        CsvReader csvReader = new CsvReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        List<String> headers = csvReader.readRecord();
+        if (headers == null) {
+            return DataImportResponse.builder().totalRecords(0).successCount(0).failedCount(0).message("Empty file").build();
+        }
+
+        ImportJob job = new ImportJob(tenantId, schemaName, tableName, plan, headers);
+        BlockingQueue<ParsedRecord> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        Future<?> producer = parserExecutor.submit(() -> parse(csvReader, queue, cancelled));
+
+        try {
+            while (true) {
+                ParsedRecord record = queue.take();
+                if (record.values() == null) {
+                    if (record.error() != null) {
+                        job.addError(job.totalRecords + 1, "CSV 解析失败: " + record.error().getMessage(), null);
+                    }
+                    break;
+                }
+                job.accept(record.values());
+            }
+            job.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("CSV import interrupted", e);
+        } finally {
+            cancelled.set(true);
+            producer.cancel(true);
+        }
+
+        logger.info("CSV import into '{}' finished: total={}, success={}, failed={}", tableName, job.totalRecords, job.successCount, job.failedCount);
+        return DataImportResponse.builder()
+                .totalRecords(job.totalRecords)
+                .successCount(job.successCount)
+                .failedCount(job.failedCount)
+                .message(job.failedCount == 0 ? "Data imported successfully." : "Data imported with some failures.")
+                .errors(job.errors)
+                .build();
+    }
+
+    private void parse(CsvReader csvReader, BlockingQueue<ParsedRecord> queue, AtomicBoolean cancelled) {
+        ParsedRecord end = new ParsedRecord(null, null);
+        try {
+            List<String> values;
+            while (!cancelled.get() && (values = csvReader.readRecord()) != null) {
+                if (values.size() == 1 && values.get(0).isEmpty()) {
+                    continue; // 空行
+                }
+                offer(queue, new ParsedRecord(values, null), cancelled);
+            }
+        } catch (IOException e) {
+            end = new ParsedRecord(null, e);
+        }
+        offer(queue, end, cancelled);
+    }
+
+    private void offer(BlockingQueue<ParsedRecord> queue, ParsedRecord record, AtomicBoolean cancelled) {
+        try {
+            // 消费端异常退出时不能永久阻塞在 put 上
+            while (!cancelled.get() && !queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                // 队列已满，等待消费
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record ParsedRecord(List<String> values, IOException error) {
+    }
+
+    /**
+     * @param after 写入的字段值，用于数据变更事件；未启用 outbox 时为 null
+     */
+    private record PendingRow(int rowNumber, Object[] params, Map<String, Object> after) {
+    }
+
+    /**
+     * 单次导入的状态 (只在请求线程上访问)
+     */
+    private class ImportJob {
+
+        private final String tenantId;
+        private final String schemaName;
+        private final String tableName;
+        private final SchemaPlan plan;
+        private final List<String> headers;
+        private final FieldPlan[] columnFields; // 表头列 -> 字段，未知列为 null
+        private final int columnCount; // 写入列数 (溢出字段合并为末尾的 ext_data 一列)
+        private final boolean hasOverflow;
+        private final String insertSql;
+        private final Object[] systemValues;
+        private final Map<String, Object> recordData = new HashMap<>();
+        private final List<PendingRow> pending = new ArrayList<>();
+        private final List<DataImportError> errors = new ArrayList<>();
+
+        private int totalRecords;
+        private int successCount;
+        private int failedCount;
+
+        ImportJob(String tenantId, String schemaName, String tableName, SchemaPlan plan, List<String> headers) {
+            this.tenantId = tenantId;
+            this.schemaName = schemaName;
+            this.tableName = tableName;
+            this.plan = plan;
+            this.headers = headers;
+            this.columnFields = new FieldPlan[headers.size()];
+
+            List<String> columnNames = new ArrayList<>(SYSTEM_COLUMNS);
+            Set<String> seen = new HashSet<>();
+            boolean overflow = false;
+            for (int i = 0; i < headers.size(); i++) {
+                FieldPlan field = plan.getField(headers.get(i).trim());
+                if (field != null && seen.add(field.getName())) {
+                    columnFields[i] = field;
+                    if (field.isOverflow()) {
+                        overflow = true;
+                    } else {
+                        columnNames.add(field.getName());
+                    }
+                }
+            }
+            if (overflow) {
+                columnNames.add(OverflowColumn.NAME);
+            }
+            this.hasOverflow = overflow;
+            this.columnCount = columnNames.size();
+            this.insertSql = dmlExecutor.buildInsertSql(tableName, columnNames);
+
+            String currentUser = UserContext.getUsername();
+            Long currentDept = UserContext.getDeptId();
+            LocalDateTime now = LocalDateTime.now();
+            this.systemValues = new Object[]{tenantId, now, now,
+                    currentUser != null ? currentUser : "system",
+                    currentDept != null ? currentDept : 0L};
+        }
+
+        void accept(List<String> values) {
+            int rowNumber = ++totalRecords;
+            if (values.size() != headers.size()) {
+                addError(rowNumber, "列数与表头不一致: 期望 " + headers.size() + " 列，实际 " + values.size() + " 列", null);
+                return;
+            }
+
+            recordData.clear();
+            for (int i = 0; i < values.size(); i++) {
+                if (columnFields[i] != null) {
+                    recordData.put(columnFields[i].getName(), values.get(i));
+                }
+            }
+            Map<String, String> fieldErrors = plan.validate(recordData);
+            if (!fieldErrors.isEmpty()) {
+                addError(rowNumber, "数据校验失败", fieldErrors);
+                return;
+            }
+
+            Object[] params = Arrays.copyOf(systemValues, columnCount);
+            Map<String, Object> overflow = hasOverflow ? new LinkedHashMap<>() : null;
+            Map<String, Object> after = dataChangeOutbox.isEnabled() ? new HashMap<>() : null;
+            int index = systemValues.length;
+            for (int i = 0; i < values.size(); i++) {
+                FieldPlan field = columnFields[i];
+                if (field == null) {
+                    continue;
+                }
+                Object value = field.convert(values.get(i));
+                if (field.isOverflow()) {
+                    overflow.put(field.getName(), value);
+                } else {
+                    params[index++] = value;
+                }
+                if (after != null) {
+                    after.put(field.getName(), value);
+                }
+            }
+            if (overflow != null) {
+                params[index] = OverflowColumn.write(overflow);
+            }
+            pending.add(new PendingRow(rowNumber, params, after));
+            if (pending.size() >= commitInterval) {
+                flush();
+            }
+        }
+
+        /**
+         * 提交当前块：块内按 batchSize 分批执行 JDBC batch，整个块一个事务
+         */
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (int from = 0; from < pending.size(); from += batchSize) {
+                        List<PendingRow> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                        List<Object[]> rows = new ArrayList<>(batch.size());
+                        for (PendingRow row : batch) {
+                            rows.add(row.params());
+                        }
+                        if (!dataChangeOutbox.isEnabled()) {
+                            dmlExecutor.batchInsert(insertSql, rows);
+                            continue;
+                        }
+                        long[] ids = dmlExecutor.batchInsertReturningKeys(insertSql, rows);
+                        List<DataChangeEvent> events = new ArrayList<>(ids.length);
+                        for (int i = 0; i < ids.length; i++) {
+                            events.add(dataChangeOutbox.insertEvent(tenantId, schemaName, ids[i], batch.get(i).after()));
+                        }
+                        dataChangeOutbox.record(events);
+                    }
+                });
+                successCount += pending.size();
+            } catch (RuntimeException e) {
+                logger.warn("Batch insert into '{}' failed, retrying {} rows one by one: {}", tableName, pending.size(), e.getMessage());
+                insertRowByRow();
+            }
+            pending.clear();
+        }
+
+        private void insertRowByRow() {
+            for (PendingRow row : pending) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        if (!dataChangeOutbox.isEnabled()) {
+                            dmlExecutor.insert(insertSql, row.params());
+                            return;
+                        }
+                        long id = dmlExecutor.insertReturningKey(insertSql, row.params());
+                        dataChangeOutbox.recordInsert(tenantId, schemaName, id, row.after());
+                    });
+                    successCount++;
+                } catch (DataAccessException e) {
+                    addError(row.rowNumber(), "写入失败: " + e.getMostSpecificCause().getMessage(), null);
+                }
+            }
+        }
+
+        void addError(int rowNumber, String message, Map<String, String> fieldErrors) {
+            failedCount++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(DataImportError.builder().rowNumber(rowNumber).message(message).fieldErrors(fieldErrors).build());
+            }
+            logger.debug("Failed to import row {}: {} {}", rowNumber, message, fieldErrors != null ? fieldErrors : "");
+        }
+    }
+}
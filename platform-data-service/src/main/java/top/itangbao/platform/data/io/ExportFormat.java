@@ -0,0 +1,30 @@
+package top.itangbao.platform.data.io;
+
+/**
+ * 导出文件格式
+ */
+public enum ExportFormat {
+    /** RFC 4180 CSV，首行为表头 */
+    CSV("csv"),
+    /** 每行一个 JSON 对象，数值与布尔值保留类型 */
+    NDJSON("ndjson");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String format) {
+        for (ExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + format);
+    }
+}
@@ -0,0 +1,196 @@
+package top.itangbao.platform.data.io;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.data.context.ReadRoutingContext;
+import top.itangbao.platform.data.context.ShardContext;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 并行分片导出：按 id 区间把结果切成若干片，在有界线程池上各占一个连接并发读取
+ * - 每片先写入临时文件 (gzip 时每片是独立的 gzip member，直接拼接仍是合法的 gzip 流)
+ * - 拼接模式按分片顺序依次写出临时文件，整体仍按 id 升序，与顺序导出的内容一致
+ * - zip 模式每片一个条目 (CSV 各带表头)，按分片顺序写出
+ * 分片按 id 区间等宽切分，id 分布不均时各片行数不同；临时文件总大小与导出结果相当
+ * 线程池大小即并行导出同时占用的连接数上限，需小于连接池大小
+ */
+@Component
+public class ParallelExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelExporter.class);
+
+    private final StreamingExporter streamingExporter;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${data.export.parallel.pool-size:4}")
+    private int poolSize;
+
+    @Value("${data.export.parallel.max-slices:32}")
+    private int maxSlices;
+
+    private ExecutorService executor;
+
+    /**
+     * 一次并行导出
+     * @param tenantId 租户ID，分片线程据此路由到租户所在的分片
+     * @param pinnedToPrimary 是否必须读主库
+     * @param selectSql 查询语句 (含 WHERE，不含排序)，分片条件以 AND 追加
+     * @param boundsSql 相同条件下的 SELECT MIN(id), MAX(id)
+     * @param params selectSql 与 boundsSql 共用的参数
+     * @param slices 分片数
+     * @param zip 每片一个 zip 条目；否则按顺序拼接为一个文件
+     * @param partName zip 条目的文件名前缀
+     */
+    public record ParallelExportJob(String tenantId, boolean pinnedToPrimary, String selectSql, String boundsSql,
+                                    Object[] params, List<String> headers, int[] headerToColumn, ExportFormat format,
+                                    int slices, boolean zip, boolean gzip, String partName) {
+    }
+
+    public ParallelExporter(StreamingExporter streamingExporter, JdbcTemplate jdbcTemplate) {
+        this.streamingExporter = streamingExporter;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread thread = new Thread(r, "data-export-slice-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getMaxSlices() {
+        return maxSlices;
+    }
+
+    /**
+     * 在调用线程上查询 id 范围并写出结果，调用方需已绑定 ShardContext 与读路由
+     * 写出失败 (如客户端断开) 时取消尚未完成的分片
+     * @return 导出的行数
+     */
+    public long export(ParallelExportJob job, OutputStream outputStream) throws IOException {
+        List<long[]> ranges = splitIdRange(job);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Path> files = new ArrayList<>(ranges.size());
+        List<Future<Long>> futures = new ArrayList<>(ranges.size());
+        long rowCount = 0;
+        try {
+            for (long[] range : ranges) {
+                Path file = Files.createTempFile("mf-export-", ".part");
+                files.add(file);
+                futures.add(executor.submit(() -> writeSlice(job, range, file, cancelled)));
+            }
+
+            if (job.zip()) {
+                ZipOutputStream zipStream = new ZipOutputStream(outputStream);
+                for (int i = 0; i < futures.size(); i++) {
+                    rowCount += await(futures.get(i));
+                    zipStream.putNextEntry(new ZipEntry(String.format("%s.part-%04d.%s", job.partName(), i + 1, job.format().getExtension())));
+                    Files.copy(files.get(i), zipStream);
+                    zipStream.closeEntry();
+                }
+                zipStream.finish();
+            } else {
+                streamingExporter.writeHeader(job.headers(), job.format(), outputStream, job.gzip());
+                for (int i = 0; i < futures.size(); i++) {
+                    rowCount += await(futures.get(i));
+                    Files.copy(files.get(i), outputStream);
+                }
+            }
+            outputStream.flush();
+        } catch (IOException | RuntimeException e) {
+            cancelled.set(true);
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        logger.info("Exported {} rows in {} slice(s)", rowCount, ranges.size());
+        return rowCount;
+    }
+
+    /**
+     * 按 [MIN(id), MAX(id)] 等宽切分为左闭右开区间；没有数据时返回一个空区间，仍写出表头
+     */
+    private List<long[]> splitIdRange(ParallelExportJob job) {
+        long[] bounds = jdbcTemplate.query(job.boundsSql(), rs -> {
+            rs.next();
+            long min = rs.getLong(1);
+            return rs.wasNull() ? null : new long[]{min, rs.getLong(2)};
+        }, job.params());
+        if (bounds == null) {
+            return List.<long[]>of(new long[]{0, 0});
+        }
+        long span = bounds[1] - bounds[0] + 1;
+        int slices = (int) Math.max(1, Math.min(Math.min(job.slices(), maxSlices), span));
+        long width = (span + slices - 1) / slices;
+        List<long[]> ranges = new ArrayList<>(slices);
+        for (long from = bounds[0]; from <= bounds[1]; from += width) {
+            ranges.add(new long[]{from, Math.min(from + width, bounds[1] + 1)});
+        }
+        return ranges;
+    }
+
+    private long writeSlice(ParallelExportJob job, long[] range, Path file, AtomicBoolean cancelled) throws IOException {
+        ShardContext.bind(job.tenantId());
+        ReadRoutingContext.enterRead(job.pinnedToPrimary());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            Object[] params = Arrays.copyOf(job.params(), job.params().length + 2);
+            params[params.length - 2] = range[0];
+            params[params.length - 1] = range[1];
+            return streamingExporter.writePart(job.selectSql() + " AND `id` >= ? AND `id` < ? ORDER BY `id` ASC", params,
+                    job.headers(), job.headerToColumn(), job.format(), out, job.gzip() && !job.zip(), job.zip(), cancelled::get);
+        } finally {
+            ReadRoutingContext.clear();
+            ShardContext.clear();
+        }
+    }
+
+    private static long await(Future<Long> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("export interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package top.itangbao.platform.data.io;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流式导出：前向只读游标逐行读取，边读边写，内存占用与表大小无关
+ * MySQL 驱动默认会把整个结果集读入内存，需要二选一：
+ * - 连接串开启 useCursorFetch=true，fetch-size 为正数时使用服务端游标分批拉取
+ * - fetch-size 配置为 -2147483648 (Integer.MIN_VALUE)，逐行流式读取
+ */
+@Component
+public class StreamingExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingExporter.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+
+    @Value("${data.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public StreamingExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * 执行查询并按指定格式写出
+     * @param selectSql 查询语句，列顺序与 selectColumns 一致
+     * @param params 查询参数
+     * @param headers CSV 表头 / NDJSON 属性名
+     * @param headerToColumn 每个表头对应 selectSql 中的列序号 (从 1 开始)，0 表示该列在表中不存在，输出空值
+     * @param gzip 是否 gzip 压缩输出
+     * @return 导出的行数
+     */
+    public long export(String selectSql, Object[] params, List<String> headers, int[] headerToColumn,
+                       ExportFormat format, OutputStream outputStream, boolean gzip) throws IOException {
+        long rowCount = writePart(selectSql, params, headers, headerToColumn, format, outputStream, gzip, true, () -> false);
+        logger.info("Streamed {} rows to export", rowCount);
+        return rowCount;
+    }
+
+    /**
+     * 只写出表头 (NDJSON 没有表头，不写任何内容)
+     */
+    void writeHeader(List<String> headers, ExportFormat format, OutputStream outputStream, boolean gzip) throws IOException {
+        if (format != ExportFormat.CSV) {
+            return;
+        }
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, WRITE_BUFFER_SIZE) : outputStream;
+        Writer writer = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+        new CsvWriter(writer).writeRecord(headers);
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+    }
+
+    /**
+     * 执行查询写出一段结果，并行导出的各分片也由它写出
+     * gzip 时写出一个完整的 gzip member，多个 member 直接拼接仍是合法的 gzip 流
+     * @param withHeader 是否写出 CSV 表头
+     * @param cancelled 每行检查一次，返回 true 时中止查询
+     * @return 写出的行数
+     */
+    long writePart(String selectSql, Object[] params, List<String> headers, int[] headerToColumn, ExportFormat format,
+                   OutputStream outputStream, boolean gzip, boolean withHeader, BooleanSupplier cancelled) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, WRITE_BUFFER_SIZE) : outputStream;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        RecordWriter recordWriter = format == ExportFormat.NDJSON
+                ? new NdjsonRecordWriter(jsonFactory.createGenerator(writer), headers, headerToColumn)
+                : new CsvRecordWriter(new CsvWriter(writer), headerToColumn);
+        if (withHeader) {
+            recordWriter.header(headers);
+        }
+
+        long[] rowCount = new long[1];
+        RowCallbackHandler handler = rs -> {
+            if (cancelled.getAsBoolean()) {
+                throw new CancellationException("export cancelled");
+            }
+            try {
+                recordWriter.record(rs);
+                rowCount[0]++;
+            } catch (IOException e) {
+                // 客户端断开等写出异常，终止查询
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(selectSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                return ps;
+            }, handler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        recordWriter.finish();
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        return rowCount[0];
+    }
+
+    private static Object readValue(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * 一种导出格式的逐行写出
+     */
+    private interface RecordWriter {
+
+        void header(List<String> headers) throws IOException;
+
+        void record(ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRecordWriter implements RecordWriter {
+
+        private final CsvWriter csvWriter;
+        private final int[] headerToColumn;
+
+        CsvRecordWriter(CsvWriter csvWriter, int[] headerToColumn) {
+            this.csvWriter = csvWriter;
+            this.headerToColumn = headerToColumn;
+        }
+
+        @Override
+        public void header(List<String> headers) throws IOException {
+            csvWriter.writeRecord(headers);
+        }
+
+        @Override
+        public void record(ResultSet rs) throws IOException, SQLException {
+            for (int column : headerToColumn) {
+                Object value = column == 0 ? null : readValue(rs, column);
+                csvWriter.field(value == null ? null : String.valueOf(value));
+            }
+            csvWriter.endRecord();
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    /**
+     * 每行一个 JSON 对象，以 \n 结尾；日期时间为 ISO 文本
+     */
+    private static final class NdjsonRecordWriter implements RecordWriter {
+
+        private final JsonGenerator generator;
+        private final List<String> headers;
+        private final int[] headerToColumn;
+
+        NdjsonRecordWriter(JsonGenerator generator, List<String> headers, int[] headerToColumn) {
+            this.generator = generator;
+            this.headers = headers;
+            this.headerToColumn = headerToColumn;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header(List<String> headers) {
+        }
+
+        @Override
+        public void record(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < headerToColumn.length; i++) {
+                generator.writeFieldName(headers.get(i));
+                Object value = headerToColumn[i] == 0 ? null : readValue(rs, headerToColumn[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof BigInteger integer) {
+                    generator.writeNumber(integer);
+                } else if (value instanceof Double || value instanceof Float) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
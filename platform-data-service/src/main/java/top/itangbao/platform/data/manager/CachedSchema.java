@@ -0,0 +1,50 @@
+package top.itangbao.platform.data.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 本地缓存的元数据模式快照 (不可变)，连同该版本编译好的 SchemaPlan
+ * 版本号来自 metadata-service；旧版本服务未返回版本号时，退化为模式更新时间
+ */
+public final class CachedSchema {
+
+    private final MetadataSchemaDTO schema;
+    private final long version;
+    private final SchemaPlan plan;
+    private final LocalDateTime loadedAt;
+
+    public CachedSchema(MetadataSchemaDTO schema, ObjectMapper objectMapper) {
+        this.schema = schema;
+        this.version = resolveVersion(schema);
+        this.plan = SchemaPlan.compile(schema, version, objectMapper);
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    public MetadataSchemaDTO getSchema() {
+        return schema;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public SchemaPlan getPlan() {
+        return plan;
+    }
+
+    public LocalDateTime getLoadedAt() {
+        return loadedAt;
+    }
+
+    static long resolveVersion(MetadataSchemaDTO schema) {
+        if (schema.getVersion() != null) {
+            return schema.getVersion();
+        }
+        return schema.getUpdatedAt() != null ? schema.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) : 0L;
+    }
+}
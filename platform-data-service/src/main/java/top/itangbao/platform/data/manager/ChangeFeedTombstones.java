@@ -0,0 +1,205 @@
+package top.itangbao.platform.data.manager;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.data.config.ShardRoutingDataSource;
+import top.itangbao.platform.data.query.FilterCondition;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 增量变更接口的删除记录 mf_data_tombstone (与租户的动态表位于同一分片)
+ * - 删除语句执行前在同一事务内由 INSERT ... SELECT 写入，保留行的 created_by/dept_id 供数据权限过滤
+ * - 保留 tombstone-retention-days 天后定时清理，水位早于保留期的客户端需要重新全量同步
+ * 未启用时所有方法为空操作，删除路径不增加任何语句
+ */
+@Component
+public class ChangeFeedTombstones {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeedTombstones.class);
+
+    static final String TABLE_NAME = "mf_data_tombstone";
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` ("
+            + "`tenant_id` VARCHAR(50) NOT NULL, "
+            + "`schema_name` VARCHAR(128) NOT NULL, "
+            + "`record_id` BIGINT NOT NULL, "
+            + "`created_by` VARCHAR(100) NULL, "
+            + "`dept_id` BIGINT NULL, "
+            + "`deleted_at` DATETIME(3) NOT NULL, "
+            + "PRIMARY KEY (`tenant_id`, `schema_name`, `record_id`), "
+            + "KEY `idx_mf_tombstone_feed` (`tenant_id`, `schema_name`, `deleted_at`, `record_id`), "
+            + "KEY `idx_mf_tombstone_deleted_at` (`deleted_at`))";
+
+    private static final int PURGE_CHUNK_SIZE = 10_000;
+
+    /**
+     * 一条删除记录
+     */
+    public record Tombstone(long recordId, LocalDateTime deletedAt) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${data.changes.enabled:false}")
+    private boolean enabled;
+
+    @Value("${data.changes.tombstone-retention-days:30}")
+    private long retentionDays;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        shardTemplates().forEach(template -> template.execute(CREATE_TABLE_SQL));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "data-tombstone-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purgeExpired, 1, 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getRetention() {
+        return Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * 记录即将删除的行，须在 DELETE 之前、同一事务内调用 (调用方已绑定 ShardContext)
+     * 不存在的 ID 不产生记录；表重建后 ID 可能复用，同一 ID 的旧记录被覆盖
+     */
+    public void recordDeletes(String tableName, String tenantId, String schemaName, Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>(ids.size() + 3);
+        params.add(schemaName);
+        params.add(LocalDateTime.now());
+        params.add(tenantId);
+        params.addAll(ids);
+        jdbcTemplate.update("REPLACE INTO `" + TABLE_NAME + "` (`tenant_id`, `schema_name`, `record_id`, `created_by`, `dept_id`, `deleted_at`) "
+                        + "SELECT `tenant_id`, ?, `id`, `created_by`, `dept_id`, ? FROM `" + tableName + "` WHERE `tenant_id` = ? AND `id` IN ("
+                        + String.join(",", Collections.nCopies(ids.size(), "?")) + ")",
+                params.toArray());
+    }
+
+    /**
+     * 水位之后、边界之前 (含) 的删除记录，按 (deleted_at, record_id) 升序
+     * @param permissions 数据权限条件 (作用于 created_by/dept_id)，参数在 permissionParams 中
+     */
+    public List<Tombstone> findAfter(String tenantId, String schemaName, LocalDateTime afterTime, long afterId,
+                                     LocalDateTime until, List<FilterCondition> permissions, List<Object> permissionParams, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT `record_id`, `deleted_at` FROM `" + TABLE_NAME
+                + "` WHERE `tenant_id` = ? AND `schema_name` = ?");
+        for (FilterCondition condition : permissions) {
+            condition.appendTo(sql);
+        }
+        sql.append(" AND (`deleted_at`, `record_id`) > (?, ?) AND `deleted_at` <= ? ORDER BY `deleted_at`, `record_id` LIMIT ?");
+
+        List<Object> params = new ArrayList<>();
+        params.add(tenantId);
+        params.add(schemaName);
+        params.addAll(permissionParams);
+        params.add(afterTime);
+        params.add(afterId);
+        params.add(until);
+        params.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Tombstone(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()), params.toArray());
+    }
+
+    /**
+     * 模式被删除后清除其删除记录 (调用方已绑定 ShardContext)
+     */
+    public void removeSchema(String tenantId, String schemaName) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM `" + TABLE_NAME + "` WHERE `tenant_id` = ? AND `schema_name` = ?", tenantId, schemaName);
+    }
+
+    /**
+     * 租户迁移时把删除记录复制到目标分片 (REPLACE INTO，可重复执行)；源分片未建表时跳过
+     * @return 复制的记录数
+     */
+    static long copyTenant(JdbcTemplate source, JdbcTemplate target, String tenantId) {
+        List<Object[]> rows;
+        try {
+            rows = source.query("SELECT `tenant_id`, `schema_name`, `record_id`, `created_by`, `dept_id`, `deleted_at` FROM `"
+                            + TABLE_NAME + "` WHERE `tenant_id` = ?",
+                    (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2), rs.getLong(3), rs.getString(4),
+                            rs.getObject(5), rs.getTimestamp(6)},
+                    tenantId);
+        } catch (BadSqlGrammarException e) {
+            return 0;
+        }
+        if (!rows.isEmpty()) {
+            target.execute(CREATE_TABLE_SQL);
+            target.batchUpdate("REPLACE INTO `" + TABLE_NAME + "` (`tenant_id`, `schema_name`, `record_id`, `created_by`, `dept_id`, `deleted_at`) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        }
+        return rows.size();
+    }
+
+    private void purgeExpired() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(getRetention()));
+        for (JdbcTemplate template : shardTemplates()) {
+            try {
+                long purged = 0;
+                int deleted;
+                do {
+                    deleted = template.update("DELETE FROM `" + TABLE_NAME + "` WHERE `deleted_at` < ? LIMIT " + PURGE_CHUNK_SIZE, cutoff);
+                    purged += deleted;
+                } while (deleted == PURGE_CHUNK_SIZE);
+                if (purged > 0) {
+                    logger.info("Purged {} expired tombstone(s).", purged);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Purging expired tombstones failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private List<JdbcTemplate> shardTemplates() {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        if (shards == null) {
+            return List.of(jdbcTemplate);
+        }
+        return shards.getShards().values().stream().map(JdbcTemplate::new).toList();
+    }
+}
@@ -0,0 +1,179 @@
+package top.itangbao.platform.data.manager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.itangbao.platform.data.api.dto.DataChangeEvent;
+import top.itangbao.platform.data.context.UserContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * 事务性 outbox：动态数据的增删改在同一事务内写入 mf_data_outbox，由 OutboxRelay 异步投递到 Kafka
+ * - 与业务写入同库同事务 (分片模式下写入租户所在分片)，事务回滚则事件一并丢弃
+ * - 同一记录的并发写入被行锁串行化，outbox 自增 ID 的顺序即该记录的提交顺序
+ * 未启用时所有方法为空操作，写入路径不增加任何语句
+ */
+@Component
+public class DataChangeOutbox {
+
+    static final String TABLE_NAME = "mf_data_outbox";
+
+    static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` ("
+            + "`id` BIGINT AUTO_INCREMENT PRIMARY KEY, "
+            + "`partition_key` VARCHAR(255) NOT NULL, "
+            + "`payload` LONGTEXT NOT NULL, "
+            + "`created_at` DATETIME NOT NULL)";
+
+    private static final String INSERT_SQL = "INSERT INTO `" + TABLE_NAME + "` (`partition_key`, `payload`, `created_at`) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<OutboxRelay> relay;
+
+    @Value("${data.outbox.enabled:false}")
+    private boolean enabled;
+
+    public DataChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ObjectProvider<OutboxRelay> relay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.relay = relay;
+    }
+
+    /**
+     * 调用方据此决定是否需要读取变更前的值
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordInsert(String tenantId, String schemaName, Long recordId, Map<String, Object> after) {
+        record(List.of(insertEvent(tenantId, schemaName, recordId, after)));
+    }
+
+    public void recordUpdate(String tenantId, String schemaName, Long recordId, Map<String, Object> before, Map<String, Object> after) {
+        DataChangeEvent event = updateEvent(tenantId, schemaName, recordId, before, after);
+        if (event != null) {
+            record(List.of(event));
+        }
+    }
+
+    public void recordDelete(String tenantId, String schemaName, Long recordId, Map<String, Object> before) {
+        record(List.of(deleteEvent(tenantId, schemaName, recordId, before)));
+    }
+
+    /**
+     * 批量写入一组事件 (一次 JDBC batch)
+     */
+    public void record(List<DataChangeEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox events must be recorded inside the writing transaction");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DataChangeEvent event : events) {
+            rows.add(new Object[]{partitionKey(event.getTenantId(), event.getSchemaName()), toJson(event), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        // 提交后唤醒投递线程，无需等到下一个轮询周期
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.ifAvailable(OutboxRelay::wakeUp);
+            }
+        });
+    }
+
+    public DataChangeEvent insertEvent(String tenantId, String schemaName, Long recordId, Map<String, Object> after) {
+        return event(tenantId, schemaName, recordId, DataChangeEvent.INSERT, null, normalize(after));
+    }
+
+    /**
+     * 只保留值发生变化的字段；没有字段变化时返回 null (不产生事件)
+     */
+    public DataChangeEvent updateEvent(String tenantId, String schemaName, Long recordId, Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> normalizedBefore = normalize(before);
+        Map<String, Object> normalizedAfter = normalize(after);
+        Map<String, Object> changedBefore = new LinkedHashMap<>();
+        Map<String, Object> changedAfter = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : normalizedAfter.entrySet()) {
+            Object previous = normalizedBefore.get(entry.getKey());
+            if (!Objects.equals(previous, entry.getValue())) {
+                changedBefore.put(entry.getKey(), previous);
+                changedAfter.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (changedAfter.isEmpty()) {
+            return null;
+        }
+        return event(tenantId, schemaName, recordId, DataChangeEvent.UPDATE, changedBefore, changedAfter);
+    }
+
+    public DataChangeEvent deleteEvent(String tenantId, String schemaName, Long recordId, Map<String, Object> before) {
+        return event(tenantId, schemaName, recordId, DataChangeEvent.DELETE, normalize(before), null);
+    }
+
+    static String partitionKey(String tenantId, String schemaName) {
+        return tenantId + "/" + schemaName;
+    }
+
+    private static DataChangeEvent event(String tenantId, String schemaName, Long recordId, String operation,
+                                         Map<String, Object> before, Map<String, Object> after) {
+        String changedBy = UserContext.getUsername();
+        return DataChangeEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .tenantId(tenantId)
+                .schemaName(schemaName)
+                .recordId(recordId)
+                .operation(operation)
+                .before(before)
+                .after(after)
+                .changedBy(changedBy != null ? changedBy : "system")
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * JDBC 读出的值与转换后的写入值统一为 java.time 类型，保证比较与序列化结果一致
+     */
+    private static Map<String, Object> normalize(Map<String, Object> values) {
+        if (values == null) {
+            return Map.of();
+        }
+        Map<String, Object> normalized = new HashMap<>(values.size() * 2);
+        values.forEach((key, value) -> {
+            if (value instanceof Timestamp timestamp) {
+                value = timestamp.toLocalDateTime();
+            } else if (value instanceof java.sql.Date date) {
+                value = date.toLocalDate();
+            }
+            normalized.put(key, value);
+        });
+        return normalized;
+    }
+
+    private String toJson(DataChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize data change event", e);
+        }
+    }
+}
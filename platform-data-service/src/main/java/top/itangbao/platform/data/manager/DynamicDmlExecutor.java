@@ -0,0 +1,179 @@
+package top.itangbao.platform.data.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 JdbcTemplate 的动态表 DML 执行器
+ * 批量写入走 JDBC batch，MySQL 需在连接串中开启 rewriteBatchedStatements=true，
+ * 驱动会把一批单行 INSERT 改写为多行 INSERT，一次网络往返写入整批数据
+ * 单行写入每条语句一次往返：INSERT 通过 getGeneratedKeys 取主键，UPDATE/DELETE 以影响行数判断记录是否存在；
+ * 同一 SQL 文本的预编译语句由驱动缓存复用 (cachePrepStmts=true)
+ */
+@Component
+public class DynamicDmlExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicDmlExecutor.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DynamicDmlExecutor(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 构建 INSERT 语句: INSERT INTO `table` (`c1`, `c2`) VALUES (?, ?)
+     */
+    public String buildInsertSql(String tableName, List<String> columnNames) {
+        return "INSERT INTO `" + tableName + "` ("
+                + columnNames.stream().map(col -> "`" + col + "`").collect(Collectors.joining(", "))
+                + ") VALUES ("
+                + columnNames.stream().map(col -> "?").collect(Collectors.joining(", "))
+                + ")";
+    }
+
+    /**
+     * 批量执行同一条 INSERT
+     * @param insertSql 由 buildInsertSql 构建的语句
+     * @param rows 每行参数，顺序与列一致
+     * @return 每行影响的行数
+     */
+    public int[] batchInsert(String insertSql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        logger.debug("Executing batch INSERT ({} rows): {}", rows.size(), insertSql);
+        return jdbcTemplate.batchUpdate(insertSql, rows);
+    }
+
+    /**
+     * 批量执行同一条 INSERT 并返回生成的主键，顺序与 rows 一致
+     */
+    public long[] batchInsertReturningKeys(String insertSql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new long[0];
+        }
+        logger.debug("Executing batch INSERT with generated keys ({} rows): {}", rows.size(), insertSql);
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Object[] row = rows.get(i);
+                        for (int col = 0; col < row.length; col++) {
+                            StatementCreatorUtils.setParameterValue(ps, col + 1, SqlTypeValue.TYPE_UNKNOWN, row[col]);
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keyList = keyHolder.getKeyList();
+        if (keyList.size() != rows.size()) {
+            throw new IllegalStateException("Expected " + rows.size() + " generated keys but got " + keyList.size());
+        }
+        long[] ids = new long[keyList.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ((Number) keyList.get(i).values().iterator().next()).longValue();
+        }
+        return ids;
+    }
+
+    /**
+     * 批量执行同一条 UPDATE/DELETE
+     * @return 每组参数影响的行数
+     */
+    public int[] batchUpdate(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        logger.debug("Executing batch DML ({} rows): {}", rows.size(), sql);
+        return jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * 执行单条 INSERT
+     */
+    public int insert(String insertSql, Object[] row) {
+        return jdbcTemplate.update(insertSql, row);
+    }
+
+    /**
+     * 执行单条 INSERT 并返回生成的主键 (随 INSERT 的响应返回，不再额外查询 LAST_INSERT_ID())
+     */
+    public long insertReturningKey(String insertSql, Object[] row) {
+        logger.debug("Executing INSERT: {}", insertSql);
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
+            for (int col = 0; col < row.length; col++) {
+                StatementCreatorUtils.setParameterValue(ps, col + 1, SqlTypeValue.TYPE_UNKNOWN, row[col]);
+            }
+            return ps;
+        }, keyHolder);
+
+        List<Map<String, Object>> keyList = keyHolder.getKeyList();
+        if (keyList.size() != 1) {
+            throw new IllegalStateException("Expected 1 generated key but got " + keyList.size());
+        }
+        return ((Number) keyList.get(0).values().iterator().next()).longValue();
+    }
+
+    /**
+     * 锁定并读取记录当前的字段值 (SELECT ... FOR UPDATE)，用于记录变更前的值
+     * 必须在写事务内调用，行锁持有到事务结束，读到的值与随后的写入之间不会被其他事务修改
+     * @return id -> (列名 -> 值)，不存在的 id 不出现在结果中
+     */
+    public Map<Long, Map<String, Object>> lockRows(String tableName, String tenantId, Collection<Long> ids, List<String> columns) {
+        Map<Long, Map<String, Object>> result = new HashMap<>(ids.size() * 2);
+        if (ids.isEmpty()) {
+            return result;
+        }
+        String sql = "SELECT `id`" + columns.stream().map(col -> ", `" + col + "`").collect(Collectors.joining())
+                + " FROM `" + tableName + "` WHERE `tenant_id` = ? AND `id` IN ("
+                + ids.stream().map(id -> "?").collect(Collectors.joining(",")) + ") FOR UPDATE";
+        Object[] params = new Object[ids.size() + 1];
+        params[0] = tenantId;
+        int index = 1;
+        for (Long id : ids) {
+            params[index++] = id;
+        }
+        jdbcTemplate.query(sql, rs -> {
+            Map<String, Object> values = new HashMap<>(columns.size() * 2);
+            for (int i = 0; i < columns.size(); i++) {
+                values.put(columns.get(i), rs.getObject(i + 2));
+            }
+            result.put(rs.getLong(1), values);
+        }, params);
+        return result;
+    }
+
+    /**
+     * 执行单条 UPDATE/DELETE
+     * @return 影响的行数 (MySQL 驱动默认返回匹配行数，值未变化的 UPDATE 也计入)
+     */
+    public int update(String sql, Object[] params) {
+        logger.debug("Executing DML: {}", sql);
+        return jdbcTemplate.update(sql, params);
+    }
+}
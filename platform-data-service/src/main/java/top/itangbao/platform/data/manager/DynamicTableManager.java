@@ -7,17 +7,43 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import top.itangbao.platform.common.enums.FieldType;
+import top.itangbao.platform.common.exception.DataValidationException;
+import top.itangbao.platform.data.context.ShardContext;
+import top.itangbao.platform.data.manager.TablePlacementRegistry.Mode;
+import top.itangbao.platform.data.manager.TablePlacementRegistry.TablePlacement;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.OverflowColumn;
 import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataIndexDTO;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * 动态表的 DDL 与表名解析
+ * 模式默认使用独立表 mf_data_<tenantId>_<schemaName>；启用共享表 (data.shared-table.enabled) 后，
+ * 新建的模式放入按 tenant_id 分区的共享表 mf_shared_<schemaName>，避免长尾租户产生大量小表。
+ * 共享表只增不减：列取各租户字段的并集 (均可为空)，索引只添加不删除；
+ * 唯一约束、全文检索或与已有列定义冲突的模式仍使用独立表，租户数据增长后可通过 SharedTablePromoter 提升为独立表
+ */
 @Component
 public class DynamicTableManager {
 
@@ -26,8 +52,36 @@ public class DynamicTableManager {
     @PersistenceContext
     private EntityManager entityManager;
 
+    // DDL 走 JdbcTemplate：失败时只抛出异常，不会把外层 JPA 事务标记为仅回滚，便于降级重试
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 首个 FULLTEXT 索引需要重建表 (增加 FTS_DOC_ID)，INPLACE 下允许读、阻塞写
+    private static final String FULLTEXT_INDEX_ALGORITHM = ", ALGORITHM=INPLACE, LOCK=SHARED";
+
+    // 不含默认算法：两级都被拒绝说明需要复制表 (阻塞写入)，交由维护窗口手工执行
+    private static final List<String> ALTER_ALGORITHMS = List.of(", ALGORITHM=INSTANT", ", ALGORITHM=INPLACE, LOCK=NONE");
+
+    private static final String SHARED_TABLE_PREFIX = "mf_shared_";
+
+    private static final Set<String> SYSTEM_COLUMNS = Set.of("id", "tenant_id", "created_at", "updated_at", "created_by", "dept_id");
+
+    private static final String OVERFLOW_COLUMN_DEFINITION = "`" + OverflowColumn.NAME + "` JSON NULL";
+
+    @Autowired
+    private TablePlacementRegistry placementRegistry;
+
+    @Autowired
+    private ChangeFeedTombstones changeFeedTombstones;
+
+    @Value("${data.shared-table.partitions:16}")
+    private int sharedTablePartitions;
+
     private Cache<String, List<String>> columnCache;
 
+    // 共享表上租户可见的列 (系统列 + 本租户字段)，按模式编译结果缓存；表结构变化后随列快照一起失效
+    private Cache<SchemaPlan, TenantColumns> tenantColumnCache;
+
     @PostConstruct
     public void init() {
         // 初始化缓存：最多 1000 个表的列信息，写入 1 小时后过期
@@ -35,6 +89,10 @@ public class DynamicTableManager {
                 .maximumSize(1000)
                 .expireAfterWrite(1, TimeUnit.HOURS)
                 .build();
+        this.tenantColumnCache = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(10_000)
+                .build();
     }
 
     public List<String> getColumnNames(String tableName) {
@@ -42,13 +100,33 @@ public class DynamicTableManager {
         return columnCache.get(tableName, key -> queryActualColumnsFromDb(key));
     }
 
+    /**
+     * 租户可见的列：独立表为全部列；共享表只保留系统列与该模式的字段，其他租户的列不可查询、不可过滤
+     * 同一列快照下返回同一个列表实例，行布局缓存可以按引用命中
+     */
+    public List<String> getColumnNames(String tableName, SchemaPlan plan) {
+        List<String> columns = getColumnNames(tableName);
+        if (!isSharedTable(tableName)) {
+            return columns;
+        }
+        TenantColumns cached = tenantColumnCache.getIfPresent(plan);
+        if (cached != null && cached.tableColumns() == columns) {
+            return cached.columns();
+        }
+        List<String> visible = columns.stream()
+                .filter(column -> SYSTEM_COLUMNS.contains(column) || OverflowColumn.NAME.equals(column) || plan.hasField(column))
+                .toList();
+        tenantColumnCache.put(plan, new TenantColumns(columns, visible));
+        return visible;
+    }
+
     private List<String> queryActualColumnsFromDb(String tableName) {
         try {
             List<?> results = entityManager.createNativeQuery(
                             "SELECT column_name FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ?1 ORDER BY ORDINAL_POSITION")
                     .setParameter(1, tableName)
                     .getResultList();
-            return results.stream().map(item -> item.toString()).collect(Collectors.toList());
+            return results.stream().map(item -> item.toString()).toList(); // 不可变快照，可安全地在线程间共享
         } catch (Exception e) {
             return Collections.emptyList();
         }
@@ -57,19 +135,41 @@ public class DynamicTableManager {
 
     /**
      * 根据 MetadataSchemaDTO 动态创建数据表
-     * 表名将是 `mf_data_<tenantId>_<schemaName>`
+     * 表名将是 `mf_data_<tenantId>_<schemaName>`；启用共享表且模式可以共享时放入 `mf_shared_<schemaName>`
      * @param schemaDTO 元数据模式DTO
      */
     @Transactional
     public void createTable(MetadataSchemaDTO schemaDTO) {
-        String tableName = buildTableName(schemaDTO.getTenantId(), schemaDTO.getName());
+        ShardContext.bind(schemaDTO.getTenantId()); // DDL 在租户所在的分片上执行
+        validateOverflowFields(schemaDTO);
+        String tableName = buildWritableTableName(schemaDTO.getTenantId(), schemaDTO.getName());
 
         // 检查表是否已存在
-        if (tableExists(tableName)) {
+        if (isSharedTable(tableName) || tableExists(tableName)) {
             logger.warn("Table '{}' already exists. Skipping creation.", tableName);
             return;
         }
 
+        if (placementRegistry.isEnabled()) {
+            String sharedTableName = sharedTableName(schemaDTO.getName());
+            Map<String, String> conflicts = findSharedTableConflicts(sharedTableName, schemaDTO);
+            if (conflicts.isEmpty()) {
+                syncSharedTable(sharedTableName, schemaDTO);
+                placementRegistry.update(schemaDTO.getTenantId(), schemaDTO.getName(), new TablePlacement(Mode.SHARED, null));
+                logger.info("Schema '{}' of tenant '{}' placed in shared table '{}'.", schemaDTO.getName(), schemaDTO.getTenantId(), sharedTableName);
+                return;
+            }
+            logger.info("Schema '{}' of tenant '{}' cannot use shared table '{}': {}. Creating dedicated table.",
+                    schemaDTO.getName(), schemaDTO.getTenantId(), sharedTableName, conflicts);
+        }
+
+        createDedicatedTable(tableName, schemaDTO);
+    }
+
+    /**
+     * 建立独立表 (表已存在时不做任何改动) 并同步索引
+     */
+    void createDedicatedTable(String tableName, MetadataSchemaDTO schemaDTO) {
         StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS `")
                 .append(tableName).append("` (\n");
 
@@ -87,52 +187,169 @@ public class DynamicTableManager {
         ddl.append("    `dept_id` BIGINT DEFAULT NULL COMMENT '部门ID', ");
 
 
-        // 根据字段定义添加列
+        // 根据字段定义添加列 (只存于 ext_data 的溢出字段没有对应列)
         String columns = schemaDTO.getFields().stream()
+                .filter(field -> !OverflowColumn.isJsonOnly(field))
                 .map(field -> buildColumnDefinition(field))
                 .collect(Collectors.joining(",\n"));
 
         ddl.append(columns);
+        if (hasOverflowFields(schemaDTO)) {
+            ddl.append(columns.isEmpty() ? "" : ",\n").append("    ").append(OVERFLOW_COLUMN_DEFINITION);
+        }
         ddl.append("\n) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;");
 
         logger.info("Executing DDL to create table '{}':\n{}", tableName, ddl.toString());
-        entityManager.createNativeQuery(ddl.toString()).executeUpdate();
+        jdbcTemplate.execute(ddl.toString());
 
-        columnCache.invalidate(tableName);
+        columnCache.put(tableName, queryActualColumnsFromDb(tableName));
         logger.info("Table '{}' created successfully.", tableName);
+
+        syncIndexes(tableName, schemaDTO);
     }
 
     /**
      * 更新数据表结构 (添加、修改列)
-     * 这是一个复杂的操作，需要考虑数据迁移和兼容性
-     * 暂时只实现添加新列，修改列类型或删除列需要更复杂的逻辑
+     * 一次读取现有列定义，与元数据比较后合并为一条 ALTER TABLE 执行，避免每个字段各自触发一次表重建
+     * 删除列需要数据迁移策略，暂不处理
      * @param schemaDTO 元数据模式DTO
      */
     @Transactional
     public void updateTable(MetadataSchemaDTO schemaDTO) {
-        String tableName = buildTableName(schemaDTO.getTenantId(), schemaDTO.getName());
+        ShardContext.bind(schemaDTO.getTenantId()); // DDL 在租户所在的分片上执行
+        validateOverflowFields(schemaDTO);
+        String tableName = buildWritableTableName(schemaDTO.getTenantId(), schemaDTO.getName());
+
+        if (isSharedTable(tableName)) {
+            Map<String, String> conflicts = findSharedTableConflicts(tableName, schemaDTO);
+            if (!conflicts.isEmpty()) {
+                throw new DataValidationException("共享表不支持该模式定义，请先将模式提升为独立表", conflicts);
+            }
+            syncSharedTable(tableName, schemaDTO);
+            return;
+        }
 
-        if (!tableExists(tableName)) {
+        Map<String, ColumnInfo> actualColumns = queryColumnInfo(tableName);
+        if (actualColumns.isEmpty()) {
             logger.warn("Table '{}' does not exist. Cannot update. Consider creating it first.", tableName);
             createTable(schemaDTO); // 如果不存在，则创建
             return;
         }
 
-        // 遍历模式中的字段，检查哪些是新增的
+        List<String> clauses = new ArrayList<>();
+        // 生成列引用 ext_data，同一条 ALTER 中须先添加 ext_data
+        if (hasOverflowFields(schemaDTO) && !actualColumns.containsKey(OverflowColumn.NAME)) {
+            clauses.add("ADD COLUMN " + OVERFLOW_COLUMN_DEFINITION);
+        }
         for (MetadataFieldDTO field : schemaDTO.getFields()) {
-            if (!columnExists(tableName, field.getFieldName())) {
-                String ddl = new StringBuilder("ALTER TABLE `")
-                        .append(tableName).append("` ADD COLUMN ")
-                        .append(buildColumnDefinition(field)).append(";")
-                        .toString();
-                logger.info("Executing DDL to add column '{}' to table '{}':\n{}", field.getFieldName(), tableName, ddl);
-                entityManager.createNativeQuery(ddl).executeUpdate();
-                logger.info("Column '{}' added successfully to table '{}'.", field.getFieldName(), tableName);
+            if (OverflowColumn.isJsonOnly(field)) {
+                continue;
+            }
+            ColumnInfo column = actualColumns.get(field.getFieldName());
+            if (column == null) {
+                clauses.add("ADD COLUMN " + buildColumnDefinition(field).trim());
+            } else if (!column.matches(field)) {
+                logger.info("Column '{}' on table '{}' differs from metadata (type={}, nullable={}, default={}).",
+                        column.name(), tableName, column.columnType(), column.nullable(), column.defaultValue());
+                clauses.add("MODIFY COLUMN " + buildColumnDefinition(field).trim());
             }
-            // TODO: 处理列修改 (类型、约束等) - 需要更复杂的 ALTER TABLE 语句和数据迁移策略
         }
 
-        columnCache.invalidate(tableName);
+        if (!clauses.isEmpty()) {
+            executeAlter(tableName, clauses);
+        }
+
+        // 直接放入新的列快照，读请求要么看到变更前的全部列，要么看到变更后的全部列
+        columnCache.put(tableName, queryActualColumnsFromDb(tableName));
+
+        syncIndexes(tableName, schemaDTO);
+    }
+
+    /**
+     * ADD 与 MODIFY 分成两条 ALTER 执行，类型变更不会把可 INSTANT 的加列拖进复制表
+     * ADD 保持原顺序 (ext_data 在前，生成列引用它)
+     */
+    private void executeAlter(String tableName, List<String> clauses) {
+        List<String> adds = clauses.stream().filter(c -> c.startsWith("ADD ")).toList();
+        List<String> modifies = clauses.stream().filter(c -> !c.startsWith("ADD ")).toList();
+        if (!adds.isEmpty()) {
+            executeOnlineAlter(tableName, adds);
+        }
+        if (!modifies.isEmpty()) {
+            executeOnlineAlter(tableName, modifies);
+        }
+    }
+
+    /**
+     * 依次尝试 INSTANT (只改元数据)、INPLACE + LOCK=NONE (不阻塞读写)
+     * MySQL 会拒绝当前变更不支持的算法，此时退回下一级；都不支持时不退回 COPY，直接报错
+     */
+    private void executeOnlineAlter(String tableName, List<String> clauses) {
+        String ddl = "ALTER TABLE `" + tableName + "` " + String.join(", ", clauses);
+        String lastError = null;
+        for (String algorithm : ALTER_ALGORITHMS) {
+            String statement = ddl + algorithm;
+            try {
+                logger.info("Executing DDL to update table '{}':\n{}", tableName, statement);
+                jdbcTemplate.execute(statement);
+                logger.info("Table '{}' updated with {} column change(s).", tableName, clauses.size());
+                return;
+            } catch (DataAccessException e) {
+                lastError = e.getMostSpecificCause().getMessage();
+                logger.info("ALTER on '{}' not applicable with{}: {}. Falling back.", tableName,
+                        algorithm.substring(1), lastError);
+            }
+        }
+        throw new DataValidationException("列变更需要复制表 (ALGORITHM=COPY)，会阻塞写入，请在维护窗口手工执行",
+                Map.of("table", tableName, "ddl", ddl, "cause", String.valueOf(lastError)));
+    }
+
+    /**
+     * 按元数据同步二级索引 (只管理 idx_mf_ / uk_mf_ / ft_mf_ 前缀的索引，不触碰手工建立的索引)
+     * - 默认索引服务于数据权限过滤: (tenant_id, dept_id, id)、(tenant_id, created_by, id)
+     * - 启用增量变更接口时: (tenant_id, updated_at, id)，按水位扫描变更
+     * - 字段 indexed/unique 标记: (tenant_id, 字段)
+     * - 模式上的组合索引: (tenant_id, 字段...)
+     * - 字段 searchable 标记: 单列 FULLTEXT 索引 (ngram 分词，支持中文)，供 match 操作符使用
+     * 使用 Online DDL (ALGORITHM=INPLACE, LOCK=NONE)，建索引期间不阻塞读写；FULLTEXT 索引不支持 LOCK=NONE，建立期间阻塞写入
+     * @param tableName 表名
+     * @param schemaDTO 元数据模式DTO
+     */
+    public void syncIndexes(String tableName, MetadataSchemaDTO schemaDTO) {
+        syncIndexes(tableName, schemaDTO, false);
+    }
+
+    /**
+     * @param addOnly 只添加缺少的索引 (共享表上的索引可能属于其他租户，不删除、不改动同名索引)
+     */
+    private void syncIndexes(String tableName, MetadataSchemaDTO schemaDTO, boolean addOnly) {
+        Map<String, TableIndex> desired = buildDesiredIndexes(tableName, schemaDTO);
+        Map<String, TableIndex> existing = queryManagedIndexes(tableName);
+
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (TableIndex index : existing.values()) {
+            if (!addOnly && !index.equals(desired.get(index.name()))) {
+                executeIndexDdl(tableName, "DROP INDEX `" + index.name() + "`", index.name(), failures);
+            }
+        }
+        for (TableIndex index : desired.values()) {
+            TableIndex current = existing.get(index.name());
+            if (!index.equals(current) && !(addOnly && current != null)) {
+                String columns = index.columns().stream().map(col -> "`" + col + "`").collect(Collectors.joining(", "));
+                if (index.fulltext()) {
+                    String clause = "ADD FULLTEXT INDEX `" + index.name() + "` (" + columns + ") WITH PARSER ngram";
+                    executeIndexDdl(tableName, clause, index.name(), FULLTEXT_INDEX_ALGORITHM, failures);
+                } else {
+                    String clause = (index.unique() ? "ADD UNIQUE INDEX `" : "ADD INDEX `") + index.name() + "` (" + columns + ")";
+                    executeIndexDdl(tableName, clause, index.name(), failures);
+                }
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            // 常见原因：已有重复数据时无法建立唯一索引
+            throw new DataValidationException("部分索引同步失败: " + String.join(", ", failures.keySet()), failures);
+        }
     }
 
     /**
@@ -142,7 +359,18 @@ public class DynamicTableManager {
      */
     @Transactional
     public void dropTable(String tenantId, String schemaName) {
-        String tableName = buildTableName(tenantId, schemaName);
+        ShardContext.bind(tenantId); // DDL 在租户所在的分片上执行
+        String tableName = buildWritableTableName(tenantId, schemaName);
+        if (isSharedTable(tableName)) {
+            // 共享表保留，只删除该租户的数据
+            int deleted = jdbcTemplate.update("DELETE FROM `" + tableName + "` WHERE `tenant_id` = ?", tenantId);
+            placementRegistry.remove(tenantId, schemaName);
+            changeFeedTombstones.removeSchema(tenantId, schemaName);
+            logger.info("Deleted {} row(s) of tenant '{}' from shared table '{}'.", deleted, tenantId, tableName);
+            return;
+        }
+        placementRegistry.remove(tenantId, schemaName);
+        changeFeedTombstones.removeSchema(tenantId, schemaName);
         if (tableExists(tableName)) {
             String ddl = "DROP TABLE IF EXISTS `" + tableName + "`;";
             logger.info("Executing DDL to drop table '{}':\n{}", tableName, ddl);
@@ -156,25 +384,306 @@ public class DynamicTableManager {
     }
 
     /**
-     * 辅助方法：构建表名
+     * 辅助方法：解析租户模式所在的物理表 (调用方需先绑定 ShardContext)
+     * 共享表中的数据与其他租户混存，所有语句都必须带 tenant_id 条件
      * @param tenantId 租户ID
      * @param schemaName 模式名称
-     * @return 完整的表名 (例如: mf_data_tenant-001_sampleinfo)
+     * @return 完整的表名 (例如: mf_data_tenant-001_sampleinfo 或 mf_shared_sampleinfo)
      */
     public String buildTableName(String tenantId, String schemaName) {
-        // 将 schemaName 转换为小写并替换特殊字符，以符合数据库命名规范
-        String sanitizedSchemaName = schemaName.toLowerCase().replaceAll("[^a-z0-9_]", "_");
-        return String.format("mf_data_%s_%s", tenantId, sanitizedSchemaName);
+        Mode mode = placementRegistry.resolve(tenantId, schemaName).mode();
+        return mode == Mode.DEDICATED ? dedicatedTableName(tenantId, schemaName) : sharedTableName(schemaName);
+    }
+
+    /**
+     * 解析写入用的表名，模式正在提升为独立表时拒绝写入
+     */
+    public String buildWritableTableName(String tenantId, String schemaName) {
+        if (placementRegistry.resolve(tenantId, schemaName).mode() == Mode.PROMOTING) {
+            throw new IllegalStateException("租户 " + tenantId + " 的模式 " + schemaName + " 正在迁移到独立表，暂时只读，请稍后重试");
+        }
+        return buildTableName(tenantId, schemaName);
+    }
+
+    /**
+     * 独立表名 (例如: mf_data_tenant-001_sampleinfo)
+     */
+    public String dedicatedTableName(String tenantId, String schemaName) {
+        return String.format("mf_data_%s_%s", tenantId, sanitize(schemaName));
+    }
+
+    /**
+     * 共享表名 (例如: mf_shared_sampleinfo)
+     */
+    public String sharedTableName(String schemaName) {
+        return SHARED_TABLE_PREFIX + sanitize(schemaName);
+    }
+
+    public boolean isSharedTable(String tableName) {
+        return tableName.startsWith(SHARED_TABLE_PREFIX);
+    }
+
+    public TablePlacement getPlacement(String tenantId, String schemaName) {
+        ShardContext.bind(tenantId); // 登记表与租户的动态表位于同一分片
+        return placementRegistry.resolve(tenantId, schemaName);
+    }
+
+    // 将 schemaName 转换为小写并替换特殊字符，以符合数据库命名规范
+    private static String sanitize(String schemaName) {
+        return schemaName.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+    }
+
+    // --- 共享表 ---
+
+    /**
+     * 建立共享表 (不存在时)，补齐缺少的字段列与索引
+     * 主键包含分区键 tenant_id；列均可为空，必填由应用层校验；默认值写入列定义，因此同名字段的默认值必须一致
+     */
+    private void syncSharedTable(String tableName, MetadataSchemaDTO schemaDTO) {
+        String ddl = "CREATE TABLE IF NOT EXISTS `" + tableName + "` (\n"
+                + "    `id` BIGINT AUTO_INCREMENT,\n"
+                + "    `tenant_id` VARCHAR(50) NOT NULL,\n"
+                + "    `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,\n"
+                + "    `updated_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,\n"
+                + "    `created_by` VARCHAR(100) DEFAULT NULL COMMENT '创建人',\n"
+                + "    `dept_id` BIGINT DEFAULT NULL COMMENT '部门ID',\n"
+                + "    PRIMARY KEY (`id`, `tenant_id`)\n"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci\n"
+                + "PARTITION BY KEY (`tenant_id`) PARTITIONS " + sharedTablePartitions;
+        jdbcTemplate.execute(ddl);
+
+        Map<String, ColumnInfo> actualColumns = queryColumnInfo(tableName);
+        List<String> clauses = new ArrayList<>();
+        if (hasOverflowFields(schemaDTO) && !actualColumns.containsKey(OverflowColumn.NAME)) {
+            clauses.add("ADD COLUMN " + OVERFLOW_COLUMN_DEFINITION);
+        }
+        for (MetadataFieldDTO field : schemaDTO.getFields()) {
+            if (!OverflowColumn.isJsonOnly(field) && !actualColumns.containsKey(field.getFieldName())) {
+                clauses.add("ADD COLUMN " + buildColumnDefinition(field, false).trim());
+            }
+        }
+        if (!clauses.isEmpty()) {
+            executeAlter(tableName, clauses);
+        }
+
+        columnCache.put(tableName, queryActualColumnsFromDb(tableName));
+        syncIndexes(tableName, schemaDTO, true);
+    }
+
+    /**
+     * 模式放入共享表的障碍，返回 字段/索引 -> 原因，为空表示可以共享
+     * - 唯一约束会约束其他租户的同名字段，全文索引不支持分区表
+     * - 同名字段的列类型或默认值与共享表中已有的列不一致 (含生成列与普通列之分)
+     * - 只存于 ext_data 的溢出字段与已有列同名 (读取和过滤会落到该列上)
+     */
+    private Map<String, String> findSharedTableConflicts(String tableName, MetadataSchemaDTO schemaDTO) {
+        Map<String, String> conflicts = new LinkedHashMap<>();
+        Map<String, ColumnInfo> actualColumns = queryColumnInfo(tableName);
+        for (MetadataFieldDTO field : schemaDTO.getFields()) {
+            if (Boolean.TRUE.equals(field.getUnique())) {
+                conflicts.put(field.getFieldName(), "共享表不支持唯一约束");
+            } else if (Boolean.TRUE.equals(field.getSearchable())) {
+                conflicts.put(field.getFieldName(), "共享表不支持全文检索");
+            } else if (OverflowColumn.isJsonOnly(field)) {
+                if (actualColumns.containsKey(field.getFieldName())) {
+                    conflicts.put(field.getFieldName(), "溢出字段与共享表中已有列同名");
+                }
+            } else {
+                ColumnInfo column = actualColumns.get(field.getFieldName());
+                if (column != null && !column.matchesShared(field)) {
+                    conflicts.put(field.getFieldName(), "与共享表中已有列的定义冲突: " + column.columnType()
+                            + (column.defaultValue() != null ? " DEFAULT '" + column.defaultValue() + "'" : ""));
+                }
+            }
+        }
+        if (schemaDTO.getIndexes() != null) {
+            for (MetadataIndexDTO indexDTO : schemaDTO.getIndexes()) {
+                if (Boolean.TRUE.equals(indexDTO.getUnique())) {
+                    conflicts.put(String.join(",", indexDTO.getFields()), "共享表不支持唯一约束");
+                }
+            }
+        }
+        return conflicts;
     }
 
     // --- 内部辅助方法 ---
 
+    private Map<String, TableIndex> buildDesiredIndexes(String tableName, MetadataSchemaDTO schemaDTO) {
+        Map<String, TableIndex> desired = new LinkedHashMap<>();
+        addIndex(desired, new TableIndex("idx_mf_tenant_dept", List.of("tenant_id", "dept_id", "id"), false));
+        addIndex(desired, new TableIndex("idx_mf_tenant_creator", List.of("tenant_id", "created_by", "id"), false));
+        if (changeFeedTombstones.isEnabled()) {
+            addIndex(desired, new TableIndex("idx_mf_tenant_updated", List.of("tenant_id", "updated_at", "id"), false));
+        }
+
+        Map<String, MetadataFieldDTO> fieldsByName = new HashMap<>();
+        for (MetadataFieldDTO field : schemaDTO.getFields()) {
+            fieldsByName.put(field.getFieldName(), field);
+            if (Boolean.TRUE.equals(field.getSearchable())) {
+                if (OverflowColumn.isOverflow(field)) {
+                    logger.warn("Overflow field '{}' cannot be full-text indexed on table '{}'. Skipping.", field.getFieldName(), tableName);
+                } else if (isSearchable(field)) {
+                    addIndex(desired, TableIndex.fulltext(indexName("ft_mf_", field.getFieldName()), field.getFieldName()));
+                } else {
+                    logger.warn("Field '{}' of type {} cannot be full-text indexed on table '{}'. Skipping.", field.getFieldName(), field.getFieldType(), tableName);
+                }
+            }
+            boolean unique = Boolean.TRUE.equals(field.getUnique());
+            if (!unique && !Boolean.TRUE.equals(field.getIndexed())) {
+                continue;
+            }
+            if (!isIndexable(field)) {
+                logger.warn("Field '{}' of type {} cannot be indexed on table '{}'. Skipping.", field.getFieldName(), field.getFieldType(), tableName);
+                continue;
+            }
+            String name = indexName(unique ? "uk_mf_" : "idx_mf_", field.getFieldName());
+            addIndex(desired, new TableIndex(name, List.of("tenant_id", field.getFieldName()), unique));
+        }
+
+        if (schemaDTO.getIndexes() != null) {
+            for (MetadataIndexDTO indexDTO : schemaDTO.getIndexes()) {
+                List<String> columns = new ArrayList<>();
+                columns.add("tenant_id");
+                boolean valid = true;
+                for (String fieldName : indexDTO.getFields()) {
+                    MetadataFieldDTO field = fieldsByName.get(fieldName);
+                    if (field == null || !isIndexable(field) || OverflowColumn.isJsonOnly(field)) {
+                        logger.warn("Composite index {} on table '{}' references missing or non-indexable field '{}'. Skipping.",
+                                indexDTO.getFields(), tableName, fieldName);
+                        valid = false;
+                        break;
+                    }
+                    if (!columns.contains(fieldName)) {
+                        columns.add(fieldName);
+                    }
+                }
+                if (!valid) {
+                    continue;
+                }
+                boolean unique = Boolean.TRUE.equals(indexDTO.getUnique());
+                String suffix = indexDTO.getName() != null && !indexDTO.getName().isBlank()
+                        ? indexDTO.getName() : String.join("_", indexDTO.getFields());
+                addIndex(desired, new TableIndex(indexName(unique ? "uk_mf_c_" : "idx_mf_c_", suffix), columns, unique));
+            }
+        }
+        return desired;
+    }
+
+    private static void addIndex(Map<String, TableIndex> indexes, TableIndex index) {
+        indexes.putIfAbsent(index.name(), index);
+    }
+
+    private static boolean hasOverflowFields(MetadataSchemaDTO schemaDTO) {
+        return schemaDTO.getFields().stream().anyMatch(OverflowColumn::isOverflow);
+    }
+
+    /**
+     * 溢出字段名会拼入 JSON 路径，只允许普通标识符
+     */
+    private static void validateOverflowFields(MetadataSchemaDTO schemaDTO) {
+        Map<String, String> invalid = new LinkedHashMap<>();
+        for (MetadataFieldDTO field : schemaDTO.getFields()) {
+            if (OverflowColumn.isOverflow(field) && !OverflowColumn.isSafeName(field.getFieldName())) {
+                invalid.put(field.getFieldName(), "溢出字段名只能包含字母、数字和下划线，且不能以数字开头");
+            } else if (OverflowColumn.NAME.equalsIgnoreCase(field.getFieldName())) {
+                invalid.put(field.getFieldName(), "字段名与溢出列重名");
+            }
+        }
+        if (!invalid.isEmpty()) {
+            throw new DataValidationException("字段名无效", invalid);
+        }
+    }
+
+    /**
+     * TEXT 列只能建立前缀索引，不纳入自动管理
+     */
+    private static boolean isIndexable(MetadataFieldDTO field) {
+        return field.getFieldType() != FieldType.TEXT;
+    }
+
+    /**
+     * 全文检索只支持字符串类字段
+     */
+    public static boolean isSearchable(MetadataFieldDTO field) {
+        return field.getFieldType() == FieldType.STRING || field.getFieldType() == FieldType.TEXT;
+    }
+
+    /**
+     * 生成索引名 (MySQL 标识符最长 64 字符，超长时截断并追加哈希保证唯一)
+     */
+    private static String indexName(String prefix, String suffix) {
+        String name = prefix + suffix.toLowerCase().replaceAll("[^a-z0-9_]", "_");
+        if (name.length() <= 64) {
+            return name;
+        }
+        String hash = Integer.toHexString(name.hashCode());
+        return name.substring(0, 64 - hash.length() - 1) + "_" + hash;
+    }
+
+    /**
+     * 读取表上由本类管理的索引
+     */
+    private Map<String, TableIndex> queryManagedIndexes(String tableName) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT index_name, column_name, non_unique, index_type FROM information_schema.statistics "
+                                + "WHERE table_schema = DATABASE() AND table_name = ?1 "
+                                + "AND (index_name LIKE 'idx\\_mf\\_%' OR index_name LIKE 'uk\\_mf\\_%' OR index_name LIKE 'ft\\_mf\\_%') "
+                                + "ORDER BY index_name, seq_in_index")
+                .setParameter(1, tableName)
+                .getResultList();
+
+        Map<String, List<String>> columnsByIndex = new LinkedHashMap<>();
+        Map<String, Boolean> uniqueByIndex = new HashMap<>();
+        Map<String, Boolean> fulltextByIndex = new HashMap<>();
+        for (Object row : rows) {
+            Object[] values = (Object[]) row;
+            String indexName = values[0].toString();
+            columnsByIndex.computeIfAbsent(indexName, k -> new ArrayList<>()).add(values[1].toString());
+            uniqueByIndex.put(indexName, ((Number) values[2]).intValue() == 0);
+            fulltextByIndex.put(indexName, "FULLTEXT".equalsIgnoreCase(String.valueOf(values[3])));
+        }
+
+        Map<String, TableIndex> indexes = new LinkedHashMap<>();
+        columnsByIndex.forEach((name, columns) -> indexes.put(name,
+                new TableIndex(name, columns, uniqueByIndex.get(name), fulltextByIndex.get(name))));
+        return indexes;
+    }
+
+    private void executeIndexDdl(String tableName, String clause, String indexName, Map<String, String> failures) {
+        executeIndexDdl(tableName, clause, indexName, ", ALGORITHM=INPLACE, LOCK=NONE", failures);
+    }
+
+    private void executeIndexDdl(String tableName, String clause, String indexName, String algorithm, Map<String, String> failures) {
+        String ddl = "ALTER TABLE `" + tableName + "` " + clause + algorithm;
+        try {
+            logger.info("Executing online index DDL on table '{}': {}", tableName, ddl);
+            jdbcTemplate.execute(ddl);
+        } catch (DataAccessException e) {
+            logger.error("Index DDL failed on table '{}': {}", tableName, e.getMessage());
+            failures.put(indexName, e.getMessage());
+        }
+    }
+
+    /**
+     * 二级索引定义 (列顺序有意义)
+     */
+    private record TableIndex(String name, List<String> columns, boolean unique, boolean fulltext) {
+
+        TableIndex(String name, List<String> columns, boolean unique) {
+            this(name, columns, unique, false);
+        }
+
+        static TableIndex fulltext(String name, String column) {
+            return new TableIndex(name, List.of(column), false, true);
+        }
+    }
+
     /**
      * 检查表是否存在
      * @param tableName 表名
      * @return 如果存在返回 true，否则返回 false
      */
-    private boolean tableExists(String tableName) {
+    boolean tableExists(String tableName) {
         try {
             // 使用位置参数 (?)
             Object result = entityManager.createNativeQuery(
@@ -189,24 +698,30 @@ public class DynamicTableManager {
     }
 
     /**
-     * 检查列是否存在
+     * 一次读取表的全部列定义 (列名不区分大小写)，表不存在时返回空
      * @param tableName 表名
-     * @param columnName 列名
-     * @return 如果存在返回 true，否则返回 false
      */
-    private boolean columnExists(String tableName, String columnName) {
-        try {
-            // 使用位置参数 (?)
-            Object result = entityManager.createNativeQuery(
-                            "SELECT COUNT(*) FROM information_schema.columns WHERE table_schema = DATABASE() AND table_name = ?1 AND column_name = ?2") // 使用 ?1 和 ?2
-                    .setParameter(1, tableName) // 绑定位置参数 1
-                    .setParameter(2, columnName) // 绑定位置参数 2
-                    .getSingleResult();
-            return ((Number) result).intValue() > 0;
-        } catch (Exception e) {
-            logger.error("Error checking column existence for '{}'.'{}': {}", tableName, columnName, e.getMessage());
-            return false;
-        }
+    private Map<String, ColumnInfo> queryColumnInfo(String tableName) {
+        Map<String, ColumnInfo> columns = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        jdbcTemplate.query(
+                "SELECT column_name, column_type, is_nullable, column_default, extra FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? ORDER BY ORDINAL_POSITION",
+                rs -> {
+                    String name = rs.getString(1);
+                    String extra = rs.getString(5);
+                    columns.put(name, new ColumnInfo(name, rs.getString(2), "YES".equals(rs.getString(3)), rs.getString(4),
+                            extra != null && extra.toUpperCase().contains("GENERATED")));
+                },
+                tableName);
+        return columns;
+    }
+
+    /**
+     * 删除表 (提升失败时清理已建立的独立表)
+     */
+    void dropTableIfExists(String tableName) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS `" + tableName + "`");
+        columnCache.invalidate(tableName);
     }
 
     /**
@@ -215,51 +730,94 @@ public class DynamicTableManager {
      * @return SQL 列定义字符串
      */
     private String buildColumnDefinition(MetadataFieldDTO field) {
+        return buildColumnDefinition(field, true);
+    }
+
+    /**
+     * @param enforceRequired 必填字段是否加 NOT NULL (共享表中其他租户的行没有该字段，不能加)
+     */
+    private String buildColumnDefinition(MetadataFieldDTO field, boolean enforceRequired) {
         StringBuilder columnDef = new StringBuilder("    `").append(field.getFieldName()).append("` ");
 
+        columnDef.append(columnType(field));
+
+        // 溢出字段的生成列：值来自 ext_data，不加非空约束与默认值 (必填由应用层校验)
+        if (OverflowColumn.isOverflow(field)) {
+            return columnDef.append(" GENERATED ALWAYS AS (").append(OverflowColumn.valueExpression(field)).append(") VIRTUAL").toString();
+        }
+
+        if (enforceRequired && field.getRequired() != null && field.getRequired()) {
+            columnDef.append(" NOT NULL");
+        }
+        if (field.getDefaultValue() != null && !field.getDefaultValue().isEmpty()) {
+            columnDef.append(" DEFAULT '").append(field.getDefaultValue()).append("'");
+        }
+        // TODO: 添加校验规则 (validationRule) 的处理，可能需要触发器或在应用层实现
+
+        return columnDef.toString();
+    }
+
+    /**
+     * 字段类型对应的列类型 (写法与 information_schema.columns.column_type 一致，便于比较)
+     */
+    private static String columnType(MetadataFieldDTO field) {
         switch (field.getFieldType()) {
             case STRING:
-                columnDef.append("VARCHAR(255)"); // 默认字符串长度
-                break;
+                return "varchar(255)"; // 默认字符串长度
             case TEXT:
-                columnDef.append("TEXT");
-                break;
+                return "text";
             case NUMBER:
-                columnDef.append("DOUBLE"); // 浮点数
-                break;
+                return "double"; // 浮点数
             case INTEGER:
-                columnDef.append("BIGINT"); // 大整数
-                break;
+                return "bigint"; // 大整数
             case BOOLEAN:
-                columnDef.append("BOOLEAN");
-                break;
+                return "tinyint(1)"; // BOOLEAN 在 MySQL 中即 TINYINT(1)
             case DATE:
-                columnDef.append("DATE");
-                break;
+                return "date";
             case DATETIME:
-                columnDef.append("DATETIME");
-                break;
+                return "datetime";
             case ENUM:
-                columnDef.append("VARCHAR(255)"); // 枚举值也存储为字符串
-                break;
+                return "varchar(255)"; // 枚举值也存储为字符串
             case FILE:
-                columnDef.append("VARCHAR(500)"); // 文件路径或ID
-                break;
+                return "varchar(500)"; // 文件路径或ID
             case REFERENCE:
-                columnDef.append("BIGINT"); // 引用其他实体ID
-                break;
+                return "bigint"; // 引用其他实体ID
             default:
-                columnDef.append("VARCHAR(255)"); // 默认
+                return "varchar(255)"; // 默认
         }
+    }
 
-        if (field.getRequired() != null && field.getRequired()) {
-            columnDef.append(" NOT NULL");
+    /**
+     * 现有列定义
+     */
+    private record ColumnInfo(String name, String columnType, boolean nullable, String defaultValue, boolean generated) {
+
+        /**
+         * 列的类型、可空性、默认值是否与字段定义一致
+         * MySQL 8.0.19 之前整数类型带显示宽度 (bigint(20))，比较前去掉
+         */
+        boolean matches(MetadataFieldDTO field) {
+            boolean required = field.getRequired() != null && field.getRequired();
+            return matchesShared(field) && (generated || nullable == !required);
         }
-        if (field.getDefaultValue() != null && !field.getDefaultValue().isEmpty()) {
-            columnDef.append(" DEFAULT '").append(field.getDefaultValue()).append("'");
+
+        /**
+         * 共享表中的列不区分必填，只比较类型与默认值；溢出字段对应生成列，只比较类型
+         */
+        boolean matchesShared(MetadataFieldDTO field) {
+            String actualType = columnType.toLowerCase().replaceFirst("^(bigint|int|smallint|mediumint)\\(\\d+\\)", "$1");
+            if (generated || OverflowColumn.isOverflow(field)) {
+                return generated == OverflowColumn.isOverflow(field) && actualType.equals(DynamicTableManager.columnType(field));
+            }
+            String expectedDefault = field.getDefaultValue() == null || field.getDefaultValue().isEmpty() ? null : field.getDefaultValue();
+            return actualType.equals(DynamicTableManager.columnType(field))
+                    && Objects.equals(defaultValue, expectedDefault);
         }
-        // TODO: 添加校验规则 (validationRule) 的处理，可能需要触发器或在应用层实现
+    }
 
-        return columnDef.toString();
+    /**
+     * 共享表列快照及由它过滤出的租户可见列
+     */
+    private record TenantColumns(List<String> tableColumns, List<String> columns) {
     }
 }
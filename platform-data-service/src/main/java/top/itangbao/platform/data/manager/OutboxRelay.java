@@ -0,0 +1,135 @@
+package top.itangbao.platform.data.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * outbox 投递：轮询每个分片的 mf_data_outbox，按自增 ID 顺序发送到 Kafka，确认后删除
+ * - 每批在一个事务内 SELECT ... FOR UPDATE 锁住队首，多实例同时运行时依次处理，不会乱序
+ * - 发送失败则回滚、下次重试；已发送的部分可能重复投递 (至少一次)
+ * - 消息键为 tenantId/schemaName，同一模式的事件落在同一分区
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final Map<String, ShardOutbox> shards = new LinkedHashMap<>();
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long sendTimeoutMs;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param dataSources 分片名 -> 直连该分片的数据源 (未启用分片时只有一个)
+     */
+    public OutboxRelay(Map<String, DataSource> dataSources, KafkaTemplate<String, String> kafkaTemplate,
+                       String topic, int batchSize, long pollIntervalMs, long sendTimeoutMs) {
+        dataSources.forEach((name, dataSource) -> shards.put(name, new ShardOutbox(
+                new JdbcTemplate(dataSource), new TransactionTemplate(new DataSourceTransactionManager(dataSource)))));
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+    }
+
+    public void start() {
+        shards.values().forEach(shard -> shard.jdbcTemplate().execute(DataChangeOutbox.CREATE_TABLE_SQL));
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "data-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::relayAll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 有新事件提交时立即触发一轮投递；已有待执行的唤醒时合并
+     */
+    public void wakeUp() {
+        if (scheduler != null && wakeUpPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                wakeUpPending.set(false);
+                relayAll();
+            });
+        }
+    }
+
+    void relayAll() {
+        shards.forEach((name, shard) -> {
+            try {
+                // 积压时连续处理，直到不足一批
+                while (relayBatch(shard) >= batchSize) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Outbox relay on shard '{}' failed, will retry: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private int relayBatch(ShardOutbox shard) {
+        Integer relayed = shard.transactionTemplate().execute(status -> {
+            List<OutboxRow> rows = shard.jdbcTemplate().query(
+                    "SELECT `id`, `partition_key`, `payload` FROM `" + DataChangeOutbox.TABLE_NAME + "` ORDER BY `id` LIMIT ? FOR UPDATE",
+                    (rs, rowNum) -> new OutboxRow(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                    batchSize);
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            List<CompletableFuture<?>> futures = new ArrayList<>(rows.size());
+            for (OutboxRow row : rows) {
+                futures.add(kafkaTemplate.send(topic, row.partitionKey(), row.payload()));
+            }
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Outbox relay interrupted", e);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to publish outbox events to " + topic, e);
+            }
+
+            shard.jdbcTemplate().update("DELETE FROM `" + DataChangeOutbox.TABLE_NAME + "` WHERE `id` IN ("
+                    + rows.stream().map(row -> "?").collect(Collectors.joining(",")) + ")",
+                    rows.stream().map(OutboxRow::id).toArray());
+            return rows.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private record ShardOutbox(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    }
+
+    private record OutboxRow(long id, String partitionKey, String payload) {
+    }
+}
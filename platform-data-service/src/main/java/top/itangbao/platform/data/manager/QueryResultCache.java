@@ -0,0 +1,176 @@
+package top.itangbao.platform.data.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.itangbao.platform.data.api.dto.DynamicDataResponse;
+import top.itangbao.platform.data.api.dto.PageResponseDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 列表查询结果缓存，按模式在元数据中开启 (resultCacheTtlSeconds > 0)，条目数上限取 resultCacheMaxEntries
+ * - 每个 (租户, 模式) 一个修改计数器，增删改的事务结束后递增；计数器是缓存键的一部分，失效只需递增一次，旧条目随容量/过期淘汰
+ * - 缓存键包含编译后的过滤条件与参数 (含数据权限条件)，不同权限范围的用户互不命中
+ * - 读取前先取计数器，查询期间发生的写入会让结果落在旧版本下，不会被后续读取命中
+ * - 命中/未命中计数以 dynamic.result.cache{result=hit|miss} 暴露
+ * 开启读写分离时，副本在复制延迟内可能把旧数据缓存到新版本下，最多保留 ttl；多实例部署需开启 record-cache 广播同步计数器
+ */
+@Component
+public class QueryResultCache {
+
+    private static final String METRIC_NAME = "dynamic.result.cache";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<RecordInvalidationBus> invalidationBus;
+
+    @Value("${data.result-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${data.result-cache.max-schemas:1000}")
+    private long maxSchemas;
+
+    @Value("${data.result-cache.default-max-entries:1000}")
+    private long defaultMaxEntries;
+
+    private Cache<TableKey, SchemaResults> schemas;
+
+    public QueryResultCache(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<RecordInvalidationBus> invalidationBus) {
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.schemas = Caffeine.newBuilder()
+                .maximumSize(maxSchemas)
+                .build();
+    }
+
+    /**
+     * 模式是否开启了结果缓存
+     */
+    public boolean isEnabled(MetadataSchemaDTO schema) {
+        return enabled && schema.getResultCacheTtlSeconds() != null && schema.getResultCacheTtlSeconds() > 0;
+    }
+
+    /**
+     * 读取一页结果，未命中时调用 loader 并回填；调用方需先确认 isEnabled
+     * @param queryKey 查询的全部输入 (过滤条件、参数、排序、分页、投影等)，需实现 equals/hashCode
+     * 返回副本，调用方修改返回值不会影响缓存
+     */
+    public PageResponseDTO<DynamicDataResponse> get(MetadataSchemaDTO schema, long schemaVersion, Object queryKey,
+                                                    Supplier<PageResponseDTO<DynamicDataResponse>> loader) {
+        SchemaResults results = resultsOf(schema);
+        ResultKey key = new ResultKey(schemaVersion, results.version().get(), queryKey);
+        PageResponseDTO<DynamicDataResponse> cached = results.pages().getIfPresent(key);
+        if (cached != null) {
+            count("hit");
+            return copy(cached);
+        }
+        count("miss");
+        PageResponseDTO<DynamicDataResponse> loaded = loader.get();
+        results.pages().put(key, copy(loaded));
+        return loaded;
+    }
+
+    /**
+     * 模式的数据被修改：事务结束后递增计数器并广播，未开启结果缓存的模式不做任何事
+     * 事务结束前其他线程读到的仍是旧数据，在结束时才让已缓存的结果失效
+     */
+    public void invalidate(MetadataSchemaDTO schema) {
+        if (!isEnabled(schema)) {
+            return;
+        }
+        TableKey key = new TableKey(schema.getTenantId(), schema.getName());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bumpLocal(key.tenantId(), key.schemaName());
+                    if (status == STATUS_COMMITTED) {
+                        publish(key);
+                    }
+                }
+            });
+        } else {
+            bumpLocal(key.tenantId(), key.schemaName());
+            publish(key);
+        }
+    }
+
+    /**
+     * 只递增本地计数器，处理其他实例广播的失效消息
+     */
+    public void bumpLocal(String tenantId, String schemaName) {
+        SchemaResults results = schemas.getIfPresent(new TableKey(tenantId, schemaName));
+        if (results != null) {
+            results.version().incrementAndGet();
+        }
+    }
+
+    private void publish(TableKey key) {
+        invalidationBus.ifAvailable(bus -> bus.publishTableChange(key.tenantId(), key.schemaName()));
+    }
+
+    // ttl 或条目上限在元数据中修改后重建该模式的缓存
+    private SchemaResults resultsOf(MetadataSchemaDTO schema) {
+        TableKey key = new TableKey(schema.getTenantId(), schema.getName());
+        long ttlSeconds = schema.getResultCacheTtlSeconds();
+        long maxEntries = schema.getResultCacheMaxEntries() != null && schema.getResultCacheMaxEntries() > 0
+                ? schema.getResultCacheMaxEntries() : defaultMaxEntries;
+        SchemaResults results = schemas.get(key, k -> newResults(ttlSeconds, maxEntries));
+        if (results.ttlSeconds() != ttlSeconds || results.maxEntries() != maxEntries) {
+            results = newResults(ttlSeconds, maxEntries);
+            schemas.put(key, results);
+        }
+        return results;
+    }
+
+    private static SchemaResults newResults(long ttlSeconds, long maxEntries) {
+        Cache<ResultKey, PageResponseDTO<DynamicDataResponse>> pages = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+        return new SchemaResults(ttlSeconds, maxEntries, new AtomicLong(), pages);
+    }
+
+    private void count(String result) {
+        meterRegistry.ifAvailable(registry -> registry.counter(METRIC_NAME, "result", result).increment());
+    }
+
+    private static PageResponseDTO<DynamicDataResponse> copy(PageResponseDTO<DynamicDataResponse> page) {
+        List<DynamicDataResponse> content = page.getContent().stream().map(RecordCache::copy).toList();
+        return PageResponseDTO.<DynamicDataResponse>builder()
+                .content(content)
+                .page(page.getPage())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .nextCursor(page.getNextCursor())
+                .prevCursor(page.getPrevCursor())
+                .build();
+    }
+
+    private record TableKey(String tenantId, String schemaName) {
+    }
+
+    private record ResultKey(long schemaVersion, long tableVersion, Object queryKey) {
+    }
+
+    private record SchemaResults(long ttlSeconds, long maxEntries, AtomicLong version,
+                                 Cache<ResultKey, PageResponseDTO<DynamicDataResponse>> pages) {
+    }
+}
@@ -0,0 +1,161 @@
+package top.itangbao.platform.data.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.itangbao.platform.data.api.dto.DynamicDataResponse;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 按 ID 读取的记录缓存 (租户 + 模式 + ID，值中带模式版本，版本变化视为未命中)
+ * - 写入时先失效本地缓存，事务结束 (提交或回滚) 后再失效一次并广播给其他实例
+ * - 当前事务改过的记录在事务结束前不回填缓存，避免缓存未提交或将被回滚的数据
+ * - 命中率等指标以 cache=dynamic-record 暴露在 /actuator/metrics 与 /actuator/prometheus
+ * 未启用广播时，其他实例最多在 ttl-seconds 后看到变更
+ */
+@Component
+public class RecordCache {
+
+    private static final String METRIC_NAME = "dynamic-record";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<RecordInvalidationBus> invalidationBus;
+
+    @Value("${data.record-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${data.record-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${data.record-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private Cache<RecordKey, CachedRecord> cache;
+
+    public RecordCache(ObjectProvider<MeterRegistry> meterRegistry, ObjectProvider<RecordInvalidationBus> invalidationBus) {
+        this.meterRegistry = meterRegistry;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, METRIC_NAME));
+    }
+
+    /**
+     * 读取记录，未命中时调用 loader 并在允许时回填
+     * 返回副本，调用方修改返回值不会影响缓存
+     */
+    public DynamicDataResponse get(String tenantId, String schemaName, Long id, long schemaVersion,
+                                   Supplier<DynamicDataResponse> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        RecordKey key = new RecordKey(tenantId, schemaName, id);
+        CachedRecord cached = cache.getIfPresent(key);
+        if (cached != null && cached.schemaVersion() == schemaVersion) {
+            return copy(cached.response());
+        }
+        DynamicDataResponse loaded = loader.get();
+        if (!writtenInCurrentTransaction(key)) {
+            cache.put(key, new CachedRecord(schemaVersion, copy(loaded)));
+        }
+        return loaded;
+    }
+
+    /**
+     * 记录被修改或删除：立即失效本地缓存，事务结束后再次失效并广播
+     */
+    public void invalidate(String tenantId, String schemaName, Collection<Long> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<RecordKey> keys = ids.stream().map(id -> new RecordKey(tenantId, schemaName, id)).toList();
+        cache.invalidateAll(keys);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            markWritten(keys);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // 事务期间其他线程可能读到旧值并回填，结束后再清一次
+                    cache.invalidateAll(keys);
+                    publish(tenantId, schemaName, ids);
+                }
+            });
+        } else {
+            publish(tenantId, schemaName, ids);
+        }
+    }
+
+    /**
+     * 只失效本地缓存，处理其他实例广播的失效消息
+     */
+    public void evictLocal(String tenantId, String schemaName, Collection<Long> ids) {
+        cache.invalidateAll(ids.stream().map(id -> new RecordKey(tenantId, schemaName, id)).toList());
+    }
+
+    private void publish(String tenantId, String schemaName, Collection<Long> ids) {
+        invalidationBus.ifAvailable(bus -> bus.publish(tenantId, schemaName, List.copyOf(ids)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void markWritten(List<RecordKey> keys) {
+        Set<RecordKey> written = (Set<RecordKey>) TransactionSynchronizationManager.getResource(this);
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RecordCache.this);
+                }
+            });
+        }
+        written.addAll(keys);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean writtenInCurrentTransaction(RecordKey key) {
+        Set<RecordKey> written = (Set<RecordKey>) TransactionSynchronizationManager.getResource(this);
+        return written != null && written.contains(key);
+    }
+
+    static DynamicDataResponse copy(DynamicDataResponse response) {
+        return DynamicDataResponse.builder()
+                .id(response.getId())
+                .tenantId(response.getTenantId())
+                .schemaName(response.getSchemaName())
+                .data(response.getData() == null ? null : new LinkedHashMap<>(response.getData()))
+                .createdAt(response.getCreatedAt())
+                .updatedAt(response.getUpdatedAt())
+                .createdBy(response.getCreatedBy())
+                .deptId(response.getDeptId())
+                .build();
+    }
+
+    private record RecordKey(String tenantId, String schemaName, Long id) {
+    }
+
+    private record CachedRecord(long schemaVersion, DynamicDataResponse response) {
+    }
+}
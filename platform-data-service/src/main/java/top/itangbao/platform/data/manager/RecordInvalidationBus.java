@@ -0,0 +1,102 @@
+package top.itangbao.platform.data.manager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 记录缓存的跨实例失效广播 (data.record-cache.broadcast.enabled=true 时生效)
+ * 每个实例使用独立的消费组订阅同一个 topic，从最新位置开始消费，相当于发布/订阅
+ * 消息只携带键，丢失时由 ttl-seconds 兜底
+ * ids 为空的消息表示整个模式的数据有变化，递增 QueryResultCache 的修改计数器
+ * schema 为 true 的消息表示元数据模式有变化，失效 SchemaCacheManager 中的模式，丢失时由 refresh-after-write 兜底
+ */
+@Component
+@ConditionalOnProperty(prefix = "data.record-cache.broadcast", name = "enabled", havingValue = "true")
+public class RecordInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordInvalidationBus.class);
+
+    // 本实例标识，忽略自己发出的消息 (本地已在写入时失效)
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final RecordCache recordCache;
+    private final QueryResultCache queryResultCache;
+    private final SchemaCacheManager schemaCacheManager;
+
+    @Value("${data.record-cache.broadcast.topic:mf-data-record-invalidation}")
+    private String topic;
+
+    public RecordInvalidationBus(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                                 RecordCache recordCache, QueryResultCache queryResultCache,
+                                 SchemaCacheManager schemaCacheManager) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.recordCache = recordCache;
+        this.queryResultCache = queryResultCache;
+        this.schemaCacheManager = schemaCacheManager;
+    }
+
+    public void publish(String tenantId, String schemaName, List<Long> ids) {
+        send(new InvalidationMessage(NODE_ID, tenantId, schemaName, ids, false));
+    }
+
+    public void publishTableChange(String tenantId, String schemaName) {
+        publish(tenantId, schemaName, List.of());
+    }
+
+    public void publishSchemaChange(String tenantId, String schemaName) {
+        send(new InvalidationMessage(NODE_ID, tenantId, schemaName, List.of(), true));
+    }
+
+    private void send(InvalidationMessage message) {
+        String tenantId = message.tenantId();
+        String schemaName = message.schemaName();
+        try {
+            String payload = objectMapper.writeValueAsString(message);
+            kafkaTemplate.send(topic, tenantId + ":" + schemaName, payload)
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            logger.warn("Failed to broadcast record invalidation for {}/{}: {}", tenantId, schemaName, e.getMessage());
+                        }
+                    });
+        } catch (JsonProcessingException e) {
+            logger.warn("Failed to serialize record invalidation for {}/{}: {}", tenantId, schemaName, e.getMessage());
+        }
+    }
+
+    @KafkaListener(topics = "${data.record-cache.broadcast.topic:mf-data-record-invalidation}",
+            groupId = "#{'${spring.application.name}-' + T(java.util.UUID).randomUUID()}",
+            properties = "auto.offset.reset=latest")
+    public void onMessage(String payload) {
+        try {
+            InvalidationMessage message = objectMapper.readValue(payload, InvalidationMessage.class);
+            if (NODE_ID.equals(message.nodeId())) {
+                return;
+            }
+            if (message.schema()) {
+                schemaCacheManager.evictLocal(message.tenantId(), message.schemaName());
+            } else if (message.ids().isEmpty()) {
+                queryResultCache.bumpLocal(message.tenantId(), message.schemaName());
+            } else {
+                recordCache.evictLocal(message.tenantId(), message.schemaName(), message.ids());
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed record invalidation message: {}", payload);
+        }
+    }
+
+    record InvalidationMessage(String nodeId, String tenantId, String schemaName, List<Long> ids, boolean schema) {
+    }
+}
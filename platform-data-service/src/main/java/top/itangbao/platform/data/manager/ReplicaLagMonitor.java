@@ -0,0 +1,122 @@
+package top.itangbao.platform.data.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 只读副本复制延迟监控
+ * 定时在每个副本上执行 SHOW REPLICA STATUS (旧版本为 SHOW SLAVE STATUS)：
+ * - 延迟不超过 max-lag-seconds 的副本参与读路由
+ * - 复制线程停止 (延迟为 NULL)、查询失败或延迟过高的副本暂时摘除，恢复后自动加回
+ * 副本账号需要 REPLICATION CLIENT 权限；未配置复制的实例 (如云数据库只读地址) 视为无延迟
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final long maxLagSeconds;
+    private final long checkIntervalMs;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    private volatile List<String> healthyReplicas = List.of();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param replicas 连接池名 -> 副本数据源
+     */
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagSeconds, long checkIntervalMs) {
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout(5);
+            this.replicas.put(name, jdbcTemplate);
+        });
+        this.maxLagSeconds = maxLagSeconds;
+        this.checkIntervalMs = checkIntervalMs;
+    }
+
+    public void start() {
+        // 首次检查在后台执行，不可达的副本不会拖慢启动；检查完成前读请求走主库
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 轮询选择一个健康副本，没有可用副本时返回 null
+     */
+    public String nextHealthyReplica() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(cursor.getAndIncrement(), healthy.size()));
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    void checkReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, JdbcTemplate> entry : replicas.entrySet()) {
+            String name = entry.getKey();
+            try {
+                Long lag = queryLagSeconds(entry.getValue());
+                if (lag != null && lag <= maxLagSeconds) {
+                    healthy.add(name);
+                } else {
+                    logger.warn("Replica '{}' excluded from read routing: lag={}s (max {}s).", name,
+                            lag == null ? "unknown (replication stopped)" : lag, maxLagSeconds);
+                }
+            } catch (Exception e) {
+                logger.warn("Replica '{}' excluded from read routing: {}", name, e.getMessage());
+            }
+        }
+        if (!healthy.equals(healthyReplicas)) {
+            logger.info("Healthy read replicas: {}", healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    /**
+     * @return 复制延迟秒数；复制线程未运行时为 null；实例未配置复制时为 0
+     */
+    private static Long queryLagSeconds(JdbcTemplate jdbcTemplate) {
+        List<Map<String, Object>> rows;
+        String column;
+        try {
+            rows = jdbcTemplate.queryForList("SHOW REPLICA STATUS");
+            column = "Seconds_Behind_Source";
+        } catch (Exception e) {
+            // MySQL 8.0.22 之前的版本
+            rows = jdbcTemplate.queryForList("SHOW SLAVE STATUS");
+            column = "Seconds_Behind_Master";
+        }
+        if (rows.isEmpty()) {
+            return 0L;
+        }
+        Object lag = rows.get(0).get(column);
+        return lag == null ? null : ((Number) lag).longValue();
+    }
+}
@@ -0,0 +1,98 @@
+package top.itangbao.platform.data.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 列表查询的总数估算 (count=estimate)
+ * - 无过滤条件时读取 InnoDB 统计信息 (information_schema.tables.table_rows)，不扫描数据
+ * - 有过滤条件时执行一次精确 COUNT，并按 (表, 规范化后的 WHERE 子句 + 参数) 短时间缓存，翻页时复用
+ * 估算值可能与实际行数存在偏差，只适合展示 "约 N 条"
+ */
+@Component
+public class RowCountEstimator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RowCountEstimator.class);
+
+    private static final String TABLE_ROWS_SQL =
+            "SELECT table_rows FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${data.count-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${data.count-cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<CountKey, Long> countCache;
+
+    public RowCountEstimator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * @param whereClause 完整 WHERE 子句 (含租户与数据权限条件)，作为缓存键的一部分，不同权限的用户互不复用
+     * @param unfiltered 是否除租户条件外没有任何过滤 (此时表内所有行都可见)
+     * @param exactCounter 精确计数，缓存未命中或统计信息不可用时调用
+     */
+    public long estimate(String tableName, String whereClause, List<Object> params, boolean unfiltered,
+                         LongSupplier exactCounter) {
+        CountKey key = new CountKey(tableName, normalize(whereClause), new ArrayList<>(params));
+        return countCache.get(key, k -> {
+            if (unfiltered) {
+                Long tableRows = readTableRows(tableName);
+                if (tableRows != null) {
+                    return tableRows;
+                }
+            }
+            return exactCounter.getAsLong();
+        });
+    }
+
+    /**
+     * 表数据发生批量变化 (如导入) 后丢弃该表的缓存计数
+     */
+    public void evict(String tableName) {
+        countCache.asMap().keySet().removeIf(key -> key.tableName().equals(tableName));
+    }
+
+    /**
+     * MySQL 8 默认缓存 information_schema 统计信息 (information_schema_stats_expiry)，结果只作为估算
+     */
+    private Long readTableRows(String tableName) {
+        try {
+            List<Long> rows = jdbcTemplate.queryForList(TABLE_ROWS_SQL, Long.class, tableName);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read table statistics for {}, falling back to exact count: {}", tableName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String normalize(String whereClause) {
+        return whereClause.trim().replaceAll("\\s+", " ");
+    }
+
+    private record CountKey(String tableName, String whereClause, List<Object> params) {
+    }
+}
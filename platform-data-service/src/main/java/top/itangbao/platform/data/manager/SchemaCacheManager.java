@@ -0,0 +1,155 @@
+package top.itangbao.platform.data.manager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.common.exception.ResourceNotFoundException;
+import top.itangbao.platform.data.client.MetadataServiceClient;
+import top.itangbao.platform.data.context.ForwardedHeaders;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 元数据模式本地缓存 (按 租户 + 模式名称 缓存)
+ * - 稳态下 CRUD 请求不再每次通过 Feign 访问 metadata-service
+ * - 写入一段时间后在访问时异步提前刷新 (refresh-ahead)，版本号未变化时保留原快照
+ * - 刷新失败 (metadata-service 不可用) 时继续使用旧快照，只有长时间无人访问才会过期
+ * - 主动失效通过 RecordInvalidationBus 广播到其他实例 (多实例部署需开启 record-cache 广播)
+ */
+@Component
+public class SchemaCacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCacheManager.class);
+
+    private final MetadataServiceClient metadataServiceClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<RecordInvalidationBus> invalidationBus;
+
+    @Value("${data.schema-cache.maximum-size:2000}")
+    private long maximumSize;
+
+    @Value("${data.schema-cache.refresh-after-write-seconds:30}")
+    private long refreshAfterWriteSeconds;
+
+    @Value("${data.schema-cache.expire-after-access-minutes:720}")
+    private long expireAfterAccessMinutes;
+
+    private LoadingCache<SchemaKey, CachedSchema> schemaCache;
+
+    public SchemaCacheManager(MetadataServiceClient metadataServiceClient, ObjectMapper objectMapper,
+                              ObjectProvider<RecordInvalidationBus> invalidationBus) {
+        this.metadataServiceClient = metadataServiceClient;
+        this.objectMapper = objectMapper;
+        this.invalidationBus = invalidationBus;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.schemaCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWriteSeconds, TimeUnit.SECONDS)
+                .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+                // 刷新任务在访问线程上提交，这里捕获请求头，保证后台 Feign 调用能通过下游鉴权
+                .executor(task -> ForkJoinPool.commonPool().execute(ForwardedHeaders.wrap(task)))
+                .recordStats()
+                .build(new SchemaLoader());
+    }
+
+    /**
+     * 获取模式 (命中缓存时不产生任何远程调用)
+     * @throws ResourceNotFoundException 模式不存在
+     */
+    public MetadataSchemaDTO getSchema(String tenantId, String schemaName) {
+        return getCachedSchema(tenantId, schemaName).getSchema();
+    }
+
+    /**
+     * 获取带版本号和编译计划的模式快照
+     */
+    public CachedSchema getCachedSchema(String tenantId, String schemaName) {
+        CachedSchema cached = schemaCache.get(new SchemaKey(tenantId, schemaName));
+        if (cached == null) {
+            throw new ResourceNotFoundException("Metadata schema not found with name '" + schemaName + "' for tenant '" + tenantId + "'");
+        }
+        return cached;
+    }
+
+    /**
+     * 用最新拉取到的模式覆盖缓存 (例如同步表结构时已按 ID 取到最新模式)
+     */
+    public void put(MetadataSchemaDTO schemaDTO) {
+        SchemaKey key = new SchemaKey(schemaDTO.getTenantId(), schemaDTO.getName());
+        CachedSchema current = schemaCache.getIfPresent(key);
+        if (current == null || current.getVersion() != CachedSchema.resolveVersion(schemaDTO)) {
+            schemaCache.put(key, new CachedSchema(schemaDTO, objectMapper));
+        }
+    }
+
+    /**
+     * 元数据变更时主动失效
+     */
+    /**
+     * 失效本实例的缓存并广播给其他实例
+     */
+    public void evict(String tenantId, String schemaName) {
+        evictLocal(tenantId, schemaName);
+        invalidationBus.ifAvailable(bus -> bus.publishSchemaChange(tenantId, schemaName));
+    }
+
+    /**
+     * 只失效本实例的缓存，处理其他实例广播的失效消息
+     */
+    public void evictLocal(String tenantId, String schemaName) {
+        schemaCache.invalidate(new SchemaKey(tenantId, schemaName));
+    }
+
+    public void evictAll() {
+        schemaCache.invalidateAll();
+    }
+
+    private MetadataSchemaDTO fetch(SchemaKey key) {
+        return metadataServiceClient.getSchemaByNameAndTenantId(key.schemaName(), key.tenantId())
+                .blockOptional()
+                .orElse(null);
+    }
+
+    private class SchemaLoader implements CacheLoader<SchemaKey, CachedSchema> {
+
+        @Override
+        public CachedSchema load(SchemaKey key) {
+            MetadataSchemaDTO schemaDTO = fetch(key);
+            return schemaDTO == null ? null : new CachedSchema(schemaDTO, objectMapper);
+        }
+
+        @Override
+        public CachedSchema reload(SchemaKey key, CachedSchema oldValue) {
+            MetadataSchemaDTO schemaDTO;
+            try {
+                schemaDTO = fetch(key);
+            } catch (ResourceNotFoundException e) {
+                logger.info("Metadata schema '{}' for tenant '{}' no longer exists. Evicting from cache.", key.schemaName(), key.tenantId());
+                return null;
+            }
+            if (schemaDTO == null) {
+                return null;
+            }
+            // 版本未变化时保留旧快照，编译计划等派生结构继续复用
+            if (CachedSchema.resolveVersion(schemaDTO) == oldValue.getVersion()) {
+                return oldValue;
+            }
+            return new CachedSchema(schemaDTO, objectMapper);
+        }
+    }
+
+    private record SchemaKey(String tenantId, String schemaName) {
+    }
+}
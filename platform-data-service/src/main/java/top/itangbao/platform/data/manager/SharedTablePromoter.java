@@ -0,0 +1,143 @@
+package top.itangbao.platform.data.manager;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.common.exception.DataValidationException;
+import top.itangbao.platform.data.context.ShardContext;
+import top.itangbao.platform.data.manager.TablePlacementRegistry.Mode;
+import top.itangbao.platform.data.manager.TablePlacementRegistry.TablePlacement;
+import top.itangbao.platform.data.query.OverflowColumn;
+import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 将租户的模式从共享表提升为独立表
+ * 1. 登记为 PROMOTING 拒绝写入，等待各实例的登记缓存过期
+ * 2. 按模式定义建立独立表及全部索引 (含唯一约束、全文索引)，INSERT ... SELECT 复制该租户的行 (保留 id) 并校验行数
+ * 3. 登记为 DEDICATED，读写切换到独立表；再等待一个缓存周期后删除共享表中的旧数据
+ * 切换前任一步失败时删除独立表并恢复为 SHARED，失败原因记录在登记表的 message 中
+ * 面向长尾租户，复制在一条语句内完成；数据量很大的租户应使用 TenantShardMover 式的分块复制
+ */
+@Component
+public class SharedTablePromoter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedTablePromoter.class);
+
+    @Autowired
+    private DynamicTableManager dynamicTableManager;
+
+    @Autowired
+    private TablePlacementRegistry placementRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "shared-table-promoter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 发起提升，在后台执行；进度通过 DynamicTableManager.getPlacement 查询
+     * @throws DataValidationException 未启用共享表、模式不在共享表中或独立表已存在
+     */
+    public TablePlacement startPromotion(MetadataSchemaDTO schemaDTO) {
+        String tenantId = schemaDTO.getTenantId();
+        String schemaName = schemaDTO.getName();
+        ShardContext.bind(tenantId);
+        if (!placementRegistry.isEnabled()) {
+            throw new DataValidationException("未启用共享表存储", Map.of("schemaName", schemaName));
+        }
+        TablePlacement current = placementRegistry.resolve(tenantId, schemaName);
+        if (current.mode() != Mode.SHARED) {
+            throw new DataValidationException("模式不在共享表中", Map.of("mode", current.mode().name()));
+        }
+        String dedicatedTableName = dynamicTableManager.dedicatedTableName(tenantId, schemaName);
+        if (dynamicTableManager.tableExists(dedicatedTableName)) {
+            throw new DataValidationException("独立表已存在", Map.of("table", dedicatedTableName));
+        }
+
+        TablePlacement promoting = new TablePlacement(Mode.PROMOTING, "waiting for writers to drain");
+        placementRegistry.update(tenantId, schemaName, promoting);
+        executor.submit(() -> promote(schemaDTO));
+        return promoting;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void promote(MetadataSchemaDTO schemaDTO) {
+        String tenantId = schemaDTO.getTenantId();
+        String schemaName = schemaDTO.getName();
+        String sharedTableName = dynamicTableManager.sharedTableName(schemaName);
+        String dedicatedTableName = dynamicTableManager.dedicatedTableName(tenantId, schemaName);
+        // 多等 2 秒，覆盖登记缓存过期前已开始的写事务
+        long drainWaitMs = placementRegistry.getCacheSeconds() * 1000 + 2000;
+        boolean switched = false;
+        ShardContext.bind(tenantId);
+        try {
+            Thread.sleep(drainWaitMs);
+
+            dynamicTableManager.createDedicatedTable(dedicatedTableName, schemaDTO);
+            List<String> sharedColumns = dynamicTableManager.getColumnNames(sharedTableName);
+            // 溢出字段的生成列由独立表按 ext_data 自行计算
+            Set<String> generatedColumns = schemaDTO.getFields().stream()
+                    .filter(OverflowColumn::isMaterialized)
+                    .map(MetadataFieldDTO::getFieldName)
+                    .collect(Collectors.toSet());
+            String columns = dynamicTableManager.getColumnNames(dedicatedTableName).stream()
+                    .filter(column -> sharedColumns.contains(column) && !generatedColumns.contains(column))
+                    .map(column -> "`" + column + "`")
+                    .collect(Collectors.joining(", "));
+            int copied = jdbcTemplate.update("INSERT INTO `" + dedicatedTableName + "` (" + columns + ") SELECT " + columns
+                    + " FROM `" + sharedTableName + "` WHERE `tenant_id` = ?", tenantId);
+            Long sharedRows = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM `" + sharedTableName + "` WHERE `tenant_id` = ?", Long.class, tenantId);
+            if (sharedRows == null || copied != sharedRows) {
+                throw new IllegalStateException("Row count mismatch: shared=" + sharedRows + ", dedicated=" + copied);
+            }
+
+            placementRegistry.update(tenantId, schemaName, new TablePlacement(Mode.DEDICATED,
+                    "promoted from " + sharedTableName + ": " + copied + " row(s)"));
+            switched = true;
+            logger.info("Schema '{}' of tenant '{}' promoted to dedicated table '{}' with {} row(s).",
+                    schemaName, tenantId, dedicatedTableName, copied);
+
+            // 其他实例在缓存过期前仍可能读取共享表
+            Thread.sleep(drainWaitMs);
+            int deleted = jdbcTemplate.update("DELETE FROM `" + sharedTableName + "` WHERE `tenant_id` = ?", tenantId);
+            logger.info("Deleted {} row(s) of tenant '{}' from shared table '{}'.", deleted, tenantId, sharedTableName);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (switched) {
+                logger.error("Cleaning up shared table '{}' for tenant '{}' failed; rows are retained.", sharedTableName, tenantId, e);
+                return;
+            }
+            logger.error("Promoting schema '{}' of tenant '{}' failed.", schemaName, tenantId, e);
+            try {
+                dynamicTableManager.dropTableIfExists(dedicatedTableName);
+            } catch (RuntimeException dropFailure) {
+                logger.error("Dropping partially promoted table '{}' failed.", dedicatedTableName, dropFailure);
+            }
+            placementRegistry.update(tenantId, schemaName, new TablePlacement(Mode.SHARED, "promotion failed: " + e.getMessage()));
+        } finally {
+            ShardContext.clear();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package top.itangbao.platform.data.manager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.data.config.ShardRoutingDataSource;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户模式的存储方式登记表 mf_table_placement (与租户的动态表位于同一分片)
+ * - 表中没有记录的模式使用独立表 (包括启用共享表之前建立的表)
+ * - 本地缓存 placement-cache-seconds 秒，SharedTablePromoter 切换状态后会等待这段时间
+ * 调用方需先绑定 ShardContext，登记表随分片路由读写
+ */
+@Component
+public class TablePlacementRegistry {
+
+    static final String TABLE_NAME = "mf_table_placement";
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS `" + TABLE_NAME + "` ("
+            + "`tenant_id` VARCHAR(64) NOT NULL, "
+            + "`schema_name` VARCHAR(128) NOT NULL, "
+            + "`mode` VARCHAR(16) NOT NULL, "
+            + "`message` VARCHAR(1000) NULL, "
+            + "`updated_at` DATETIME NOT NULL, "
+            + "PRIMARY KEY (`tenant_id`, `schema_name`))";
+
+    public enum Mode {
+        /** 与其他租户共用 mf_shared_<schema>，按 tenant_id 分区 */
+        SHARED,
+        /** 正在提升为独立表，只读 */
+        PROMOTING,
+        /** 独立表 mf_data_<tenant>_<schema> */
+        DEDICATED
+    }
+
+    public record TablePlacement(Mode mode, String message) {
+
+        static TablePlacement dedicated() {
+            return new TablePlacement(Mode.DEDICATED, null);
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+
+    @Value("${data.shared-table.enabled:false}")
+    private boolean enabled;
+
+    @Value("${data.shared-table.placement-cache-seconds:10}")
+    private long cacheSeconds;
+
+    private LoadingCache<PlacementKey, TablePlacement> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheSeconds, TimeUnit.SECONDS)
+                .build(this::load);
+        if (enabled) {
+            ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+            if (shards != null) {
+                shards.getShards().values().forEach(dataSource -> new JdbcTemplate(dataSource).execute(CREATE_TABLE_SQL));
+            } else {
+                jdbcTemplate.execute(CREATE_TABLE_SQL);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getCacheSeconds() {
+        return cacheSeconds;
+    }
+
+    /**
+     * 未启用共享表时不查询登记表，所有模式都使用独立表
+     */
+    public TablePlacement resolve(String tenantId, String schemaName) {
+        if (!enabled) {
+            return TablePlacement.dedicated();
+        }
+        return cache.get(new PlacementKey(tenantId, schemaName));
+    }
+
+    public void update(String tenantId, String schemaName, TablePlacement placement) {
+        jdbcTemplate.update("INSERT INTO `" + TABLE_NAME + "` (tenant_id, schema_name, mode, message, updated_at) "
+                        + "VALUES (?, ?, ?, ?, NOW()) ON DUPLICATE KEY UPDATE mode = VALUES(mode), "
+                        + "message = VALUES(message), updated_at = NOW()",
+                tenantId, schemaName, placement.mode().name(), truncate(placement.message()));
+        cache.invalidate(new PlacementKey(tenantId, schemaName));
+    }
+
+    /**
+     * 模式被删除后移除登记，重新创建时按默认策略放置
+     */
+    public void remove(String tenantId, String schemaName) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM `" + TABLE_NAME + "` WHERE tenant_id = ? AND schema_name = ?", tenantId, schemaName);
+        cache.invalidate(new PlacementKey(tenantId, schemaName));
+    }
+
+    private TablePlacement load(PlacementKey key) {
+        List<TablePlacement> rows = jdbcTemplate.query(
+                "SELECT mode, message FROM `" + TABLE_NAME + "` WHERE tenant_id = ? AND schema_name = ?",
+                (rs, rowNum) -> new TablePlacement(Mode.valueOf(rs.getString(1)), rs.getString(2)),
+                key.tenantId(), key.schemaName());
+        return rows.isEmpty() ? TablePlacement.dedicated() : rows.get(0);
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private record PlacementKey(String tenantId, String schemaName) {
+    }
+}
@@ -0,0 +1,71 @@
+package top.itangbao.platform.data.manager;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于映射表 mf_tenant_shard (位于默认分片) 的租户分片映射
+ * - 表中没有记录的租户位于默认分片
+ * - 本地缓存 cache-seconds 秒，迁移切换时其他实例最多延迟该时间感知，TenantShardMover 冻结后会等待这段时间
+ */
+public class TableTenantShardResolver implements TenantShardResolver {
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS `mf_tenant_shard` ("
+            + "`tenant_id` VARCHAR(64) NOT NULL PRIMARY KEY, "
+            + "`shard_name` VARCHAR(64) NOT NULL, "
+            + "`status` VARCHAR(16) NOT NULL DEFAULT 'ACTIVE', "
+            + "`target_shard` VARCHAR(64) NULL, "
+            + "`message` VARCHAR(1000) NULL, "
+            + "`updated_at` DATETIME NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String defaultShard;
+    private final LoadingCache<String, TenantShardAssignment> cache;
+
+    /**
+     * @param jdbcTemplate 直连默认分片 (不能经过分片路由，否则解析时会递归)
+     */
+    public TableTenantShardResolver(JdbcTemplate jdbcTemplate, String defaultShard, long cacheSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultShard = defaultShard;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(cacheSeconds, TimeUnit.SECONDS)
+                .build(this::load);
+    }
+
+    public void init() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+    }
+
+    @Override
+    public TenantShardAssignment resolve(String tenantId) {
+        return cache.get(tenantId);
+    }
+
+    @Override
+    public void update(String tenantId, TenantShardAssignment assignment) {
+        jdbcTemplate.update("INSERT INTO `mf_tenant_shard` (tenant_id, shard_name, status, target_shard, message, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, NOW()) ON DUPLICATE KEY UPDATE shard_name = VALUES(shard_name), "
+                        + "status = VALUES(status), target_shard = VALUES(target_shard), message = VALUES(message), updated_at = NOW()",
+                tenantId, assignment.shard(), assignment.status().name(), assignment.targetShard(), truncate(assignment.message()));
+        cache.invalidate(tenantId);
+    }
+
+    private TenantShardAssignment load(String tenantId) {
+        List<TenantShardAssignment> rows = jdbcTemplate.query(
+                "SELECT shard_name, status, target_shard, message FROM `mf_tenant_shard` WHERE tenant_id = ?",
+                (rs, rowNum) -> new TenantShardAssignment(rs.getString(1), Status.valueOf(rs.getString(2)),
+                        rs.getString(3), rs.getString(4)),
+                tenantId);
+        return rows.isEmpty() ? TenantShardAssignment.active(defaultShard) : rows.get(0);
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
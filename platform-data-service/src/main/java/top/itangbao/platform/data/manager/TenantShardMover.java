@@ -0,0 +1,331 @@
+package top.itangbao.platform.data.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import top.itangbao.platform.common.exception.DataValidationException;
+import top.itangbao.platform.data.client.MetadataServiceClient;
+import top.itangbao.platform.data.config.ShardRoutingDataSource;
+import top.itangbao.platform.data.manager.TenantShardResolver.Status;
+import top.itangbao.platform.data.manager.TenantShardResolver.TenantShardAssignment;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 租户在线迁移：把租户的全部动态表从当前分片搬到目标分片
+ * 1. 复制：按 id 分块全量复制 (REPLACE INTO，可重复执行)，期间源分片照常读写
+ * 2. 追平：按 updated_at 重新复制复制期间变更的行，并删除目标上已在源分片删除的行，重复数轮
+ * 3. 冻结：映射置为 FROZEN 拒绝写事务，等待各实例的映射缓存过期后做最后一轮追平，
+ *    再按 id 分块比较两侧的校验和，不一致的块整块重新复制 (追平依赖应用服务器写入的 updated_at，可能漏掉更新)，复制增量变更接口的删除记录
+ * 4. 切换：映射指向目标分片并恢复读写；源分片上的表保留，确认无误后由运维删除
+ * 任一步失败时映射置为 FAILED，继续使用源分片
+ * 迁移期间不支持修改该租户的表结构 (新列会导致追平失败，迁移以 FAILED 结束)
+ * 只迁移独立表：仍有模式位于共享表的租户需先提升为独立表 (见 SharedTablePromoter)；表清单来自租户的元数据模式
+ */
+public class TenantShardMover {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantShardMover.class);
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+    private final TenantShardResolver resolver;
+    private final MetadataServiceClient metadataServiceClient;
+    private final DynamicTableManager dynamicTableManager;
+    private final int chunkSize;
+    private final int catchUpPasses;
+    private final long freezeWaitMs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "tenant-shard-mover");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param freezeWaitMs 冻结后等待的时间，需不小于映射缓存时间，确保所有实例都已停止写入
+     */
+    public TenantShardMover(ShardRoutingDataSource shardRoutingDataSource, TenantShardResolver resolver,
+                            MetadataServiceClient metadataServiceClient, DynamicTableManager dynamicTableManager,
+                            int chunkSize, int catchUpPasses, long freezeWaitMs) {
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.resolver = resolver;
+        this.metadataServiceClient = metadataServiceClient;
+        this.dynamicTableManager = dynamicTableManager;
+        this.chunkSize = chunkSize;
+        this.catchUpPasses = catchUpPasses;
+        this.freezeWaitMs = freezeWaitMs;
+    }
+
+    /**
+     * 发起迁移，在后台执行；进度通过 resolver.resolve(tenantId) 查询
+     * @throws DataValidationException 目标分片不存在、已在目标分片、租户正在迁移或仍有模式位于共享表
+     */
+    public TenantShardAssignment startMove(String tenantId, String targetShard) {
+        TenantShardAssignment current = resolver.resolve(tenantId);
+        if (!shardRoutingDataSource.hasShard(targetShard)) {
+            throw new DataValidationException("目标分片不存在", Map.of("targetShard", targetShard));
+        }
+        if (current.shard().equals(targetShard)) {
+            throw new DataValidationException("租户已位于目标分片", Map.of("targetShard", targetShard));
+        }
+        if (current.status() == Status.MOVING || current.status() == Status.FROZEN) {
+            throw new DataValidationException("租户正在迁移", Map.of("tenantId", tenantId));
+        }
+        JdbcTemplate source = new JdbcTemplate(shardRoutingDataSource.getShard(current.shard()));
+        if (hasSharedPlacements(source, tenantId)) {
+            throw new DataValidationException("租户仍有模式位于共享表，请先提升为独立表", Map.of("tenantId", tenantId));
+        }
+        // 在请求线程上读取元数据 (Feign 调用需要转发请求的认证信息)
+        List<String> tables = listTenantTables(source, tenantId);
+
+        TenantShardAssignment moving = new TenantShardAssignment(current.shard(), Status.MOVING, targetShard, "copying");
+        resolver.update(tenantId, moving);
+        executor.submit(() -> move(tenantId, current.shard(), targetShard, tables));
+        return moving;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void move(String tenantId, String sourceShard, String targetShard, List<String> tables) {
+        JdbcTemplate source = new JdbcTemplate(shardRoutingDataSource.getShard(sourceShard));
+        JdbcTemplate target = new JdbcTemplate(shardRoutingDataSource.getShard(targetShard));
+        try {
+            logger.info("Moving tenant '{}' from shard '{}' to '{}': {} table(s).", tenantId, sourceShard, targetShard, tables.size());
+
+            // 1. 建表 + 全量复制
+            Timestamp since = currentTime(source);
+            for (String table : tables) {
+                createTableLike(source, target, table);
+                long copied = copyRows(source, target, table, 0, "");
+                logger.info("Copied {} row(s) of '{}'.", copied, table);
+            }
+
+            // 2. 追平：每轮只处理上一轮开始后变更的行，变更很少时提前结束
+            for (int pass = 1; pass <= catchUpPasses; pass++) {
+                Timestamp passStart = currentTime(source);
+                long changed = catchUp(source, target, tables, since);
+                since = passStart;
+                resolver.update(tenantId, new TenantShardAssignment(sourceShard, Status.MOVING, targetShard,
+                        "catch-up pass " + pass + ": " + changed + " row(s)"));
+                if (changed < chunkSize) {
+                    break;
+                }
+            }
+
+            // 3. 冻结写入，等待所有实例的映射缓存过期后最后一次追平，再全量比对校验和
+            resolver.update(tenantId, new TenantShardAssignment(sourceShard, Status.FROZEN, targetShard, "final catch-up"));
+            Thread.sleep(freezeWaitMs);
+            catchUp(source, target, tables, since);
+            resolver.update(tenantId, new TenantShardAssignment(sourceShard, Status.FROZEN, targetShard, "verifying checksums"));
+            for (String table : tables) {
+                long repaired = verifyAndRepair(source, target, table);
+                if (repaired > 0) {
+                    logger.warn("Re-copied {} chunk(s) of '{}' whose checksum differed after catch-up.", repaired, table);
+                }
+            }
+            long tombstones = ChangeFeedTombstones.copyTenant(source, target, tenantId);
+            if (tombstones > 0) {
+                logger.info("Copied {} tombstone(s) of tenant '{}'.", tombstones, tenantId);
+            }
+
+            // 4. 切换
+            resolver.update(tenantId, new TenantShardAssignment(targetShard, Status.ACTIVE, null,
+                    "moved from " + sourceShard + "; source tables retained"));
+            logger.info("Tenant '{}' moved to shard '{}'. Tables on '{}' are retained and can be dropped after verification.",
+                    tenantId, targetShard, sourceShard);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            logger.error("Moving tenant '{}' to shard '{}' failed.", tenantId, targetShard, e);
+            resolver.update(tenantId, new TenantShardAssignment(sourceShard, Status.FAILED, targetShard, e.getMessage()));
+        }
+    }
+
+    /**
+     * 登记表不存在 (未启用过共享表) 时视为没有
+     */
+    private static boolean hasSharedPlacements(JdbcTemplate source, String tenantId) {
+        try {
+            Long count = source.queryForObject("SELECT COUNT(*) FROM `" + TablePlacementRegistry.TABLE_NAME
+                    + "` WHERE tenant_id = ? AND mode <> 'DEDICATED'", Long.class, tenantId);
+            return count != null && count > 0;
+        } catch (BadSqlGrammarException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 租户各模式的独立表中已在源分片建立的表；不按表名前缀匹配，避免匹配到以 "<租户>_" 开头的其他租户
+     */
+    private List<String> listTenantTables(JdbcTemplate source, String tenantId) {
+        List<String> tableNames = metadataServiceClient.getAllSchemasByTenantId(tenantId).blockOptional().orElse(List.of()).stream()
+                .map(MetadataSchemaDTO::getName)
+                .map(schemaName -> dynamicTableManager.dedicatedTableName(tenantId, schemaName))
+                .distinct()
+                .toList();
+        if (tableNames.isEmpty()) {
+            return tableNames;
+        }
+        String inList = String.join(",", Collections.nCopies(tableNames.size(), "?"));
+        return source.queryForList("SELECT table_name FROM information_schema.tables WHERE table_schema = DATABASE() "
+                + "AND table_name IN (" + inList + ") ORDER BY table_name", String.class, tableNames.toArray());
+    }
+
+    private static void createTableLike(JdbcTemplate source, JdbcTemplate target, String table) {
+        Map<String, Object> row = source.queryForMap("SHOW CREATE TABLE `" + table + "`");
+        String ddl = row.get("Create Table").toString().replaceFirst("^CREATE TABLE", "CREATE TABLE IF NOT EXISTS");
+        target.execute(ddl);
+    }
+
+    private static List<String> storedColumns(JdbcTemplate source, String table) {
+        return source.queryForList("SELECT column_name FROM information_schema.columns "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? AND extra NOT LIKE '%GENERATED%' ORDER BY ORDINAL_POSITION",
+                String.class, table);
+    }
+
+    private static String storedColumnList(JdbcTemplate source, String table) {
+        return storedColumns(source, table).stream().map(c -> "`" + c + "`").collect(Collectors.joining(", "));
+    }
+
+    private static Timestamp currentTime(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT NOW()", Timestamp.class);
+    }
+
+    /**
+     * 冻结期间的全量比对：按源表 id 分块 (最后一块到无穷大，覆盖目标上多出的行) 比较两侧的行数与 BIT_XOR(CRC32(行内容))
+     * 不一致的块在目标上删除后整块重新复制，再比较一次，仍不一致则迁移失败
+     * @return 重新复制的块数
+     */
+    private long verifyAndRepair(JdbcTemplate source, JdbcTemplate target, String table) {
+        // ISNULL 标记区分 NULL 与空串，CONCAT_WS 会跳过 NULL
+        String rowText = storedColumns(source, table).stream()
+                .map(c -> "ISNULL(`" + c + "`), `" + c + "`")
+                .collect(Collectors.joining(", "));
+        String checksumSql = "SELECT COUNT(*), COALESCE(BIT_XOR(CRC32(CONCAT_WS('|', " + rowText + "))), 0) FROM `" + table
+                + "` WHERE `id` > ? AND `id` <= ?";
+        long repaired = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = source.queryForList(
+                    "SELECT `id` FROM `" + table + "` WHERE `id` > ? ORDER BY `id` LIMIT " + chunkSize, Long.class, lastId);
+            long upperId = ids.size() < chunkSize ? Long.MAX_VALUE : ids.get(ids.size() - 1);
+            if (!sameChecksum(source, target, checksumSql, lastId, upperId)) {
+                target.update("DELETE FROM `" + table + "` WHERE `id` > ? AND `id` <= ?", lastId, upperId);
+                copyRows(source, target, table, lastId, " AND `id` <= ?", upperId);
+                repaired++;
+                if (!sameChecksum(source, target, checksumSql, lastId, upperId)) {
+                    throw new IllegalStateException("Checksum mismatch on '" + table + "' for ids (" + lastId + ", " + upperId + "]");
+                }
+            }
+            if (upperId == Long.MAX_VALUE) {
+                return repaired;
+            }
+            lastId = upperId;
+        }
+    }
+
+    private static boolean sameChecksum(JdbcTemplate source, JdbcTemplate target, String checksumSql, long lowerId, long upperId) {
+        RowMapper<List<Long>> mapper = (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2));
+        return source.queryForObject(checksumSql, mapper, lowerId, upperId)
+                .equals(target.queryForObject(checksumSql, mapper, lowerId, upperId));
+    }
+
+    private long catchUp(JdbcTemplate source, JdbcTemplate target, List<String> tables, Timestamp since) {
+        long changed = 0;
+        for (String table : tables) {
+            changed += copyRows(source, target, table, 0, " AND `updated_at` >= ? - INTERVAL 1 SECOND", since);
+            changed += deleteRemoved(source, target, table);
+        }
+        return changed;
+    }
+
+    /**
+     * 从 afterId 之后按 id 分块复制满足附加条件的行；生成列 (溢出字段) 由目标表自行计算，不复制
+     * 追平时的 updated_at 条件留出 1 秒余量覆盖 DATETIME 的秒级精度，仍可能漏掉更新，由冻结后的校验和比对兜底
+     */
+    private long copyRows(JdbcTemplate source, JdbcTemplate target, String table, long afterId, String filter, Object... filterParams) {
+        String selectSql = "SELECT " + storedColumnList(source, table) + " FROM `" + table + "` WHERE `id` > ?" + filter
+                + " ORDER BY `id` LIMIT " + chunkSize;
+        long copied = 0;
+        long lastId = afterId;
+        while (true) {
+            List<String> columns = new ArrayList<>();
+            List<Object[]> rows = new ArrayList<>();
+            RowCallbackHandler handler = rs -> {
+                ResultSetMetaData metaData = rs.getMetaData();
+                if (columns.isEmpty()) {
+                    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                        columns.add(metaData.getColumnLabel(i));
+                    }
+                }
+                Object[] values = new Object[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getObject(i + 1);
+                }
+                rows.add(values);
+            };
+            Object[] params = new Object[filterParams.length + 1];
+            params[0] = lastId;
+            System.arraycopy(filterParams, 0, params, 1, filterParams.length);
+            source.query(selectSql, handler, params);
+            if (rows.isEmpty()) {
+                return copied;
+            }
+
+            String columnList = columns.stream().map(c -> "`" + c + "`").collect(Collectors.joining(", "));
+            String placeholders = String.join(", ", Collections.nCopies(columns.size(), "?"));
+            target.batchUpdate("REPLACE INTO `" + table + "` (" + columnList + ") VALUES (" + placeholders + ")", rows);
+
+            copied += rows.size();
+            lastId = ((Number) rows.get(rows.size() - 1)[columns.indexOf("id")]).longValue();
+            if (rows.size() < chunkSize) {
+                return copied;
+            }
+        }
+    }
+
+    /**
+     * 删除目标上存在、源分片已删除的行
+     */
+    private long deleteRemoved(JdbcTemplate source, JdbcTemplate target, String table) {
+        long deleted = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> targetIds = target.queryForList(
+                    "SELECT `id` FROM `" + table + "` WHERE `id` > ? ORDER BY `id` LIMIT " + chunkSize, Long.class, lastId);
+            if (targetIds.isEmpty()) {
+                return deleted;
+            }
+            String inList = String.join(",", Collections.nCopies(targetIds.size(), "?"));
+            Set<Long> sourceIds = new HashSet<>(source.queryForList(
+                    "SELECT `id` FROM `" + table + "` WHERE `id` IN (" + inList + ")", Long.class, targetIds.toArray()));
+            List<Object[]> removed = targetIds.stream()
+                    .filter(id -> !sourceIds.contains(id))
+                    .map(id -> new Object[]{id})
+                    .toList();
+            if (!removed.isEmpty()) {
+                target.batchUpdate("DELETE FROM `" + table + "` WHERE `id` = ?", removed);
+                deleted += removed.size();
+            }
+            lastId = targetIds.get(targetIds.size() - 1);
+            if (targetIds.size() < chunkSize) {
+                return deleted;
+            }
+        }
+    }
+}
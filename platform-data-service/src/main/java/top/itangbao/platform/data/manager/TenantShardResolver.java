@@ -0,0 +1,46 @@
+package top.itangbao.platform.data.manager;
+
+/**
+ * 租户 -> 分片映射 (可替换实现，默认为 TableTenantShardResolver)
+ * 每次获取连接时都会调用 resolve，实现需要自带缓存
+ */
+public interface TenantShardResolver {
+
+    /**
+     * @return 租户当前的分片与迁移状态，未分配的租户返回默认分片
+     */
+    TenantShardAssignment resolve(String tenantId);
+
+    /**
+     * 更新租户的分片分配，供在线迁移使用；只读映射 (如静态配置) 可以不支持
+     */
+    void update(String tenantId, TenantShardAssignment assignment);
+
+    /**
+     * 租户分片分配
+     * @param shard 当前读写的分片
+     * @param status 迁移状态
+     * @param targetShard 迁移目标分片，未在迁移时为 null
+     * @param message 最近一次迁移的进度或失败原因
+     */
+    record TenantShardAssignment(String shard, Status status, String targetShard, String message) {
+
+        public static TenantShardAssignment active(String shard) {
+            return new TenantShardAssignment(shard, Status.ACTIVE, null, null);
+        }
+
+        /**
+         * 只有冻结阶段禁止写入
+         */
+        public boolean isWritable() {
+            return status != Status.FROZEN;
+        }
+    }
+
+    enum Status {
+        ACTIVE,  // 正常读写
+        MOVING,  // 正在复制与追平，仍在源分片读写
+        FROZEN,  // 切换前的最终追平，源分片只读
+        FAILED   // 迁移失败，继续在源分片读写
+    }
+}
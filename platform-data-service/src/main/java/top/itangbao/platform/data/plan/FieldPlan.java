@@ -0,0 +1,100 @@
+package top.itangbao.platform.data.plan;
+
+import top.itangbao.platform.common.enums.FieldType;
+import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 单个字段的编译结果：预编译正则、枚举选项集合、类型转换器
+ */
+public final class FieldPlan {
+
+    private final int index;
+    private final MetadataFieldDTO field;
+    private final String name;
+    private final FieldType fieldType;
+    private final boolean required;
+    private final boolean overflow;
+    private final ValueConverter converter;
+    private final Pattern pattern;
+    private final String patternMessage;
+    private final Set<String> enumOptions;
+    private final String enumMessage;
+
+    FieldPlan(int index, MetadataFieldDTO field, Pattern pattern, Set<String> enumOptions) {
+        this.index = index;
+        this.field = field;
+        this.name = field.getFieldName();
+        this.fieldType = field.getFieldType();
+        this.required = Boolean.TRUE.equals(field.getRequired());
+        this.overflow = Boolean.TRUE.equals(field.getOverflow());
+        this.converter = ValueConverter.forType(field.getFieldType());
+        this.pattern = pattern;
+        // 如果有描述，优先提示描述，否则提示不符合规则
+        this.patternMessage = (field.getDescription() != null && !field.getDescription().isEmpty())
+                ? "格式不正确: " + field.getDescription()
+                : "数据格式不符合校验规则";
+        this.enumOptions = enumOptions;
+        this.enumMessage = enumOptions == null ? null : "值无效，必须是以下选项之一: " + String.join(", ", enumOptions);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public MetadataFieldDTO getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public FieldType getFieldType() {
+        return fieldType;
+    }
+
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * 是否存放在 JSON 溢出列 (见 OverflowColumn)
+     */
+    public boolean isOverflow() {
+        return overflow;
+    }
+
+    /**
+     * 将值转换为字段类型
+     * @throws IllegalArgumentException 转换失败
+     */
+    public Object convert(Object value) {
+        return value == null ? null : converter.convert(value);
+    }
+
+    /**
+     * 校验单个已提供的值，返回错误信息，校验通过返回 null
+     * 与原有规则保持一致：类型错误、枚举错误、正则错误依次检查，后者覆盖前者
+     */
+    String check(Object value) {
+        String error = null;
+        try {
+            converter.convert(value);
+        } catch (IllegalArgumentException e) {
+            error = e.getMessage();
+        }
+        if (enumOptions != null || pattern != null) {
+            String strValue = value instanceof String s ? s : String.valueOf(value);
+            if (enumOptions != null && !enumOptions.contains(strValue)) {
+                error = enumMessage;
+            }
+            if (pattern != null && !pattern.matcher(strValue).matches()) {
+                error = patternMessage;
+            }
+        }
+        return error;
+    }
+}
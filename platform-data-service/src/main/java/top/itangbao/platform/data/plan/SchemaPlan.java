@@ -0,0 +1,177 @@
+package top.itangbao.platform.data.plan;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import top.itangbao.platform.common.enums.FieldType;
+import top.itangbao.platform.common.exception.DataValidationException;
+import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 模式编译计划 (不可变，每个模式版本构建一次)
+ * 校验和类型转换只依赖这里预先计算好的结构，不再重复编译正则或解析枚举 JSON
+ */
+public final class SchemaPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaPlan.class);
+
+    private final long version;
+    private final List<FieldPlan> fields;
+    private final Map<String, FieldPlan> fieldIndex;
+
+    private SchemaPlan(long version, List<FieldPlan> fields) {
+        this.version = version;
+        this.fields = fields;
+        Map<String, FieldPlan> index = new HashMap<>(fields.size() * 2);
+        for (FieldPlan field : fields) {
+            index.put(field.getName(), field);
+        }
+        this.fieldIndex = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * 编译模式
+     * 配置错误 (正则无效、枚举选项 JSON 无效) 只在编译时记录一次日志，不阻断用户
+     */
+    public static SchemaPlan compile(MetadataSchemaDTO schemaDTO, long version, ObjectMapper objectMapper) {
+        List<MetadataFieldDTO> fieldDTOs = schemaDTO.getFields() != null ? schemaDTO.getFields() : Collections.emptyList();
+        List<FieldPlan> fields = new ArrayList<>(fieldDTOs.size());
+        for (MetadataFieldDTO field : fieldDTOs) {
+            fields.add(new FieldPlan(fields.size(), field, compilePattern(field), parseEnumOptions(field, objectMapper)));
+        }
+        return new SchemaPlan(version, Collections.unmodifiableList(fields));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<FieldPlan> getFields() {
+        return fields;
+    }
+
+    /**
+     * 按字段名查找，不存在返回 null
+     */
+    public FieldPlan getField(String fieldName) {
+        return fieldIndex.get(fieldName);
+    }
+
+    public boolean hasField(String fieldName) {
+        return fieldIndex.containsKey(fieldName);
+    }
+
+    /**
+     * 生产级动态数据校验
+     * 收集所有字段的错误，而不是遇到第一个就抛出
+     * @return 字段名 -> 错误信息，全部通过时返回空 Map
+     */
+    public Map<String, String> validate(Map<String, Object> data) {
+        Map<String, String> errors = null;
+        for (FieldPlan field : fields) {
+            Object fieldValue = data.get(field.getName());
+
+            // 无论值是什么类型，先判空（注意：Boolean false 不算空，0 不算空）
+            boolean isProvided = fieldValue != null && !isBlank(fieldValue);
+            if (!isProvided) {
+                if (field.isRequired()) {
+                    errors = put(errors, field.getName(), "此字段为必填项");
+                }
+                continue;
+            }
+
+            String error = field.check(fieldValue);
+            if (error != null) {
+                errors = put(errors, field.getName(), error);
+            }
+        }
+        return errors == null ? Collections.emptyMap() : errors;
+    }
+
+    /**
+     * 部分更新校验：只校验 data 中出现的字段，未出现的必填字段保持原值不报错
+     */
+    public Map<String, String> validatePartial(Map<String, Object> data) {
+        Map<String, String> errors = null;
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            FieldPlan field = fieldIndex.get(entry.getKey());
+            if (field == null) {
+                continue;
+            }
+            Object fieldValue = entry.getValue();
+            if (fieldValue == null || isBlank(fieldValue)) {
+                if (field.isRequired()) {
+                    errors = put(errors, field.getName(), "此字段为必填项");
+                }
+                continue;
+            }
+            String error = field.check(fieldValue);
+            if (error != null) {
+                errors = put(errors, field.getName(), error);
+            }
+        }
+        return errors == null ? Collections.emptyMap() : errors;
+    }
+
+    /**
+     * 校验失败时统一抛出 DataValidationException
+     */
+    public void validateOrThrow(Map<String, Object> data) {
+        Map<String, String> errors = validate(data);
+        if (!errors.isEmpty()) {
+            throw new DataValidationException("数据校验失败，请检查输入项", errors);
+        }
+    }
+
+    private static boolean isBlank(Object value) {
+        if (value instanceof String s) {
+            return s.isBlank();
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return false;
+        }
+        return String.valueOf(value).trim().isEmpty();
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, String fieldName, String message) {
+        if (errors == null) {
+            errors = new HashMap<>();
+        }
+        errors.put(fieldName, message);
+        return errors;
+    }
+
+    private static Pattern compilePattern(MetadataFieldDTO field) {
+        if (field.getValidationRule() == null || field.getValidationRule().isEmpty()) {
+            return null;
+        }
+        try {
+            return Pattern.compile(field.getValidationRule());
+        } catch (PatternSyntaxException e) {
+            // 正则配置错误是开发者的锅，不应阻断用户
+            logger.error("Schema 定义中字段 '{}' 的正则表达式无效: {}", field.getFieldName(), field.getValidationRule());
+            return null;
+        }
+    }
+
+    private static Set<String> parseEnumOptions(MetadataFieldDTO field, ObjectMapper objectMapper) {
+        if (!FieldType.ENUM.equals(field.getFieldType()) || field.getOptions() == null || field.getOptions().isEmpty()) {
+            return null;
+        }
+        try {
+            List<String> options = objectMapper.readValue(field.getOptions(), new TypeReference<List<String>>() {});
+            // LinkedHashSet：O(1) 查找，同时保留选项顺序用于错误提示
+            return Collections.unmodifiableSet(new LinkedHashSet<>(options));
+        } catch (JsonProcessingException e) {
+            logger.error("解析字段 '{}' 的枚举选项 JSON 失败: {}", field.getFieldName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package top.itangbao.platform.data.plan;
+
+import top.itangbao.platform.common.enums.FieldType;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 按字段类型特化的值转换器，替代原先每次调用都走一遍的 switch
+ * 转换失败时抛出 IllegalArgumentException，异常信息直接作为校验错误提示
+ */
+@FunctionalInterface
+public interface ValueConverter {
+
+    /**
+     * @param value 非 null 的原始值
+     * @return 目标类型的值，空字符串 (非文本类型) 返回 null
+     */
+    Object convert(Object value);
+
+    ValueConverter TEXT = value -> value instanceof String s ? s.trim() : String.valueOf(value).trim();
+
+    ValueConverter LONG = value -> {
+        if (value instanceof Long l) return l;
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) return ((Number) value).longValue();
+        String str = trimToNull(value);
+        if (str == null) return null;
+        try {
+            return Long.parseLong(str);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("必须是有效的数字格式");
+        }
+    };
+
+    ValueConverter DOUBLE = value -> {
+        if (value instanceof Double d) return d;
+        if (value instanceof Number n) return n.doubleValue();
+        String str = trimToNull(value);
+        if (str == null) return null;
+        try {
+            return Double.parseDouble(str);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("必须是有效的数字格式");
+        }
+    };
+
+    ValueConverter BOOLEAN = value -> {
+        if (value instanceof Boolean b) return b;
+        String str = trimToNull(value);
+        if (str == null) return null;
+        // 严格校验：只允许 "true"/"false" (不区分大小写)
+        if ("true".equalsIgnoreCase(str)) return Boolean.TRUE;
+        if ("false".equalsIgnoreCase(str)) return Boolean.FALSE;
+        throw new IllegalArgumentException("必须是布尔值 (true/false)");
+    };
+
+    ValueConverter DATE = value -> {
+        if (value instanceof LocalDate d) return d;
+        String str = trimToNull(value);
+        if (str == null) return null;
+        try {
+            return LocalDate.parse(str); // 格式：YYYY-MM-DD
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期时间格式无效");
+        }
+    };
+
+    ValueConverter DATETIME = value -> {
+        if (value instanceof LocalDateTime d) return d;
+        String str = trimToNull(value);
+        if (str == null) return null;
+        try {
+            return LocalDateTime.parse(str); // 格式：YYYY-MM-DDTHH:MM:SS (ISO_LOCAL_DATE_TIME)
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期时间格式无效");
+        }
+    };
+
+    /**
+     * 非文本类型的枚举值、文件 ID 等存储为字符串，但空串视为空值
+     */
+    ValueConverter NULLABLE_TEXT = ValueConverter::trimToNull;
+
+    static ValueConverter forType(FieldType fieldType) {
+        if (fieldType == null) {
+            return NULLABLE_TEXT;
+        }
+        switch (fieldType) {
+            case INTEGER:
+            case REFERENCE: // 引用 ID 通常是 Long
+                return LONG;
+            case NUMBER:
+                return DOUBLE;
+            case BOOLEAN:
+                return BOOLEAN;
+            case DATE:
+                return DATE;
+            case DATETIME:
+                return DATETIME;
+            case STRING:
+            case TEXT:
+                return TEXT;
+            default: // ENUM / FILE / SELECT 存储为字符串
+                return NULLABLE_TEXT;
+        }
+    }
+
+    private static String trimToNull(Object value) {
+        String str = value instanceof String s ? s.trim() : String.valueOf(value).trim();
+        return str.isEmpty() ? null : str;
+    }
+}
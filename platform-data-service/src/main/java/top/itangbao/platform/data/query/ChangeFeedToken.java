@@ -0,0 +1,50 @@
+package top.itangbao.platform.data.query;
+
+import top.itangbao.platform.common.exception.DataValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 增量变更接口的水位令牌：记录已返回的最后一条变更 (updated_at, id) 与最后一条删除 (deleted_at, record_id)
+ * 下次请求以 WHERE (updated_at, id) > (?, ?) 继续，令牌对客户端不透明
+ * @param rowTime 记录水位的 updated_at
+ * @param rowId 记录水位的 id
+ * @param deleteTime 删除水位的 deleted_at
+ * @param deleteId 删除水位的 record_id
+ */
+public record ChangeFeedToken(LocalDateTime rowTime, long rowId, LocalDateTime deleteTime, long deleteId) {
+
+    private static final String VERSION = "1";
+
+    // 不晚于 TIMESTAMP 列的最小值，早于任何记录
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * 首次同步：从头返回全部记录；此前的删除与客户端无关，删除水位从当前边界开始
+     */
+    public static ChangeFeedToken initial(LocalDateTime boundary) {
+        return new ChangeFeedToken(BEGINNING, 0, boundary, Long.MAX_VALUE);
+    }
+
+    public static ChangeFeedToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unknown token layout");
+            }
+            return new ChangeFeedToken(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]),
+                    LocalDateTime.parse(parts[3]), Long.parseLong(parts[4]));
+        } catch (RuntimeException e) {
+            throw new DataValidationException("变更令牌无效: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, rowTime.toString(), String.valueOf(rowId),
+                deleteTime.toString(), String.valueOf(deleteId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
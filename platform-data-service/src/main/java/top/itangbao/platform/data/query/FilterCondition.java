@@ -0,0 +1,65 @@
+package top.itangbao.platform.data.query;
+
+/**
+ * 过滤条件的形状 (字段 + 操作符 + 参数个数)，不含参数值
+ * 相同形状的查询生成相同的 SQL 文本，可作为 SQL 模板缓存键的一部分
+ * @param field 列名 (已校验存在于表中)
+ * @param operator eq/ne/gt/lt/ge/le/like/in/match
+ * @param arity 占位符个数，仅 in 大于 1
+ * @param expression 比较的左侧，为空时即 `field`；只存于 ext_data 的溢出字段为 JSON 取值表达式
+ */
+public record FilterCondition(String field, String operator, int arity, String expression) {
+
+    public FilterCondition(String field, String operator, int arity) {
+        this(field, operator, arity, null);
+    }
+
+    public static FilterCondition of(String field, String operator) {
+        return new FilterCondition(field, operator, 1);
+    }
+
+    /**
+     * 改为对表达式求值的同形条件
+     */
+    public FilterCondition on(String expression) {
+        return new FilterCondition(field, operator, arity, expression);
+    }
+
+    /**
+     * 全文检索表达式，依赖该列上的 FULLTEXT 索引；同时用作相关度排序表达式
+     */
+    public String matchExpression() {
+        return "MATCH(`" + field + "`) AGAINST(? IN BOOLEAN MODE)";
+    }
+
+    /**
+     * 追加 " AND `field` op ?" (或 " AND expression op ?")
+     */
+    public void appendTo(StringBuilder sql) {
+        if ("match".equals(operator)) {
+            sql.append(" AND ").append(matchExpression());
+            return;
+        }
+        if (expression != null) {
+            sql.append(" AND ").append(expression).append(' ');
+        } else {
+            sql.append(" AND `").append(field).append("` ");
+        }
+        switch (operator) {
+            case "ne" -> sql.append("!= ?");
+            case "gt" -> sql.append("> ?");
+            case "lt" -> sql.append("< ?");
+            case "ge" -> sql.append(">= ?");
+            case "le" -> sql.append("<= ?");
+            case "like" -> sql.append("LIKE ?");
+            case "in" -> {
+                sql.append("IN (");
+                for (int i = 0; i < arity; i++) {
+                    sql.append(i == 0 ? "?" : ",?");
+                }
+                sql.append(")");
+            }
+            default -> sql.append("= ?");
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package top.itangbao.platform.data.query;
+
+import top.itangbao.platform.common.exception.DataValidationException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Keyset (seek) 分页的续页令牌
+ * 记录上一页边界行的 (排序列值, id)，下一页以 WHERE (col, id) > (?, ?) 定位，不再扫描并丢弃 OFFSET 前缀
+ * 令牌对客户端不透明，同时记录排序字段和方向，防止与不同排序的请求混用
+ */
+public final class KeysetCursor {
+
+    private static final String VERSION = "1";
+    private static final String SEPARATOR = "|";
+
+    private final String sortBy;
+    private final boolean descending;
+    private final boolean backward; // true: 向前翻页 (prevCursor)，以当前页第一行为锚点反向查询
+    private final long id;
+    private final Object sortValue;
+
+    private KeysetCursor(String sortBy, boolean descending, boolean backward, long id, Object sortValue) {
+        this.sortBy = sortBy;
+        this.descending = descending;
+        this.backward = backward;
+        this.id = id;
+        this.sortValue = sortValue;
+    }
+
+    /**
+     * @param sortBy 排序字段，为 id 时只按 id 定位
+     * @param sortValue 锚点行的排序列值 (数据库原始值)
+     */
+    public static KeysetCursor of(String sortBy, boolean descending, boolean backward, long id, Object sortValue) {
+        return new KeysetCursor(sortBy, descending, backward, id, "id".equals(sortBy) ? null : normalize(sortValue));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 7);
+            if (parts.length != 7 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("unknown cursor layout");
+            }
+            return new KeysetCursor(parts[1], "d".equals(parts[2]), "p".equals(parts[3]),
+                    Long.parseLong(parts[4]), decodeValue(parts[5], parts[6]));
+        } catch (RuntimeException e) {
+            throw new DataValidationException("分页游标无效: " + token);
+        }
+    }
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, VERSION, sortBy, descending ? "d" : "a", backward ? "p" : "n",
+                String.valueOf(id), typeCode(sortValue), sortValue == null ? "" : sortValue.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 校验令牌与本次请求的排序一致
+     */
+    public void checkMatches(String requestSortBy, boolean requestDescending) {
+        if (!sortBy.equals(requestSortBy) || descending != requestDescending) {
+            throw new DataValidationException("分页游标与当前排序条件不一致，请从第一页重新查询");
+        }
+    }
+
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * 本次查询实际的扫描方向：反向翻页时与排序方向相反，结果需再反转
+     */
+    public boolean scansDescending() {
+        return descending != backward;
+    }
+
+    /**
+     * 生成定位谓词 (不含 WHERE/AND)，参数追加到 params
+     * MySQL 中 NULL 小于任何值：升序时排在最前，降序时排在最后
+     */
+    public String toPredicate(List<Object> params) {
+        boolean desc = scansDescending();
+        String op = desc ? "<" : ">";
+        if ("id".equals(sortBy)) {
+            params.add(id);
+            return "`id` " + op + " ?";
+        }
+        String col = "`" + sortBy + "`";
+        if (sortValue == null) {
+            params.add(id);
+            return desc
+                    ? "(" + col + " IS NULL AND `id` < ?)"
+                    : "((" + col + " IS NULL AND `id` > ?) OR " + col + " IS NOT NULL)";
+        }
+        params.add(sortValue);
+        params.add(id);
+        return desc
+                ? "((" + col + ", `id`) < (?, ?) OR " + col + " IS NULL)"
+                : "(" + col + ", `id`) > (?, ?)";
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate();
+        }
+        if (value instanceof Number number && !(value instanceof BigDecimal)) {
+            return new BigDecimal(number.toString());
+        }
+        return value;
+    }
+
+    private static String typeCode(Object value) {
+        if (value == null) return "0";
+        if (value instanceof BigDecimal) return "N";
+        if (value instanceof LocalDateTime) return "T";
+        if (value instanceof LocalDate) return "D";
+        if (value instanceof Boolean) return "B";
+        return "S";
+    }
+
+    private static Object decodeValue(String type, String text) {
+        return switch (type) {
+            case "0" -> null;
+            case "N" -> new BigDecimal(text);
+            case "T" -> LocalDateTime.parse(text);
+            case "D" -> LocalDate.parse(text);
+            case "B" -> Boolean.valueOf(text);
+            case "S" -> text;
+            default -> throw new IllegalArgumentException("unknown value type: " + type);
+        };
+    }
+}
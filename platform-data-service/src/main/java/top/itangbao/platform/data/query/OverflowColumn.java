@@ -0,0 +1,179 @@
+package top.itangbao.platform.data.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import top.itangbao.platform.common.enums.FieldType;
+import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JSON 溢出列 ext_data：标记为 overflow 的字段不建物理列，值以 {字段名: 值} 存入该列，新增字段不需要 ALTER TABLE
+ * - indexed/unique 的溢出字段在表上建立同名的 VIRTUAL 生成列并建索引，过滤、排序、聚合与普通列相同
+ * - 其余溢出字段只能过滤与投影，SQL 中通过 JSON 路径表达式取值
+ * 空值不写入文档 (部分更新时删除该键)，路径取值即为 SQL NULL
+ */
+public final class OverflowColumn {
+
+    public static final String NAME = "ext_data";
+
+    // 投影中单个溢出字段的伪列名，只出现在投影列清单与行布局中
+    private static final String FIELD_PREFIX = NAME + ".";
+
+    // 字段名会拼入 JSON 路径与列名，只允许普通标识符
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_LONG_FOR_INTS);
+
+    private static final TypeReference<LinkedHashMap<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private OverflowColumn() {
+    }
+
+    public static boolean isOverflow(MetadataFieldDTO field) {
+        return Boolean.TRUE.equals(field.getOverflow());
+    }
+
+    /**
+     * 是否在表上建立同名生成列 (TEXT 类型不能建普通索引，仍只存于文档)
+     */
+    public static boolean isMaterialized(MetadataFieldDTO field) {
+        return isOverflow(field)
+                && (Boolean.TRUE.equals(field.getIndexed()) || Boolean.TRUE.equals(field.getUnique()))
+                && field.getFieldType() != FieldType.TEXT;
+    }
+
+    /**
+     * 只存于文档、表上没有对应列的字段
+     */
+    public static boolean isJsonOnly(MetadataFieldDTO field) {
+        return isOverflow(field) && !isMaterialized(field);
+    }
+
+    public static boolean isSafeName(String fieldName) {
+        return fieldName != null && SAFE_NAME.matcher(fieldName).matches();
+    }
+
+    /**
+     * 按字段类型取值的 SQL 表达式，同时用于过滤条件与生成列定义
+     */
+    public static String valueExpression(MetadataFieldDTO field) {
+        String text = "`" + NAME + "`->>'$.\"" + field.getFieldName() + "\"'";
+        if (field.getFieldType() == null) {
+            return text;
+        }
+        return switch (field.getFieldType()) {
+            case INTEGER, REFERENCE -> "CAST(" + text + " AS SIGNED)";
+            case NUMBER -> "(" + text + " + 0)";
+            case BOOLEAN -> "(CASE " + text + " WHEN 'true' THEN 1 WHEN 'false' THEN 0 END)";
+            default -> text;
+        };
+    }
+
+    public static String fieldColumn(String fieldName) {
+        return FIELD_PREFIX + fieldName;
+    }
+
+    public static boolean isFieldColumn(String column) {
+        return column.startsWith(FIELD_PREFIX);
+    }
+
+    /**
+     * 伪列的 SELECT 表达式，返回字段的 JSON 文本
+     */
+    public static String selectExpression(String fieldColumn) {
+        return "`" + NAME + "`->'$.\"" + fieldColumn.substring(FIELD_PREFIX.length()) + "\"'";
+    }
+
+    public static String fieldName(String fieldColumn) {
+        return fieldColumn.substring(FIELD_PREFIX.length());
+    }
+
+    /**
+     * 部分更新的 SET 右侧：合并补丁 (补丁中的 null 删除对应键)
+     */
+    public static String patchExpression() {
+        return "JSON_MERGE_PATCH(COALESCE(`" + NAME + "`, JSON_OBJECT()), ?)";
+    }
+
+    /**
+     * 新记录的文档，忽略空值；没有非空值时返回 null
+     */
+    public static String write(Map<String, Object> values) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null) {
+                document.put(key, toJsonValue(value));
+            }
+        });
+        return document.isEmpty() ? null : serialize(document);
+    }
+
+    /**
+     * 部分更新的合并补丁，保留空值
+     */
+    public static String writePatch(Map<String, Object> values) {
+        Map<String, Object> patch = new LinkedHashMap<>();
+        values.forEach((key, value) -> patch.put(key, value == null ? null : toJsonValue(value)));
+        return serialize(patch);
+    }
+
+    /**
+     * 解析整列文档，列为空时返回空 Map
+     */
+    public static Map<String, Object> parse(Object document) {
+        String json = toText(document);
+        if (json == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return MAPPER.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed " + NAME + " document: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * 解析伪列返回的单个 JSON 值
+     */
+    public static Object parseValue(Object value) {
+        String json = toText(value);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, Object.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed " + NAME + " value: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    // 日期时间按 ISO 文本存储，与 ValueConverter 的解析格式一致，MySQL 也能直接转换为 DATE/DATETIME
+    private static Object toJsonValue(Object value) {
+        return value instanceof Temporal ? value.toString() : value;
+    }
+
+    private static String toText(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+    }
+
+    private static String serialize(Map<String, Object> document) {
+        try {
+            return MAPPER.writeValueAsString(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize " + NAME + " document: " + e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package top.itangbao.platform.data.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 动态查询的 SQL 模板与行布局缓存
+ * - SQL 文本按 (表, 模式版本, 列快照, 语句类型, 过滤形状, 变体) 缓存，参数值不参与
+ * - 行布局按列快照对象缓存 (弱引用、按引用比较)：DynamicTableManager 的列缓存更新后旧布局自然失效
+ */
+@Component
+public class QueryTemplateCache {
+
+    @Value("${data.query-cache.maximum-size:5000}")
+    private long maximumSize;
+
+    private Cache<SqlTemplateKey, String> sqlCache;
+    private Cache<List<String>, RowLayout> layoutCache;
+    private Cache<ProjectionKey, List<String>> projectionCache;
+
+    @PostConstruct
+    public void init() {
+        this.sqlCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        this.layoutCache = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maximumSize)
+                .build();
+        this.projectionCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public String getSql(SqlTemplateKey key, Supplier<String> builder) {
+        return sqlCache.get(key, k -> builder.get());
+    }
+
+    /**
+     * @param columns DynamicTableManager 返回的不可变列快照
+     */
+    public RowLayout getLayout(List<String> columns) {
+        return layoutCache.get(columns, RowLayout::of);
+    }
+
+    /**
+     * 投影列清单：同一列快照下相同的 fields 参数返回同一个列表实例，从而命中行布局缓存
+     * @param columns 表的列快照
+     * @param schemaVersion 模式版本 (只存于 ext_data 的溢出字段不改变列快照)
+     * @param fields 请求的 fields 参数原文
+     * @param resolver 未命中时解析并校验投影列，校验失败抛出的异常不会被缓存
+     */
+    public List<String> getProjection(List<String> columns, long schemaVersion, String fields, Supplier<List<String>> resolver) {
+        return projectionCache.get(new ProjectionKey(columns, schemaVersion, fields), k -> List.copyOf(resolver.get()));
+    }
+
+    private record ProjectionKey(List<String> columns, long schemaVersion, String fields) {
+    }
+
+    /**
+     * SQL 模板缓存键
+     * @param tableName 表名
+     * @param schemaVersion 模式版本，元数据变更后自动换键
+     * @param columns 列快照
+     * @param statement 语句类型 (where/list/count/by-id 等)
+     * @param conditions 过滤条件形状
+     * @param variant 其余影响 SQL 文本的因素 (排序、分页方式等)
+     */
+    public record SqlTemplateKey(String tableName, long schemaVersion, List<String> columns, String statement,
+                                 List<FilterCondition> conditions, String variant) {
+    }
+}
@@ -0,0 +1,124 @@
+package top.itangbao.platform.data.query;
+
+import top.itangbao.platform.data.api.dto.DynamicDataResponse;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 结果行布局：按列序号预先确定每一列的处理方式
+ * 映射时只需按下标遍历，不再对每行每列做字符串比较
+ */
+public final class RowLayout {
+
+    private static final byte DATA = 0;
+    private static final byte ID = 1;
+    private static final byte SKIP = 2;
+    private static final byte CREATED_AT = 3;
+    private static final byte UPDATED_AT = 4;
+    private static final byte CREATED_BY = 5;
+    private static final byte DEPT_ID = 6;
+    private static final byte OVERFLOW = 7;
+    private static final byte OVERFLOW_FIELD = 8;
+
+    private final List<String> columns;
+    private final byte[] kinds;
+    private final String[] names;
+    private final int dataMapCapacity;
+    private final String selectList;
+
+    private RowLayout(List<String> columns) {
+        this.columns = columns;
+        this.kinds = new byte[columns.size()];
+        this.names = columns.toArray(new String[0]);
+        int dataColumns = 0;
+        for (int i = 0; i < names.length; i++) {
+            kinds[i] = switch (names[i]) {
+                case "id" -> ID;
+                case "tenant_id" -> SKIP;
+                case "created_at" -> CREATED_AT;
+                case "updated_at" -> UPDATED_AT;
+                case "created_by" -> CREATED_BY;
+                case "dept_id" -> DEPT_ID;
+                case OverflowColumn.NAME -> OVERFLOW;
+                default -> OverflowColumn.isFieldColumn(names[i]) ? OVERFLOW_FIELD : DATA;
+            };
+            if (kinds[i] == OVERFLOW_FIELD) {
+                names[i] = OverflowColumn.fieldName(names[i]);
+            }
+            if (kinds[i] == DATA || kinds[i] == OVERFLOW_FIELD) {
+                dataColumns++;
+            }
+        }
+        // 预设容量，避免逐列 put 时扩容
+        this.dataMapCapacity = (int) (dataColumns / 0.75f) + 1;
+        this.selectList = columns.stream()
+                .map(col -> OverflowColumn.isFieldColumn(col) ? OverflowColumn.selectExpression(col) : "`" + col + "`")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * @param columns 查询的列 (顺序即 SELECT 列顺序)
+     */
+    public static RowLayout of(List<String> columns) {
+        return new RowLayout(List.copyOf(columns));
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * SELECT 列清单: `c1`, `c2`, ...
+     */
+    public String getSelectList() {
+        return selectList;
+    }
+
+    public int indexOf(String column) {
+        return columns.indexOf(column);
+    }
+
+    public DynamicDataResponse map(Object[] row, String tenantId, String schemaName) {
+        Map<String, Object> dataMap = new HashMap<>(dataMapCapacity);
+        Long id = null;
+        LocalDateTime createdAt = null;
+        LocalDateTime updatedAt = null;
+        String createdBy = null;
+        Long deptId = null;
+        Object overflow = null;
+
+        for (int i = 0; i < kinds.length; i++) {
+            Object value = row[i];
+            switch (kinds[i]) {
+                case ID -> id = ((Number) value).longValue();
+                case CREATED_AT -> createdAt = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : null;
+                case UPDATED_AT -> updatedAt = value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : null;
+                case CREATED_BY -> createdBy = (String) value;
+                case DEPT_ID -> deptId = value != null ? ((Number) value).longValue() : null;
+                case DATA -> dataMap.put(names[i], value);
+                case OVERFLOW -> overflow = value;
+                case OVERFLOW_FIELD -> dataMap.put(names[i], OverflowColumn.parseValue(value));
+                default -> { /* skip */ }
+            }
+        }
+        if (overflow != null) {
+            // 溢出字段以文档中的值为准 (同名生成列只用于过滤与排序)
+            dataMap.putAll(OverflowColumn.parse(overflow));
+        }
+        return DynamicDataResponse.builder()
+                .id(id)
+                .tenantId(tenantId)
+                .schemaName(schemaName)
+                .data(dataMap)
+                .createdBy(createdBy)
+                .deptId(deptId)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package top.itangbao.platform.data.query;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import top.itangbao.platform.common.exception.DataValidationException;
+import top.itangbao.platform.data.api.dto.FilterRequestDTO;
+import top.itangbao.platform.data.context.UserContext;
+import top.itangbao.platform.data.manager.DynamicTableManager;
+import top.itangbao.platform.data.plan.FieldPlan;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.QueryTemplateCache.SqlTemplateKey;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 动态查询的 WHERE 子句：收集条件 (租户隔离 + 数据权限 + 过滤参数) 并生成 SQL 文本
+ * 列表、导出、聚合共用，相同条件形状复用 QueryTemplateCache 中的 SQL 文本
+ */
+@Component
+public class WhereClauseBuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(WhereClauseBuilder.class);
+
+    public static final String BASE_WHERE_CLAUSE = " WHERE tenant_id = ? ";
+
+    private final QueryTemplateCache queryTemplateCache;
+
+    public WhereClauseBuilder(QueryTemplateCache queryTemplateCache) {
+        this.queryTemplateCache = queryTemplateCache;
+    }
+
+    /**
+     * 收集 WHERE 条件：租户隔离 + 数据权限 + 过滤条件
+     * 依赖 UserContext，必须在请求线程上调用
+     * @param queryParams 输出参数，按占位符顺序追加 (第一个为租户ID)
+     * @return 条件形状，用于生成并缓存 SQL 文本
+     */
+    public List<FilterCondition> collectConditions(String tenantId, String tableName, List<String> columnNames, SchemaPlan plan,
+                                                   FilterRequestDTO filterRequest, List<Object> queryParams) {
+        queryParams.add(tenantId);
+        List<FilterCondition> conditions = new ArrayList<>();
+
+        applyDataPermissionFilter(conditions, queryParams);
+
+        if (filterRequest != null && filterRequest.getFilters() != null && !filterRequest.getFilters().isEmpty()) {
+            // 按键排序，同一组过滤条件生成相同的 SQL 文本与结果缓存键
+            for (Map.Entry<String, String> entry : new TreeMap<>(filterRequest.getFilters()).entrySet()) {
+                String filterKeyWithOperator = entry.getKey();
+                String filterValue = entry.getValue();
+
+                String[] parts = filterKeyWithOperator.split("\\.");
+                String fieldName = parts[0];
+
+                // 只存于 ext_data 的溢出字段按 JSON 路径取值比较 (无索引，应与其他条件组合使用)
+                String expression = null;
+                if (isJsonOnlyField(plan, columnNames, fieldName)) {
+                    expression = OverflowColumn.valueExpression(plan.getField(fieldName).getField());
+                } else if (!columnNames.contains(fieldName) || OverflowColumn.NAME.equals(fieldName)) {
+                    logger.warn("检测到非法字段访问: {} (table '{}')", fieldName, tableName);
+                    continue;
+                }
+
+                String operator = parts.length > 1 ? parts[1].toLowerCase() : "eq";
+
+                FilterCondition condition;
+                switch (operator) {
+                    case "eq", "ne", "gt", "lt", "ge", "le":
+                        condition = FilterCondition.of(fieldName, operator);
+                        queryParams.add(filterValue);
+                        break;
+                    case "like":
+                        condition = FilterCondition.of(fieldName, operator);
+                        queryParams.add("%" + filterValue + "%");
+                        break;
+                    case "in":
+                        String[] inValues = filterValue.split(",");
+                        condition = new FilterCondition(fieldName, operator, inValues.length);
+                        Collections.addAll(queryParams, inValues);
+                        break;
+                    case "match":
+                        FieldPlan fieldPlan = plan.getField(fieldName);
+                        if (fieldPlan == null || !Boolean.TRUE.equals(fieldPlan.getField().getSearchable())
+                                || !DynamicTableManager.isSearchable(fieldPlan.getField()) || fieldPlan.isOverflow()) {
+                            throw new DataValidationException("全文检索参数非法",
+                                    Map.of(fieldName, "字段未开启全文检索 (searchable)，请使用 like"));
+                        }
+                        condition = FilterCondition.of(fieldName, operator);
+                        queryParams.add(toPhraseQuery(filterValue));
+                        break;
+                    default:
+                        logger.warn("Unsupported filter operator '{}' for field '{}'. Skipping.", operator, fieldName);
+                        condition = FilterCondition.of(fieldName, "eq");
+                        queryParams.add(filterValue);
+                        break;
+                }
+                conditions.add(expression == null ? condition : condition.on(expression));
+            }
+        }
+        return conditions;
+    }
+
+    /**
+     * 由条件形状生成 WHERE 子句，相同形状复用缓存的 SQL 文本
+     */
+    public String buildWhereClause(String tableName, long schemaVersion, List<String> columnNames, List<FilterCondition> conditions) {
+        return queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, schemaVersion, columnNames, "where", conditions, null),
+                () -> render(conditions));
+    }
+
+    /**
+     * 不经过缓存直接拼接 WHERE 子句
+     */
+    public static String render(List<FilterCondition> conditions) {
+        StringBuilder whereClause = new StringBuilder(BASE_WHERE_CLAUSE);
+        for (FilterCondition condition : conditions) {
+            condition.appendTo(whereClause);
+        }
+        return whereClause.toString();
+    }
+
+    /**
+     * 追加当前用户的数据权限条件 (部门范围或仅本人)，管理员与 ALL 权限不追加
+     */
+    public void applyDataPermissionFilter(List<FilterCondition> conditions, List<Object> params) {
+        Set<String> scopes = UserContext.getDataScopes();
+        String username = UserContext.getUsername();
+
+        // 1. 如果是超级管理员，或者拥有 "ALL" 权限，直接放行 (什么都不加 = 看全部)
+        if (scopes.contains("ALL") || "admin".equals(username)) { // 简单判断 admin
+            return;
+        }
+
+        // 2. 追加权限条件
+        Set<Long> accessibleDeptIds = UserContext.getAccessibleDeptIds();
+
+        if (scopes.contains("DEPT_AND_CHILD") || scopes.contains("DEPT")) {
+            if (!accessibleDeptIds.isEmpty()) {
+                // dept_id IN (?, ?, ?)
+                conditions.add(new FilterCondition("dept_id", "in", accessibleDeptIds.size()));
+                params.addAll(accessibleDeptIds);
+            }
+        } else if (username != null) {
+            conditions.add(FilterCondition.of("created_by", "eq"));
+            params.add(username);
+        }
+    }
+
+    /**
+     * 表上没有对应列、只存于 ext_data 的溢出字段
+     */
+    public static boolean isJsonOnlyField(SchemaPlan plan, List<String> columnNames, String fieldName) {
+        FieldPlan field = plan.getField(fieldName);
+        return field != null && field.isOverflow() && !columnNames.contains(fieldName);
+    }
+
+    /**
+     * 将用户输入转为布尔模式下的短语查询：去掉引号等运算符，整体作为一个短语匹配
+     * ngram 分词下短语匹配要求各 n-gram 连续出现，效果接近 like '%value%'
+     */
+    private static String toPhraseQuery(String value) {
+        return "\"" + value.replace("\"", " ").trim() + "\"";
+    }
+}
@@ -2,6 +2,7 @@ package top.itangbao.platform.data.service;
 
 
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import top.itangbao.platform.data.api.dto.*;
 
 import java.io.IOException;
@@ -21,6 +22,13 @@ public interface DynamicDataService {
      */
     void deleteDynamicTable(Long schemaId);
 
+    /**
+     * 失效本地缓存的元数据模式 (元数据变更后调用，下次访问时重新拉取)
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     */
+    void evictSchemaCache(String tenantId, String schemaName);
+
     /**
      * 插入动态数据
      * @param request 动态数据请求
@@ -33,9 +41,10 @@ public interface DynamicDataService {
      * @param tenantId 租户ID
      * @param schemaName 模式名称
      * @param id 数据ID
+     * @param fields 投影字段，逗号分隔；为 null 时返回全部字段
      * @return 动态数据响应
      */
-    DynamicDataResponse getDynamicDataById(String tenantId, String schemaName, Long id);
+    DynamicDataResponse getDynamicDataById(String tenantId, String schemaName, Long id, String fields);
 
     /**
      * 查询所有动态数据 (分页和过滤)
@@ -47,6 +56,16 @@ public interface DynamicDataService {
      */
     PageResponseDTO<DynamicDataResponse> getAllDynamicData(String tenantId, String schemaName, PageRequestDTO pageRequest, FilterRequestDTO filterRequest);
 
+    /**
+     * 增量变更：返回水位之后新增/更新的记录与删除的记录 ID
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     * @param since 上次响应的 nextToken；为空时从头返回全部记录 (首次同步)
+     * @param limit 记录与删除各自最多返回的条数
+     * @return 变更页与下一个水位令牌
+     */
+    DataChangesResponse getChanges(String tenantId, String schemaName, String since, int limit);
+
     /**
      * 更新动态数据
      * @param tenantId 租户ID
@@ -76,14 +95,53 @@ public interface DynamicDataService {
     DataImportResponse importData(String tenantId, String schemaName, MultipartFile file) throws IOException;
 
     /**
-     * 导出数据 (支持 CSV)
+     * 导出数据 (支持 CSV、NDJSON)
      * @param tenantId 租户ID
      * @param schemaName 模式名称
      * @param filterRequest 过滤请求参数
-     * @param format 导出格式 (csv, excel)
-     * @return 导出文件的字节数组
-     * @throws IOException
+     * @param format 导出格式 (csv, ndjson, excel)
+     * @param gzip 是否 gzip 压缩
+     * @param parallelism 按 id 区间切分的分片数，1 为单游标顺序导出
+     * @param zip 每个分片作为 zip 中的一个文件，否则按顺序拼接为一个文件
+     * @return 流式响应体，行数据在写出响应时逐行读取
+     */
+    StreamingResponseBody exportData(String tenantId, String schemaName, FilterRequestDTO filterRequest, String format,
+                                     boolean gzip, int parallelism, boolean zip);
+
+    /**
+     * 批量插入数据 (单个事务，按列组合执行 JDBC batch)
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     * @param items 待插入的记录
+     * @return 每项的处理结果，插入成功的项包含生成的ID
+     */
+    BatchOperationResponse batchInsertDynamicData(String tenantId, String schemaName, List<Map<String, Object>> items);
+
+    /**
+     * 批量部分更新数据
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     * @param items 每项包含记录ID和需要修改的字段
+     * @return 每项的处理结果
+     */
+    BatchOperationResponse batchUpdateDynamicData(String tenantId, String schemaName, List<BatchUpdateItem> items);
+
+    /**
+     * 批量删除数据
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     * @param ids 待删除的记录ID
+     * @return 每项的处理结果
+     */
+    BatchOperationResponse batchDeleteDynamicData(String tenantId, String schemaName, List<Long> ids);
+
+    /**
+     * 聚合统计 (分组 + count/sum/avg/min/max，可按时间分桶)
+     * @param tenantId 租户ID
+     * @param schemaName 模式名称
+     * @param request 分组字段、指标与过滤条件
+     * @return 每个分组一行的统计结果
      */
-    byte[] exportData(String tenantId, String schemaName, FilterRequestDTO filterRequest, String format) throws IOException;
+    AggregateResponse aggregateDynamicData(String tenantId, String schemaName, AggregateRequest request);
 
 }
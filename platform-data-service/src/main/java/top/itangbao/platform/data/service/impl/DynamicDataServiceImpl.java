@@ -1,39 +1,60 @@
 package top.itangbao.platform.data.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import top.itangbao.platform.common.enums.FieldType;
 import top.itangbao.platform.common.exception.DataValidationException;
 import top.itangbao.platform.common.exception.ResourceNotFoundException;
 import top.itangbao.platform.data.api.dto.*;
 import top.itangbao.platform.data.client.MetadataServiceClient;
+import top.itangbao.platform.data.context.ReadRoutingContext;
+import top.itangbao.platform.data.context.ShardContext;
 import top.itangbao.platform.data.context.UserContext;
+import top.itangbao.platform.data.io.CsvImportPipeline;
+import top.itangbao.platform.data.io.ExportFormat;
+import top.itangbao.platform.data.io.ParallelExporter;
+import top.itangbao.platform.data.io.ParallelExporter.ParallelExportJob;
+import top.itangbao.platform.data.io.StreamingExporter;
+import top.itangbao.platform.data.manager.CachedSchema;
+import top.itangbao.platform.data.manager.ChangeFeedTombstones;
+import top.itangbao.platform.data.manager.ChangeFeedTombstones.Tombstone;
+import top.itangbao.platform.data.manager.DataChangeOutbox;
+import top.itangbao.platform.data.manager.DynamicDmlExecutor;
 import top.itangbao.platform.data.manager.DynamicTableManager;
+import top.itangbao.platform.data.manager.QueryResultCache;
+import top.itangbao.platform.data.manager.RecordCache;
+import top.itangbao.platform.data.manager.RowCountEstimator;
+import top.itangbao.platform.data.manager.SchemaCacheManager;
+import top.itangbao.platform.data.plan.FieldPlan;
+import top.itangbao.platform.data.plan.SchemaPlan;
+import top.itangbao.platform.data.query.ChangeFeedToken;
+import top.itangbao.platform.data.query.FilterCondition;
+import top.itangbao.platform.data.query.KeysetCursor;
+import top.itangbao.platform.data.query.OverflowColumn;
+import top.itangbao.platform.data.query.QueryTemplateCache;
+import top.itangbao.platform.data.query.QueryTemplateCache.SqlTemplateKey;
+import top.itangbao.platform.data.query.RowLayout;
+import top.itangbao.platform.data.query.WhereClauseBuilder;
 import top.itangbao.platform.data.service.DynamicDataService;
 import top.itangbao.platform.iam.api.client.IamFeignClient;
 import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
-import top.itangbao.platform.common.enums.FieldType;
 
 import java.io.*;
-import java.math.BigInteger; // 用于处理插入后返回的ID
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,9 +62,47 @@ public class DynamicDataServiceImpl implements DynamicDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicDataServiceImpl.class);
 
+    private static final List<String> SYSTEM_INSERT_COLUMNS = List.of("tenant_id", "created_at", "updated_at", "created_by", "dept_id");
+
+    // 投影时始终返回的系统列 (映射到 DynamicDataResponse 的顶层属性)
+    private static final Set<String> PROJECTION_SYSTEM_COLUMNS = Set.of("id", "created_at", "updated_at", "created_by", "dept_id");
+
+
+    // 列表总数统计模式
+    private static final String COUNT_EXACT = "exact";
+    private static final String COUNT_ESTIMATE = "estimate";
+    private static final String COUNT_NONE = "none";
+
+    // 聚合结果中时间桶的列名，指标别名的合法格式
+    private static final String AGGREGATE_BUCKET_COLUMN = "bucket";
+    private static final Pattern AGGREGATE_ALIAS_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+
     private final DynamicTableManager dynamicTableManager;
     private final MetadataServiceClient metadataServiceClient;
-    private final ObjectMapper objectMapper;
+    private final SchemaCacheManager schemaCacheManager;
+    private final CsvImportPipeline csvImportPipeline;
+    private final StreamingExporter streamingExporter;
+    private final ParallelExporter parallelExporter;
+    private final RowCountEstimator rowCountEstimator;
+    private final DynamicDmlExecutor dmlExecutor;
+    private final QueryTemplateCache queryTemplateCache;
+    private final WhereClauseBuilder whereClauseBuilder;
+    private final RecordCache recordCache;
+    private final QueryResultCache queryResultCache;
+    private final DataChangeOutbox dataChangeOutbox;
+    private final ChangeFeedTombstones changeFeedTombstones;
+
+    @Value("${data.batch.max-items:1000}")
+    private int batchMaxItems;
+
+    @Value("${data.aggregate.max-groups:1000}")
+    private int aggregateMaxGroups;
+
+    @Value("${data.changes.max-page-size:1000}")
+    private int changesMaxPageSize;
+
+    @Value("${data.changes.settle-seconds:5}")
+    private long changesSettleSeconds;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -51,10 +110,32 @@ public class DynamicDataServiceImpl implements DynamicDataService {
     @Autowired
     public DynamicDataServiceImpl(DynamicTableManager dynamicTableManager,
                                   MetadataServiceClient metadataServiceClient,
-                                  ObjectMapper objectMapper) {
+                                  SchemaCacheManager schemaCacheManager,
+                                  CsvImportPipeline csvImportPipeline,
+                                  StreamingExporter streamingExporter,
+                                  ParallelExporter parallelExporter,
+                                  RowCountEstimator rowCountEstimator,
+                                  DynamicDmlExecutor dmlExecutor,
+                                  QueryTemplateCache queryTemplateCache,
+                                  WhereClauseBuilder whereClauseBuilder,
+                                  RecordCache recordCache,
+                                  QueryResultCache queryResultCache,
+                                  DataChangeOutbox dataChangeOutbox,
+                                  ChangeFeedTombstones changeFeedTombstones) {
         this.dynamicTableManager = dynamicTableManager;
         this.metadataServiceClient = metadataServiceClient;
-        this.objectMapper = objectMapper;
+        this.schemaCacheManager = schemaCacheManager;
+        this.csvImportPipeline = csvImportPipeline;
+        this.streamingExporter = streamingExporter;
+        this.parallelExporter = parallelExporter;
+        this.rowCountEstimator = rowCountEstimator;
+        this.dmlExecutor = dmlExecutor;
+        this.queryTemplateCache = queryTemplateCache;
+        this.whereClauseBuilder = whereClauseBuilder;
+        this.recordCache = recordCache;
+        this.queryResultCache = queryResultCache;
+        this.dataChangeOutbox = dataChangeOutbox;
+        this.changeFeedTombstones = changeFeedTombstones;
     }
 
     @Override
@@ -64,6 +145,7 @@ public class DynamicDataServiceImpl implements DynamicDataService {
                 .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with ID: " + schemaId));
         dynamicTableManager.createTable(schemaDTO);
         dynamicTableManager.updateTable(schemaDTO); // 尝试更新表结构
+        schemaCacheManager.put(schemaDTO); // 表结构同步意味着元数据已变更，刷新本地缓存
     }
 
     @Override
@@ -72,100 +154,90 @@ public class DynamicDataServiceImpl implements DynamicDataService {
                 .blockOptional()
                 .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with ID: " + schemaId));
         dynamicTableManager.dropTable(schemaDTO.getTenantId(), schemaDTO.getName());
+        schemaCacheManager.evict(schemaDTO.getTenantId(), schemaDTO.getName());
+        queryResultCache.invalidate(schemaDTO); // 同名模式重建后版本号可能重复，旧结果不能再命中
+    }
+
+    @Override
+    public void evictSchemaCache(String tenantId, String schemaName) {
+        schemaCacheManager.evict(tenantId, schemaName);
     }
 
     @Override
     @Transactional
     public DynamicDataResponse insertDynamicData(DynamicDataRequest request) {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(request.getSchemaName(), request.getTenantId())
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with name '" + request.getSchemaName() + "' for tenant '" + request.getTenantId() + "'"));
+        ShardContext.bind(request.getTenantId()); // 在第一条 SQL 之前绑定租户，分片路由据此选择连接池
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(request.getTenantId(), request.getSchemaName()).getPlan();
 
-        validateDynamicData(request.getData(), schemaDTO);
+        plan.validateOrThrow(request.getData());
 
-        String tableName = dynamicTableManager.buildTableName(request.getTenantId(), request.getSchemaName());
-
-        StringBuilder insertSql = new StringBuilder("INSERT INTO `").append(tableName).append("` (");
-        StringBuilder valuesSql = new StringBuilder("VALUES (");
+        String tableName = dynamicTableManager.buildWritableTableName(request.getTenantId(), request.getSchemaName());
+        invalidateResults(request.getTenantId(), request.getSchemaName());
 
         Map<String, Object> data = request.getData();
-        List<String> columnNames = new ArrayList<>();
-        List<Object> columnValues = new ArrayList<>();
-
-        columnNames.add("tenant_id");
-        columnValues.add(request.getTenantId());
-
-        columnNames.add("created_at");
-        columnValues.add(LocalDateTime.now());
-        columnNames.add("updated_at");
-        columnValues.add(LocalDateTime.now());
-
+        LocalDateTime now = LocalDateTime.now();
         String currentUser = UserContext.getUsername();
         Long currentDept = UserContext.getDeptId();
+        String createdBy = currentUser != null ? currentUser : "system";
+        Long deptId = currentDept != null ? currentDept : 0L;
 
-        columnNames.add("created_by");
-        columnValues.add(currentUser != null ? currentUser : "system");
-
-        columnNames.add("dept_id");
-        columnValues.add(currentDept != null ? currentDept : 0L);
-
-
-        for (MetadataFieldDTO field : schemaDTO.getFields()) {
-            if (data.containsKey(field.getFieldName())) {
-                columnNames.add(field.getFieldName());
-                columnValues.add(convertValueToFieldType(data.get(field.getFieldName()), field.getFieldType()));
+        List<String> fieldNames = new ArrayList<>();
+        for (FieldPlan field : plan.getFields()) {
+            if (data.containsKey(field.getName())) {
+                fieldNames.add(field.getName());
             }
         }
-
-        insertSql.append(columnNames.stream().map(col -> "`" + col + "`").collect(Collectors.joining(", ")));
-        valuesSql.append(columnNames.stream().map(col -> "?").collect(Collectors.joining(", ")));
-
-        insertSql.append(") ").append(valuesSql).append(")");
-
-        logger.debug("Executing INSERT SQL: {}", insertSql);
-
-        Query query = entityManager.createNativeQuery(insertSql.toString());
-        for (int i = 0; i < columnValues.size(); i++) {
-            query.setParameter(i + 1, columnValues.get(i));
-        }
-
-        query.executeUpdate();
-
-        Object lastInsertIdResult = entityManager.createNativeQuery("SELECT LAST_INSERT_ID()").getSingleResult();
-        Long id;
-        if (lastInsertIdResult instanceof BigInteger) {
-            id = ((BigInteger) lastInsertIdResult).longValue();
-        } else if (lastInsertIdResult instanceof Long) {
-            id = (Long) lastInsertIdResult;
-        } else if (lastInsertIdResult instanceof Integer) {
-            id = ((Integer) lastInsertIdResult).longValue();
-        } else {
-            throw new IllegalStateException("Unexpected type for LAST_INSERT_ID(): " + lastInsertIdResult.getClass().getName());
+        List<String> columnNames = new ArrayList<>(SYSTEM_INSERT_COLUMNS);
+        columnNames.addAll(writeColumns(plan, fieldNames));
+        Object[] columnValues = {request.getTenantId(), now, now, createdBy, deptId};
+        columnValues = Arrays.copyOf(columnValues, columnNames.size());
+        Map<String, Object> after = fillFieldValues(plan, fieldNames, data, columnValues, SYSTEM_INSERT_COLUMNS.size(), false);
+
+        // 相同列组合复用同一 SQL 文本，驱动端的预编译语句缓存才能命中
+        String insertSql = queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, plan.getVersion(), columnNames, "insert", List.of(), null),
+                () -> dmlExecutor.buildInsertSql(tableName, columnNames));
+        long id = dmlExecutor.insertReturningKey(insertSql, columnValues);
+        if (dataChangeOutbox.isEnabled()) {
+            dataChangeOutbox.recordInsert(request.getTenantId(), request.getSchemaName(), id, after);
         }
 
-
         return DynamicDataResponse.builder()
                 .id(id)
                 .tenantId(request.getTenantId())
                 .schemaName(request.getSchemaName())
                 .data(data)
-                .createdBy(currentUser)
-                .deptId(currentDept)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdBy(createdBy)
+                .deptId(deptId)
+                .createdAt(now)
+                .updatedAt(now)
                 .build();
     }
 
     @Override
-    public DynamicDataResponse getDynamicDataById(String tenantId, String schemaName, Long id) {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(schemaName, tenantId)
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found"));
+    @Transactional(readOnly = true)
+    public DynamicDataResponse getDynamicDataById(String tenantId, String schemaName, Long id, String fields) {
+        ShardContext.bind(tenantId);
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
+
+        // 按 ID 读取不附加数据权限条件，同租户内可共享缓存；投影读取不走缓存
+        if (fields == null || fields.isBlank()) {
+            return recordCache.get(tenantId, schemaName, id, plan.getVersion(),
+                    () -> loadDynamicDataById(tenantId, schemaName, id, plan, null));
+        }
+        return loadDynamicDataById(tenantId, schemaName, id, plan, fields);
+    }
 
+    private DynamicDataResponse loadDynamicDataById(String tenantId, String schemaName, Long id, SchemaPlan plan, String fields) {
+        long schemaVersion = plan.getVersion();
         String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
-        List<String> columnNames = dynamicTableManager.getColumnNames(tableName);
+        List<String> columnNames = dynamicTableManager.getColumnNames(tableName, plan);
+        List<String> selectColumns = resolveProjection(columnNames, plan, fields);
+        RowLayout layout = queryTemplateCache.getLayout(selectColumns);
 
-        String selectSql = "SELECT * FROM `" + tableName + "` WHERE id = ?1 AND tenant_id = ?2";
+        String selectSql = queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, schemaVersion, selectColumns, "by-id", List.of(), null),
+                () -> "SELECT " + layout.getSelectList() + " FROM `" + tableName + "` WHERE id = ?1 AND tenant_id = ?2");
         List<Object[]> resultList = entityManager.createNativeQuery(selectSql)
                 .setParameter(1, id)
                 .setParameter(2, tenantId)
@@ -175,97 +247,58 @@ public class DynamicDataServiceImpl implements DynamicDataService {
             throw new ResourceNotFoundException("Dynamic data not found with ID: " + id);
         }
 
-        return mapRowToResponse(resultList.get(0), columnNames, tenantId, schemaName);
+        return layout.map(resultList.get(0), tenantId, schemaName);
     }
 
 
     @Override
+    @Transactional(readOnly = true)
     public PageResponseDTO<DynamicDataResponse> getAllDynamicData(String tenantId, String schemaName, PageRequestDTO pageRequest, FilterRequestDTO filterRequest) {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(schemaName, tenantId)
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with name '" + schemaName + "' for tenant '" + tenantId + "'"));
+        ShardContext.bind(tenantId);
+        CachedSchema cachedSchema = schemaCacheManager.getCachedSchema(tenantId, schemaName);
+        long schemaVersion = cachedSchema.getVersion();
 
         String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
-        List<String> columnNames = dynamicTableManager.getColumnNames(tableName);
+        List<String> columnNames = dynamicTableManager.getColumnNames(tableName, cachedSchema.getPlan());
 
-        StringBuilder whereClause = new StringBuilder(" WHERE tenant_id = ? ");
         List<Object> queryParams = new ArrayList<>();
-        queryParams.add(tenantId);
-
-        applyDataPermissionFilter(whereClause, queryParams);
-
-        if (filterRequest != null && filterRequest.getFilters() != null && !filterRequest.getFilters().isEmpty()) {
-            for (Map.Entry<String, String> entry : filterRequest.getFilters().entrySet()) {
-                String filterKeyWithOperator = entry.getKey();
-                String filterValue = entry.getValue();
-
-                String[] parts = filterKeyWithOperator.split("\\.");
-                String fieldName = parts[0];
-
-                if (!columnNames.contains(fieldName)) {
-                    logger.warn("检测到非法字段访问: {}", fieldName);
-                    continue;
-                }
-
-                String operator = parts.length > 1 ? parts[1].toLowerCase() : "eq";
-
-                if (!columnNames.contains(fieldName)) {
-                    logger.warn("Filter field '{}' does not exist in table '{}'. Skipping.", fieldName, tableName);
-                    continue;
-                }
+        List<FilterCondition> conditions = whereClauseBuilder.collectConditions(tenantId, tableName, columnNames, cachedSchema.getPlan(), filterRequest, queryParams);
+        String whereClause = whereClauseBuilder.buildWhereClause(tableName, schemaVersion, columnNames, conditions);
+
+        MetadataSchemaDTO schemaDTO = cachedSchema.getSchema();
+        if (queryResultCache.isEnabled(schemaDTO)) {
+            // 条件与参数已包含数据权限条件，权限范围不同的用户得到不同的键
+            ListQueryKey queryKey = ListQueryKey.of(conditions, queryParams, pageRequest);
+            return queryResultCache.get(schemaDTO, schemaVersion, queryKey, () -> queryDynamicData(tenantId, schemaName,
+                    cachedSchema, tableName, columnNames, pageRequest, conditions, new ArrayList<>(queryParams), whereClause));
+        }
+        return queryDynamicData(tenantId, schemaName, cachedSchema, tableName, columnNames, pageRequest, conditions,
+                queryParams, whereClause);
+    }
 
-                whereClause.append(" AND `").append(fieldName).append("` ");
-                switch (operator) {
-                    case "eq":
-                        whereClause.append("= ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "ne":
-                        whereClause.append("!= ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "gt":
-                        whereClause.append("> ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "lt":
-                        whereClause.append("< ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "ge":
-                        whereClause.append(">= ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "le":
-                        whereClause.append("<= ?");
-                        queryParams.add(filterValue);
-                        break;
-                    case "like":
-                        whereClause.append("LIKE ?");
-                        queryParams.add("%" + filterValue + "%");
-                        break;
-                    case "in":
-                        String[] inValues = filterValue.split(",");
-                        whereClause.append("IN (");
-                        for (int i = 0; i < inValues.length; i++) {
-                            whereClause.append("?");
-                            if (i < inValues.length - 1) {
-                                whereClause.append(",");
-                            }
-                            queryParams.add(inValues[i]);
-                        }
-                        whereClause.append(")");
-                        break;
-                    default:
-                        logger.warn("Unsupported filter operator '{}' for field '{}'. Skipping.", operator, fieldName);
-                        whereClause.append("= ?");
-                        queryParams.add(filterValue);
-                        break;
-                }
+    private PageResponseDTO<DynamicDataResponse> queryDynamicData(String tenantId, String schemaName, CachedSchema cachedSchema,
+                                                                 String tableName, List<String> columnNames, PageRequestDTO pageRequest,
+                                                                 List<FilterCondition> conditions, List<Object> queryParams,
+                                                                 String whereClause) {
+        long schemaVersion = cachedSchema.getVersion();
+        String fields = pageRequest != null ? pageRequest.getFields() : null;
+        if (pageRequest != null && pageRequest.getCursor() != null) {
+            // 游标需要读取排序列的值，投影中缺少时补上
+            String sortBy = pageRequest.getSortBy();
+            if (fields != null && !fields.isBlank() && sortBy != null && !sortBy.isEmpty()) {
+                fields = fields + "," + sortBy;
             }
+            RowLayout layout = queryTemplateCache.getLayout(resolveProjection(columnNames, cachedSchema.getPlan(), fields));
+            return getDynamicDataByCursor(tenantId, schemaName, tableName, columnNames, layout, pageRequest, whereClause, queryParams);
         }
+        List<String> selectColumns = resolveProjection(columnNames, cachedSchema.getPlan(), fields);
+        RowLayout layout = queryTemplateCache.getLayout(selectColumns);
 
         StringBuilder orderByClause = new StringBuilder();
+        List<Object> orderByParams = new ArrayList<>();
+        FilterCondition matchCondition = conditions.stream()
+                .filter(condition -> "match".equals(condition.operator()))
+                .findFirst().orElse(null);
         if (pageRequest != null && pageRequest.getSortBy() != null && !pageRequest.getSortBy().isEmpty()) {
             if (columnNames.contains(pageRequest.getSortBy())) {
                 orderByClause.append(" ORDER BY `").append(pageRequest.getSortBy()).append("` ");
@@ -277,43 +310,73 @@ public class DynamicDataServiceImpl implements DynamicDataService {
             } else {
                 throw new IllegalArgumentException("排序字段非法");
             }
+        } else if (matchCondition != null) {
+            // 全文检索未指定排序时按相关度降序
+            orderByClause.append(" ORDER BY ").append(matchCondition.matchExpression()).append(" DESC, `id` ASC");
+            orderByParams.add(queryParams.get(indexOfParam(conditions, matchCondition)));
         } else {
             orderByClause.append(" ORDER BY `id` ASC");
         }
 
-        String countSql = "SELECT COUNT(*) FROM `" + tableName + "`" + whereClause.toString();
-        Query countQuery = entityManager.createNativeQuery(countSql);
-        for (int i = 0; i < queryParams.size(); i++) {
-            countQuery.setParameter(i + 1, queryParams.get(i));
+        String countMode = pageRequest != null && pageRequest.getCount() != null
+                ? pageRequest.getCount().toLowerCase() : COUNT_EXACT;
+        if (!COUNT_EXACT.equals(countMode) && !COUNT_ESTIMATE.equals(countMode) && !COUNT_NONE.equals(countMode)) {
+            throw new IllegalArgumentException("count 参数非法，可选值: exact, estimate, none");
         }
-        long totalElements = ((Number) countQuery.getSingleResult()).longValue();
 
-        StringBuilder selectSql = new StringBuilder("SELECT * FROM `" + tableName + "`")
-                .append(whereClause)
-                .append(orderByClause);
-
-        if (pageRequest != null) {
-            selectSql.append(" LIMIT ? OFFSET ?");
-        }
+        String selectSql = queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, schemaVersion, selectColumns, pageRequest != null ? "list-page" : "list",
+                        conditions, orderByClause.toString()),
+                () -> "SELECT " + layout.getSelectList() + " FROM `" + tableName + "`" + whereClause + orderByClause
+                        + (pageRequest != null ? " LIMIT ? OFFSET ?" : ""));
 
-        Query dataQuery = entityManager.createNativeQuery(selectSql.toString());
+        Query dataQuery = entityManager.createNativeQuery(selectSql);
         int paramIndex = 1;
         for (Object param : queryParams) {
             dataQuery.setParameter(paramIndex++, param);
         }
+        for (Object param : orderByParams) {
+            dataQuery.setParameter(paramIndex++, param);
+        }
 
+        long offset = 0;
         if (pageRequest != null) {
-            dataQuery.setParameter(paramIndex++, pageRequest.getSize());
-            dataQuery.setParameter(paramIndex++, (long) pageRequest.getPage() * pageRequest.getSize());
+            offset = (long) pageRequest.getPage() * pageRequest.getSize();
+            // 多取一行探测是否还有下一页，不依赖总数
+            dataQuery.setParameter(paramIndex++, (long) pageRequest.getSize() + 1);
+            dataQuery.setParameter(paramIndex++, offset);
         }
 
         List<Object[]> resultList = dataQuery.getResultList();
+        boolean hasMore = pageRequest != null && resultList.size() > pageRequest.getSize();
+        if (hasMore) {
+            resultList = resultList.subList(0, pageRequest.getSize());
+        }
 
-        List<DynamicDataResponse> content = resultList.stream()
-                .map(row -> mapRowToResponse(row, columnNames, tenantId, schemaName))
-                .collect(Collectors.toList());
+        List<DynamicDataResponse> content = new ArrayList<>(resultList.size());
+        for (Object[] row : resultList) {
+            content.add(layout.map(row, tenantId, schemaName));
+        }
 
-        int totalPages = (int) Math.ceil((double) totalElements / (pageRequest != null ? pageRequest.getSize() : 1));
+        long totalElements;
+        if (!hasMore && (!content.isEmpty() || offset == 0)) {
+            // 已到末页，总数可直接得出
+            totalElements = offset + content.size();
+        } else if (COUNT_NONE.equals(countMode)) {
+            totalElements = -1;
+        } else if (COUNT_ESTIMATE.equals(countMode)) {
+            long estimated = rowCountEstimator.estimate(tableName, whereClause, queryParams,
+                    // 共享表的统计信息包含其他租户的行，只能精确计数
+                    WhereClauseBuilder.BASE_WHERE_CLAUSE.equals(whereClause) && !dynamicTableManager.isSharedTable(tableName),
+                    () -> countRows(tableName, whereClause, queryParams));
+            // 统计信息可能偏小，至少要覆盖已经看到的行
+            totalElements = Math.max(estimated, offset + content.size() + 1);
+        } else {
+            totalElements = countRows(tableName, whereClause, queryParams);
+        }
+
+        int totalPages = totalElements < 0 ? -1
+                : (int) Math.ceil((double) totalElements / (pageRequest != null ? pageRequest.getSize() : 1));
 
         return PageResponseDTO.<DynamicDataResponse>builder()
                 .content(content)
@@ -322,416 +385,978 @@ public class DynamicDataServiceImpl implements DynamicDataService {
                 .totalElements(totalElements)
                 .totalPages(totalPages)
                 .first(pageRequest != null && pageRequest.getPage() == 0)
-                .last(pageRequest != null && pageRequest.getPage() == totalPages - 1)
+                .last(!hasMore)
+                .build();
+    }
+
+    private long countRows(String tableName, String whereClause, List<Object> queryParams) {
+        String countSql = "SELECT COUNT(*) FROM `" + tableName + "`" + whereClause;
+        Query countQuery = entityManager.createNativeQuery(countSql);
+        for (int i = 0; i < queryParams.size(); i++) {
+            countQuery.setParameter(i + 1, queryParams.get(i));
+        }
+        return ((Number) countQuery.getSingleResult()).longValue();
+    }
+
+    /**
+     * Keyset 分页：按 (排序列, id) 定位，代价与页深无关
+     * 多取一行判断是否还有后续数据；不执行 COUNT，totalElements/totalPages 返回 -1
+     */
+    private PageResponseDTO<DynamicDataResponse> getDynamicDataByCursor(String tenantId, String schemaName, String tableName,
+                                                                       List<String> columnNames, RowLayout layout, PageRequestDTO pageRequest,
+                                                                       String whereClause, List<Object> queryParams) {
+        String sortBy = pageRequest.getSortBy() == null || pageRequest.getSortBy().isEmpty() ? "id" : pageRequest.getSortBy();
+        if (!columnNames.contains(sortBy)) {
+            throw new IllegalArgumentException("排序字段非法");
+        }
+        boolean descending = "desc".equalsIgnoreCase(pageRequest.getSortOrder());
+
+        KeysetCursor cursor = null;
+        if (!pageRequest.getCursor().isEmpty()) {
+            cursor = KeysetCursor.decode(pageRequest.getCursor());
+            cursor.checkMatches(sortBy, descending);
+        }
+        boolean backward = cursor != null && cursor.isBackward();
+        boolean scanDescending = cursor != null ? cursor.scansDescending() : descending;
+
+        StringBuilder selectSql = new StringBuilder("SELECT ").append(layout.getSelectList())
+                .append(" FROM `").append(tableName).append("`").append(whereClause);
+        if (cursor != null) {
+            selectSql.append(" AND ").append(cursor.toPredicate(queryParams));
+        }
+        String direction = scanDescending ? "DESC" : "ASC";
+        selectSql.append(" ORDER BY ");
+        if (!"id".equals(sortBy)) {
+            selectSql.append("`").append(sortBy).append("` ").append(direction).append(", ");
+        }
+        selectSql.append("`id` ").append(direction).append(" LIMIT ?");
+
+        Query dataQuery = entityManager.createNativeQuery(selectSql.toString());
+        int paramIndex = 1;
+        for (Object param : queryParams) {
+            dataQuery.setParameter(paramIndex++, param);
+        }
+        dataQuery.setParameter(paramIndex, pageRequest.getSize() + 1);
+
+        List<Object[]> resultList = new ArrayList<>(dataQuery.getResultList());
+        boolean hasMore = resultList.size() > pageRequest.getSize();
+        if (hasMore) {
+            resultList.remove(resultList.size() - 1);
+        }
+        if (backward) {
+            Collections.reverse(resultList);
+        }
+
+        // 正向翻页：还有后续数据才有下一页，带游标进入说明存在上一页；反向翻页反之
+        boolean hasNext = backward || hasMore;
+        boolean hasPrev = backward ? hasMore : cursor != null;
+
+        int sortIndex = layout.indexOf(sortBy);
+        int idIndex = layout.indexOf("id");
+        String nextCursor = null;
+        String prevCursor = null;
+        if (!resultList.isEmpty()) {
+            Object[] lastRow = resultList.get(resultList.size() - 1);
+            Object[] firstRow = resultList.get(0);
+            if (hasNext) {
+                nextCursor = KeysetCursor.of(sortBy, descending, false,
+                        ((Number) lastRow[idIndex]).longValue(), lastRow[sortIndex]).encode();
+            }
+            if (hasPrev) {
+                prevCursor = KeysetCursor.of(sortBy, descending, true,
+                        ((Number) firstRow[idIndex]).longValue(), firstRow[sortIndex]).encode();
+            }
+        }
+
+        List<DynamicDataResponse> content = new ArrayList<>(resultList.size());
+        for (Object[] row : resultList) {
+            content.add(layout.map(row, tenantId, schemaName));
+        }
+
+        return PageResponseDTO.<DynamicDataResponse>builder()
+                .content(content)
+                .page(0)
+                .size(pageRequest.getSize())
+                .totalElements(-1)
+                .totalPages(-1)
+                .first(!hasPrev)
+                .last(!hasNext)
+                .nextCursor(nextCursor)
+                .prevCursor(prevCursor)
                 .build();
     }
 
+    /**
+     * 增量变更：按 (updated_at, id) 水位扫描记录，按 (deleted_at, record_id) 水位扫描删除记录
+     * - 只返回 settle-seconds 之前的变更：updated_at 为秒级精度且在提交前取值，边界之后可能还有未提交或同一秒内的写入
+     * - 某一类变更已取完时其水位推进到边界，空闲的客户端令牌也不会过期
+     * - 数据权限与列表查询相同；删除记录按删除前的 created_by/dept_id 过滤
+     * 必须读主库：副本延迟会让水位越过尚未复制的变更；使用只读事务并显式声明读主库，轮询不会让用户被当作最近写入者
+     */
     @Override
-    @Transactional
-    public DynamicDataResponse updateDynamicData(String tenantId, String schemaName, Long id, Map<String, Object> updates) {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(schemaName, tenantId)
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with name '" + schemaName + "' for tenant '" + tenantId + "'"));
+    @Transactional(readOnly = true)
+    public DataChangesResponse getChanges(String tenantId, String schemaName, String since, int limit) {
+        // 连接在第一条语句执行时才按路由取得，此时已声明读主库
+        ReadRoutingContext.enterPrimaryRead();
+        try {
+            return readChanges(tenantId, schemaName, since, limit);
+        } finally {
+            ReadRoutingContext.exitPrimaryRead();
+        }
+    }
 
-        validateDynamicData(updates, schemaDTO); // 使用 updates 进行校验
+    private DataChangesResponse readChanges(String tenantId, String schemaName, String since, int limit) {
+        ShardContext.bind(tenantId);
+        if (!changeFeedTombstones.isEnabled()) {
+            throw new DataValidationException("未启用增量变更接口 (data.changes.enabled)");
+        }
+        if (limit < 1 || limit > changesMaxPageSize) {
+            throw new DataValidationException("limit 取值范围为 1-" + changesMaxPageSize);
+        }
+        CachedSchema cachedSchema = schemaCacheManager.getCachedSchema(tenantId, schemaName);
+        long schemaVersion = cachedSchema.getVersion();
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime boundary = now.minusSeconds(changesSettleSeconds);
+        ChangeFeedToken token = since == null || since.isBlank() ? ChangeFeedToken.initial(boundary) : ChangeFeedToken.decode(since);
+        if (token.deleteTime().isBefore(now.minus(changeFeedTombstones.getRetention()))) {
+            return DataChangesResponse.builder().upserts(List.of()).deletes(List.of()).resyncRequired(true).build();
+        }
 
         String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
-
-        String checkSql = "SELECT COUNT(*) FROM `" + tableName + "` WHERE id = ?1 AND tenant_id = ?2";
-        Number count = (Number) entityManager.createNativeQuery(checkSql)
-                .setParameter(1, id)
-                .setParameter(2, tenantId)
-                .getSingleResult();
-        if (count.intValue() == 0) {
-            throw new ResourceNotFoundException("Dynamic data not found with ID: " + id + " in schema '" + schemaName + "' for tenant '" + tenantId + "'");
+        List<String> columnNames = dynamicTableManager.getColumnNames(tableName, cachedSchema.getPlan());
+        List<Object> queryParams = new ArrayList<>();
+        List<FilterCondition> conditions = whereClauseBuilder.collectConditions(tenantId, tableName, columnNames, cachedSchema.getPlan(), null, queryParams);
+        String whereClause = whereClauseBuilder.buildWhereClause(tableName, schemaVersion, columnNames, conditions);
+        RowLayout layout = queryTemplateCache.getLayout(columnNames);
+        String selectSql = queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, schemaVersion, columnNames, "changes", conditions, null),
+                () -> "SELECT " + layout.getSelectList() + " FROM `" + tableName + "`" + whereClause
+                        + " AND (`updated_at`, `id`) > (?, ?) AND `updated_at` <= ? ORDER BY `updated_at`, `id` LIMIT ?");
+
+        Query dataQuery = entityManager.createNativeQuery(selectSql);
+        int paramIndex = 1;
+        for (Object param : queryParams) {
+            dataQuery.setParameter(paramIndex++, param);
+        }
+        dataQuery.setParameter(paramIndex++, token.rowTime());
+        dataQuery.setParameter(paramIndex++, token.rowId());
+        dataQuery.setParameter(paramIndex++, boundary);
+        dataQuery.setParameter(paramIndex, limit + 1);
+        List<Object[]> rows = dataQuery.getResultList();
+        boolean moreRows = rows.size() > limit;
+        List<DynamicDataResponse> upserts = rows.stream()
+                .limit(limit)
+                .map(row -> layout.map(row, tenantId, schemaName))
+                .toList();
+
+        List<FilterCondition> permissions = new ArrayList<>();
+        List<Object> permissionParams = new ArrayList<>();
+        whereClauseBuilder.applyDataPermissionFilter(permissions, permissionParams);
+        List<Tombstone> tombstones = changeFeedTombstones.findAfter(tenantId, schemaName, token.deleteTime(), token.deleteId(),
+                boundary, permissions, permissionParams, limit + 1);
+        boolean moreDeletes = tombstones.size() > limit;
+        List<Tombstone> deletes = moreDeletes ? tombstones.subList(0, limit) : tombstones;
+
+        LocalDateTime rowTime = token.rowTime();
+        long rowId = token.rowId();
+        if (moreRows) {
+            DynamicDataResponse last = upserts.get(upserts.size() - 1);
+            rowTime = last.getUpdatedAt();
+            rowId = last.getId();
+        } else if (boundary.isAfter(rowTime)) {
+            rowTime = boundary;
+            rowId = Long.MAX_VALUE;
+        }
+        LocalDateTime deleteTime = token.deleteTime();
+        long deleteId = token.deleteId();
+        if (moreDeletes) {
+            Tombstone last = deletes.get(deletes.size() - 1);
+            deleteTime = last.deletedAt();
+            deleteId = last.recordId();
+        } else if (boundary.isAfter(deleteTime)) {
+            deleteTime = boundary;
+            deleteId = Long.MAX_VALUE;
         }
 
-        StringBuilder updateSql = new StringBuilder("UPDATE `").append(tableName).append("` SET ");
-        List<String> setClauses = new ArrayList<>();
-        List<Object> params = new ArrayList<>();
+        return DataChangesResponse.builder()
+                .upserts(upserts)
+                .deletes(deletes.stream().map(Tombstone::recordId).toList())
+                .nextToken(new ChangeFeedToken(rowTime, rowId, deleteTime, deleteId).encode())
+                .hasMore(moreRows || moreDeletes)
+                .build();
+    }
 
-        setClauses.add("`updated_at` = ?");
-        params.add(LocalDateTime.now());
+    @Override
+    @Transactional
+    public DynamicDataResponse updateDynamicData(String tenantId, String schemaName, Long id, Map<String, Object> updates) {
+        ShardContext.bind(tenantId);
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
 
-        for (Map.Entry<String, Object> entry : updates.entrySet()) {
-            String fieldName = entry.getKey();
-            Object fieldValue = entry.getValue();
+        // 与批量更新一致：只校验提交的字段，未提交的必填字段保持原值
+        Map<String, String> errors = plan.validatePartial(updates);
+        if (!errors.isEmpty()) {
+            throw new DataValidationException("数据校验失败，请检查输入项", errors);
+        }
 
-            // 确保更新的字段在 schema 中存在
-            MetadataFieldDTO field = schemaDTO.getFields().stream()
-                    .filter(f -> f.getFieldName().equals(fieldName))
-                    .findFirst()
-                    .orElse(null);
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+        invalidateResults(tenantId, schemaName);
 
-            if (field == null) {
+        List<String> changedFields = new ArrayList<>();
+        for (String fieldName : updates.keySet()) {
+            // 确保更新的字段在 schema 中存在
+            if (plan.getField(fieldName) == null) {
                 logger.warn("Attempted to update non-existent field '{}' in schema '{}'. Skipping.", fieldName, schemaName);
                 continue;
             }
-
-            setClauses.add("`" + fieldName + "` = ?");
-            params.add(convertValueToFieldType(fieldValue, field.getFieldType()));
+            changedFields.add(fieldName);
         }
 
-        if (setClauses.isEmpty()) {
+        if (changedFields.isEmpty()) {
             throw new IllegalArgumentException("No fields provided for update.");
         }
 
-        updateSql.append(String.join(", ", setClauses));
-        updateSql.append(" WHERE `id` = ? AND `tenant_id` = ?");
-
-        Query query = entityManager.createNativeQuery(updateSql.toString());
-        for (int i = 0; i < params.size(); i++) {
-            query.setParameter(i + 1, params.get(i));
+        List<String> setColumns = new ArrayList<>();
+        setColumns.add("updated_at");
+        setColumns.addAll(writeColumns(plan, changedFields));
+        Object[] params = new Object[setColumns.size() + 2];
+        params[0] = LocalDateTime.now();
+        fillFieldValues(plan, changedFields, updates, params, 1, true);
+        params[setColumns.size()] = id;
+        params[setColumns.size() + 1] = tenantId;
+
+        String updateSql = queryTemplateCache.getSql(
+                new SqlTemplateKey(tableName, plan.getVersion(), setColumns, "update", List.of(), null),
+                () -> "UPDATE `" + tableName + "` SET " + assignments(setColumns) + " WHERE `id` = ? AND `tenant_id` = ?");
+
+        Map<String, Object> before = dataChangeOutbox.isEnabled()
+                ? lockFieldValues(tableName, tenantId, List.of(id), plan, changedFields).get(id)
+                : null;
+
+        // MySQL 驱动默认返回匹配行数，为 0 即记录不存在，无需预先 COUNT
+        if (dmlExecutor.update(updateSql, params) == 0) {
+            throw new ResourceNotFoundException("Dynamic data not found with ID: " + id + " in schema '" + schemaName + "' for tenant '" + tenantId + "'");
         }
-        query.setParameter(params.size() + 1, id);
-        query.setParameter(params.size() + 2, tenantId);
-
-        query.executeUpdate();
-
-        return getDynamicDataById(tenantId, schemaName, id);
+        recordCache.invalidate(tenantId, schemaName, List.of(id));
+
+        DynamicDataResponse updated = getDynamicDataById(tenantId, schemaName, id, null);
+        if (before != null) {
+            Map<String, Object> after = new HashMap<>();
+            for (String fieldName : changedFields) {
+                // 溢出字段读出的是 JSON 值，按字段类型转换后与 before 比较
+                FieldPlan field = plan.getField(fieldName);
+                Object value = updated.getData().get(fieldName);
+                after.put(fieldName, field.isOverflow() ? field.convert(value) : value);
+            }
+            dataChangeOutbox.recordUpdate(tenantId, schemaName, id, before, after);
+        }
+        return updated;
     }
 
     @Override
     @Transactional
     public void deleteDynamicData(String tenantId, String schemaName, Long id) {
-        String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
+        ShardContext.bind(tenantId);
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+        invalidateResults(tenantId, schemaName);
 
-        String deleteSql = "DELETE FROM `" + tableName + "` WHERE id = ?1 AND tenant_id = ?2";
-        int deletedCount = entityManager.createNativeQuery(deleteSql)
-                .setParameter(1, id)
-                .setParameter(2, tenantId)
-                .executeUpdate();
+        Map<String, Object> before = dataChangeOutbox.isEnabled()
+                ? lockRecords(tableName, tenantId, schemaName, List.of(id)).get(id)
+                : null;
+
+        changeFeedTombstones.recordDeletes(tableName, tenantId, schemaName, List.of(id));
+        String deleteSql = "DELETE FROM `" + tableName + "` WHERE `id` = ? AND `tenant_id` = ?";
+        int deletedCount = dmlExecutor.update(deleteSql, new Object[]{id, tenantId});
 
         if (deletedCount == 0) {
             throw new ResourceNotFoundException("Dynamic data not found with ID: " + id + " in schema '" + schemaName + "' for tenant '" + tenantId + "'");
         }
+        recordCache.invalidate(tenantId, schemaName, List.of(id));
+        if (before != null) {
+            dataChangeOutbox.recordDelete(tenantId, schemaName, id, before);
+        }
     }
 
 
+    /**
+     * 批量插入：逐项校验，通过校验的记录按列组合分组，每组一条 JDBC batch，整体在同一事务内提交
+     */
     @Override
     @Transactional
-    public DataImportResponse importData(String tenantId, String schemaName, MultipartFile file) throws IOException {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(schemaName, tenantId)
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with name '" + schemaName + "' for tenant '" + tenantId + "'"));
+    public BatchOperationResponse batchInsertDynamicData(String tenantId, String schemaName, List<Map<String, Object>> items) {
+        ShardContext.bind(tenantId);
+        checkBatchSize(items.size());
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+        invalidateResults(tenantId, schemaName);
+
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        LocalDateTime now = LocalDateTime.now();
+        String currentUser = UserContext.getUsername();
+        Long currentDept = UserContext.getDeptId();
+        Object[] systemValues = {tenantId, now, now, currentUser != null ? currentUser : "system", currentDept != null ? currentDept : 0L};
+
+        // 列组合 -> 该组合下的记录下标；缺省字段不写入，保留数据库默认值
+        Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Map<String, Object> data = items.get(i) != null ? items.get(i) : Collections.emptyMap();
+            Map<String, String> errors = plan.validate(data);
+            if (!errors.isEmpty()) {
+                results[i] = invalidResult(i, null, "数据校验失败，请检查输入项", errors);
+                continue;
+            }
+            List<String> fieldNames = new ArrayList<>();
+            for (FieldPlan field : plan.getFields()) {
+                if (data.containsKey(field.getName())) {
+                    fieldNames.add(field.getName());
+                }
+            }
+            groups.computeIfAbsent(fieldNames, k -> new ArrayList<>()).add(i);
+        }
 
-        int totalRecords = 0;
-        int successCount = 0;
-        int failedCount = 0;
+        for (Map.Entry<List<String>, List<Integer>> group : groups.entrySet()) {
+            List<String> columns = new ArrayList<>(SYSTEM_INSERT_COLUMNS);
+            columns.addAll(writeColumns(plan, group.getKey()));
+            List<Object[]> rows = new ArrayList<>(group.getValue().size());
+            List<Map<String, Object>> values = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                Object[] row = Arrays.copyOf(systemValues, columns.size());
+                values.add(fillFieldValues(plan, group.getKey(), items.get(index), row, systemValues.length, false));
+                rows.add(row);
+            }
+            long[] ids = dmlExecutor.batchInsertReturningKeys(dmlExecutor.buildInsertSql(tableName, columns), rows);
+            for (int i = 0; i < ids.length; i++) {
+                int index = group.getValue().get(i);
+                results[index] = BatchItemResult.builder().index(index).id(ids[i]).status(BatchItemResult.CREATED).build();
+            }
+            if (dataChangeOutbox.isEnabled()) {
+                List<DataChangeEvent> events = new ArrayList<>(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    events.add(dataChangeOutbox.insertEvent(tenantId, schemaName, ids[i], values.get(i)));
+                }
+                dataChangeOutbox.record(events);
+            }
+        }
+        return toBatchResponse(results);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String headerLine = reader.readLine();
-            if (headerLine == null) {
-                return DataImportResponse.builder().totalRecords(0).successCount(0).failedCount(0).message("Empty file").build();
+    /**
+     * 批量部分更新：只校验和更新每项中出现的字段，按列组合分组执行 JDBC batch
+     */
+    @Override
+    @Transactional
+    public BatchOperationResponse batchUpdateDynamicData(String tenantId, String schemaName, List<BatchUpdateItem> items) {
+        ShardContext.bind(tenantId);
+        checkBatchSize(items.size());
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+        invalidateResults(tenantId, schemaName);
+
+        BatchItemResult[] results = new BatchItemResult[items.size()];
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchUpdateItem item = items.get(i);
+            Map<String, Object> data = item.getData() != null ? item.getData() : Collections.emptyMap();
+            Map<String, String> errors = plan.validatePartial(data);
+            if (!errors.isEmpty()) {
+                results[i] = invalidResult(i, item.getId(), "数据校验失败，请检查输入项", errors);
+                continue;
             }
-            List<String> headers = Arrays.asList(headerLine.split(","));
+            List<String> fieldNames = new ArrayList<>();
+            for (FieldPlan field : plan.getFields()) {
+                if (data.containsKey(field.getName())) {
+                    fieldNames.add(field.getName());
+                }
+            }
+            if (fieldNames.isEmpty()) {
+                results[i] = invalidResult(i, item.getId(), "No fields provided for update.", null);
+                continue;
+            }
+            groups.computeIfAbsent(fieldNames, k -> new ArrayList<>()).add(i);
+        }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                totalRecords++;
-                Map<String, Object> recordData = new HashMap<>();
-                List<String> values = Arrays.asList(line.split(","));
+        for (Map.Entry<List<String>, List<Integer>> group : groups.entrySet()) {
+            List<String> setColumns = writeColumns(plan, group.getKey());
+            String updateSql = "UPDATE `" + tableName + "` SET `updated_at` = ?, " + assignments(setColumns)
+                    + " WHERE `id` = ? AND `tenant_id` = ?";
+            List<Object[]> rows = new ArrayList<>(group.getValue().size());
+            List<Map<String, Object>> values = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                BatchUpdateItem item = items.get(index);
+                Object[] row = new Object[setColumns.size() + 3];
+                row[0] = now;
+                values.add(fillFieldValues(plan, group.getKey(), item.getData(), row, 1, true));
+                row[setColumns.size() + 1] = item.getId();
+                row[setColumns.size() + 2] = tenantId;
+                rows.add(row);
+            }
+            List<Long> groupIds = group.getValue().stream().map(index -> items.get(index).getId()).toList();
+            Map<Long, Map<String, Object>> before = dataChangeOutbox.isEnabled()
+                    ? lockFieldValues(tableName, tenantId, groupIds, plan, group.getKey())
+                    : Map.of();
+
+            int[] counts = dmlExecutor.batchUpdate(updateSql, rows);
+            recordCache.invalidate(tenantId, schemaName, groupIds);
+            for (int i = 0; i < counts.length; i++) {
+                int index = group.getValue().get(i);
+                results[index] = affectedResult(index, items.get(index).getId(), counts[i], BatchItemResult.UPDATED);
+            }
 
-                if (headers.size() != values.size()) {
-                    failedCount++;
-                    logger.error("Failed to import record: Column count mismatch for line: {}", line);
-                    continue;
+            List<DataChangeEvent> events = new ArrayList<>();
+            for (int i = 0; i < groupIds.size(); i++) {
+                Map<String, Object> previous = before.get(groupIds.get(i));
+                if (previous != null) {
+                    DataChangeEvent event = dataChangeOutbox.updateEvent(tenantId, schemaName, groupIds.get(i),
+                            previous, values.get(i));
+                    if (event != null) {
+                        events.add(event);
+                    }
                 }
+            }
+            dataChangeOutbox.record(events);
+        }
+        return toBatchResponse(results);
+    }
+
+    /**
+     * 批量删除：一条 DELETE 语句按 id 批量执行，逐项返回是否存在
+     */
+    @Override
+    @Transactional
+    public BatchOperationResponse batchDeleteDynamicData(String tenantId, String schemaName, List<Long> ids) {
+        ShardContext.bind(tenantId);
+        checkBatchSize(ids.size());
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+        invalidateResults(tenantId, schemaName);
+
+        Map<Long, Map<String, Object>> before = dataChangeOutbox.isEnabled()
+                ? lockRecords(tableName, tenantId, schemaName, ids)
+                : Map.of();
+
+        changeFeedTombstones.recordDeletes(tableName, tenantId, schemaName, ids);
+        String deleteSql = "DELETE FROM `" + tableName + "` WHERE `id` = ? AND `tenant_id` = ?";
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new Object[]{id, tenantId});
+        }
+        int[] counts = dmlExecutor.batchUpdate(deleteSql, rows);
+        recordCache.invalidate(tenantId, schemaName, ids);
+        if (!before.isEmpty()) {
+            dataChangeOutbox.record(before.entrySet().stream()
+                    .map(entry -> dataChangeOutbox.deleteEvent(tenantId, schemaName, entry.getKey(), entry.getValue()))
+                    .toList());
+        }
+
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        for (int i = 0; i < counts.length; i++) {
+            results[i] = affectedResult(i, ids.get(i), counts[i], BatchItemResult.DELETED);
+        }
+        return toBatchResponse(results);
+    }
 
-                for (int i = 0; i < headers.size(); i++) {
-                    recordData.put(headers.get(i), values.get(i));
+    /**
+     * 锁定并读取记录删除前的全部字段值 (不含系统列)
+     */
+    private Map<Long, Map<String, Object>> lockRecords(String tableName, String tenantId, String schemaName, List<Long> ids) {
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
+        List<String> fieldNames = plan.getFields().stream().map(FieldPlan::getName).toList();
+        return lockFieldValues(tableName, tenantId, ids, plan, fieldNames);
+    }
+
+    /**
+     * 锁定并读取字段当前值，溢出字段从 ext_data 文档中取出并按字段类型转换
+     */
+    private Map<Long, Map<String, Object>> lockFieldValues(String tableName, String tenantId, Collection<Long> ids,
+                                                           SchemaPlan plan, List<String> fieldNames) {
+        List<String> columns = writeColumns(plan, fieldNames);
+        Map<Long, Map<String, Object>> rows = dmlExecutor.lockRows(tableName, tenantId, ids, columns);
+        if (columns.isEmpty() || !OverflowColumn.NAME.equals(columns.get(columns.size() - 1))) {
+            return rows;
+        }
+        for (Map<String, Object> values : rows.values()) {
+            Map<String, Object> document = OverflowColumn.parse(values.remove(OverflowColumn.NAME));
+            for (String fieldName : fieldNames) {
+                FieldPlan field = plan.getField(fieldName);
+                if (field.isOverflow()) {
+                    values.put(fieldName, field.convert(document.get(fieldName)));
                 }
+            }
+        }
+        return rows;
+    }
 
-                try {
-                    validateDynamicData(recordData, schemaDTO);
-
-                    DynamicDataRequest request = DynamicDataRequest.builder()
-                            .tenantId(tenantId)
-                            .schemaName(schemaName)
-                            .data(recordData)
-                            .build();
-                    insertDynamicData(request); // insertDynamicData 内部会再次校验，这里可以考虑优化，避免重复校验
-                    successCount++;
-                } catch (Exception e) {
-                    failedCount++;
-                    logger.error("Failed to import record: {} - {}", recordData, e.getMessage());
+    /**
+     * 字段对应的写入列：物理字段各占一列，溢出字段合并为末尾的 ext_data 列 (生成列不可写)
+     */
+    private static List<String> writeColumns(SchemaPlan plan, List<String> fieldNames) {
+        List<String> columns = new ArrayList<>(fieldNames.size());
+        boolean overflow = false;
+        for (String fieldName : fieldNames) {
+            if (plan.getField(fieldName).isOverflow()) {
+                overflow = true;
+            } else {
+                columns.add(fieldName);
+            }
+        }
+        if (overflow) {
+            columns.add(OverflowColumn.NAME);
+        }
+        return columns;
+    }
+
+    /**
+     * 按 writeColumns 的列顺序填入字段值
+     * @param offset 第一个字段列在 row 中的位置
+     * @param patch 溢出字段写为合并补丁 (部分更新) 或完整文档 (插入)
+     * @return 字段名 -> 转换后的值
+     */
+    private static Map<String, Object> fillFieldValues(SchemaPlan plan, List<String> fieldNames, Map<String, Object> data,
+                                                       Object[] row, int offset, boolean patch) {
+        Map<String, Object> values = new HashMap<>(fieldNames.size() * 2);
+        Map<String, Object> overflow = null;
+        int col = offset;
+        for (String fieldName : fieldNames) {
+            FieldPlan field = plan.getField(fieldName);
+            Object value = field.convert(data.get(fieldName));
+            values.put(fieldName, value);
+            if (field.isOverflow()) {
+                if (overflow == null) {
+                    overflow = new LinkedHashMap<>();
                 }
+                overflow.put(fieldName, value);
+            } else {
+                row[col++] = value;
             }
         }
+        if (overflow != null) {
+            row[col] = patch ? OverflowColumn.writePatch(overflow) : OverflowColumn.write(overflow);
+        }
+        return values;
+    }
+
+    /**
+     * UPDATE 的 SET 列表，ext_data 按合并补丁更新
+     */
+    private static String assignments(List<String> columns) {
+        return columns.stream()
+                .map(col -> OverflowColumn.NAME.equals(col) ? "`" + col + "` = " + OverflowColumn.patchExpression() : "`" + col + "` = ?")
+                .collect(Collectors.joining(", "));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxItems) {
+            throw new DataValidationException("单次批量操作最多 " + batchMaxItems + " 条，当前 " + size + " 条");
+        }
+    }
+
+    private static BatchItemResult invalidResult(int index, Long id, String message, Map<String, String> fieldErrors) {
+        return BatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(BatchItemResult.INVALID)
+                .message(message)
+                .fieldErrors(fieldErrors)
+                .build();
+    }
+
+    /**
+     * 根据影响行数生成结果；rewriteBatchedStatements 下驱动可能返回 SUCCESS_NO_INFO (-2)，视为成功
+     */
+    private static BatchItemResult affectedResult(int index, Long id, int affected, String successStatus) {
+        if (affected == 0) {
+            return BatchItemResult.builder()
+                    .index(index)
+                    .id(id)
+                    .status(BatchItemResult.NOT_FOUND)
+                    .message("Dynamic data not found with ID: " + id)
+                    .build();
+        }
+        return BatchItemResult.builder().index(index).id(id).status(successStatus).build();
+    }
 
-        return DataImportResponse.builder()
-                .totalRecords(totalRecords)
+    private static BatchOperationResponse toBatchResponse(BatchItemResult[] results) {
+        int successCount = 0;
+        for (BatchItemResult result : results) {
+            if (!BatchItemResult.INVALID.equals(result.getStatus()) && !BatchItemResult.NOT_FOUND.equals(result.getStatus())) {
+                successCount++;
+            }
+        }
+        return BatchOperationResponse.builder()
+                .total(results.length)
                 .successCount(successCount)
-                .failedCount(failedCount)
-                .message(failedCount == 0 ? "Data imported successfully." : "Data imported with some failures.")
+                .failedCount(results.length - successCount)
+                .results(Arrays.asList(results))
                 .build();
     }
 
+    /**
+     * 流式批量导入：不在单个大事务中执行，按块提交 (见 CsvImportPipeline)
+     */
     @Override
-    public byte[] exportData(String tenantId, String schemaName, FilterRequestDTO filterRequest, String format) throws IOException {
-        MetadataSchemaDTO schemaDTO = metadataServiceClient.getSchemaByNameAndTenantId(schemaName, tenantId)
-                .blockOptional()
-                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with name '" + schemaName + "' for tenant '" + tenantId + "'"));
-
-        PageRequestDTO pageRequest = PageRequestDTO.builder().page(0).size(Integer.MAX_VALUE).build();
-        PageResponseDTO<DynamicDataResponse> dataPage = getAllDynamicData(tenantId, schemaName, pageRequest, filterRequest);
-        List<DynamicDataResponse> records = dataPage.getContent();
-
-        if ("csv".equalsIgnoreCase(format)) {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            try (PrintWriter writer = new PrintWriter(bos)) {
-
-                List<String> finalHeaderNames = new ArrayList<>();
-                finalHeaderNames.add("id");
-                finalHeaderNames.add("tenant_id");
-                finalHeaderNames.add("created_at");
-                finalHeaderNames.add("updated_at");
-                schemaDTO.getFields().stream()
-                        .map(MetadataFieldDTO::getFieldName)
-                        .forEach(finalHeaderNames::add);
-
-                writer.println(String.join(",", finalHeaderNames));
-
-                for (DynamicDataResponse record : records) {
-                    List<String> values = new ArrayList<>();
-                    Map<String, Object> recordData = record.getData();
-
-                    for (String header : finalHeaderNames) {
-                        switch (header) {
-                            case "id":
-                                values.add(String.valueOf(record.getId()));
-                                break;
-                            case "tenant_id":
-                                values.add(record.getTenantId());
-                                break;
-                            case "created_at":
-                                values.add(record.getCreatedAt() != null ? record.getCreatedAt().toString() : "");
-                                break;
-                            case "updated_at":
-                                values.add(record.getUpdatedAt() != null ? record.getUpdatedAt().toString() : "");
-                                break;
-                            default:
-                                Object value = recordData.get(header);
-                                values.add(value != null ? String.valueOf(value) : "");
-                                break;
-                        }
-                    }
-                    writer.println(String.join(",", values));
-                }
-            }
-            return bos.toByteArray();
-        } else if ("excel".equalsIgnoreCase(format)) {
+    public DataImportResponse importData(String tenantId, String schemaName, MultipartFile file) throws IOException {
+        ShardContext.bind(tenantId);
+        SchemaPlan plan = schemaCacheManager.getCachedSchema(tenantId, schemaName).getPlan();
+        String tableName = dynamicTableManager.buildWritableTableName(tenantId, schemaName);
+
+        try (InputStream inputStream = file.getInputStream()) {
+            return csvImportPipeline.importCsv(tenantId, schemaName, tableName, plan, inputStream);
+        } finally {
+            rowCountEstimator.evict(tableName); // 批量导入后缓存的估算总数已明显过时
+            invalidateResults(tenantId, schemaName); // 导入分批提交，结束后再让缓存的列表结果失效
+        }
+    }
+
+    /**
+     * 流式导出：查询与权限条件在请求线程上构建，行数据在响应写出时由前向游标逐行读取
+     * parallelism > 1 或 zip 时按 id 区间分片，由 ParallelExporter 并发读取后按顺序写出
+     */
+    @Override
+    public StreamingResponseBody exportData(String tenantId, String schemaName, FilterRequestDTO filterRequest,
+                                            String format, boolean gzip, int parallelism, boolean zip) {
+        ShardContext.bind(tenantId);
+        if ("excel".equalsIgnoreCase(format)) {
             throw new UnsupportedOperationException("Excel export is not yet supported.");
-        } else {
-            throw new IllegalArgumentException("Unsupported export format: " + format);
         }
+        ExportFormat exportFormat = ExportFormat.of(format);
+        if (parallelism < 1 || parallelism > parallelExporter.getMaxSlices()) {
+            throw new DataValidationException("parallelism 超出范围",
+                    Map.of("parallelism", String.valueOf(parallelism), "max", String.valueOf(parallelExporter.getMaxSlices())));
+        }
+
+        CachedSchema cachedSchema = schemaCacheManager.getCachedSchema(tenantId, schemaName);
+        MetadataSchemaDTO schemaDTO = cachedSchema.getSchema();
+        String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
+        List<String> columnNames = dynamicTableManager.getColumnNames(tableName, cachedSchema.getPlan());
+
+        List<Object> queryParams = new ArrayList<>();
+        List<FilterCondition> conditions = whereClauseBuilder.collectConditions(tenantId, tableName, columnNames, cachedSchema.getPlan(), filterRequest, queryParams);
+        String whereClause = whereClauseBuilder.buildWhereClause(tableName, cachedSchema.getVersion(), columnNames, conditions);
+
+        List<String> headers = new ArrayList<>();
+        headers.add("id");
+        headers.add("tenant_id");
+        headers.add("created_at");
+        headers.add("updated_at");
+        schemaDTO.getFields().stream()
+                .map(MetadataFieldDTO::getFieldName)
+                .forEach(headers::add);
+
+        // 只查询表中实际存在的列；元数据中有而表中尚未同步的字段输出空值，只存于 ext_data 的溢出字段按 JSON 路径取值
+        List<String> selectColumns = new ArrayList<>();
+        int[] headerToColumn = new int[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            String header = headers.get(i);
+            if (WhereClauseBuilder.isJsonOnlyField(cachedSchema.getPlan(), columnNames, header)) {
+                selectColumns.add(OverflowColumn.valueExpression(cachedSchema.getPlan().getField(header).getField()));
+                headerToColumn[i] = selectColumns.size();
+            } else if (columnNames.contains(header)) {
+                selectColumns.add("`" + header + "`");
+                headerToColumn[i] = selectColumns.size();
+            }
+        }
+
+        String selectSql = "SELECT " + String.join(", ", selectColumns) + " FROM `" + tableName + "`" + whereClause;
+        Object[] params = queryParams.toArray();
+        // 导出在异步线程上执行且不在事务中，显式声明读意图以便路由到只读副本
+        boolean pinnedToPrimary = ReadRoutingContext.isPinnedToPrimary();
+        ParallelExportJob parallelJob = parallelism > 1 || zip
+                ? new ParallelExportJob(tenantId, pinnedToPrimary, selectSql,
+                "SELECT MIN(`id`), MAX(`id`) FROM `" + tableName + "`" + whereClause, params, headers, headerToColumn,
+                exportFormat, parallelism, zip, gzip, schemaName + "_data")
+                : null;
+
+        return outputStream -> {
+            ReadRoutingContext.enterRead(pinnedToPrimary);
+            ShardContext.bind(tenantId);
+            try {
+                if (parallelJob != null) {
+                    parallelExporter.export(parallelJob, outputStream);
+                } else {
+                    streamingExporter.export(selectSql + " ORDER BY `id` ASC", params, headers, headerToColumn,
+                            exportFormat, outputStream, gzip);
+                }
+            } finally {
+                ReadRoutingContext.clear();
+                ShardContext.clear();
+            }
+        };
     }
 
 
     /**
-     * 生产级动态数据校验
-     * 收集所有字段的错误，而不是遇到第一个就抛出
+     * 服务端聚合：分组字段、时间分桶与指标编译为一条 GROUP BY 语句
+     * 过滤条件与数据权限复用列表查询的 WHERE 子句，用户只能聚合自己可见的数据
      */
-    private void validateDynamicData(Map<String, Object> data, MetadataSchemaDTO schemaDTO) {
-        // 1. 错误收集容器：FieldName -> ErrorMessage
-        Map<String, String> errors = new HashMap<>();
-
-        for (MetadataFieldDTO field : schemaDTO.getFields()) {
-            String fieldName = field.getFieldName();
-            Object fieldValue = data.get(fieldName);
-
-            // --- A. 必填性校验 ---
-            // 无论值是什么类型，先转为字符串判空（注意：Boolean false 不算空，0 不算空）
-            boolean isProvided = fieldValue != null && !String.valueOf(fieldValue).trim().isEmpty();
-
-            if (Boolean.TRUE.equals(field.getRequired())) {
-                if (!isProvided) {
-                    errors.put(fieldName, "此字段为必填项");
-                    continue; // 必填缺失，后续校验无意义，跳过当前字段
+    @Override
+    @Transactional(readOnly = true)
+    public AggregateResponse aggregateDynamicData(String tenantId, String schemaName, AggregateRequest request) {
+        ShardContext.bind(tenantId);
+        CachedSchema cachedSchema = schemaCacheManager.getCachedSchema(tenantId, schemaName);
+        SchemaPlan plan = cachedSchema.getPlan();
+        String tableName = dynamicTableManager.buildTableName(tenantId, schemaName);
+        List<String> columnNames = dynamicTableManager.getColumnNames(tableName, plan);
+
+        Map<String, String> errors = new LinkedHashMap<>();
+        List<String> resultColumns = new ArrayList<>();
+        List<String> selectExpressions = new ArrayList<>();
+        List<String> groupExpressions = new ArrayList<>();
+
+        // 1. 时间分桶
+        String timeField = request.getTimeField();
+        if (timeField != null && !timeField.isBlank()) {
+            String bucket = request.getTimeBucket() != null ? request.getTimeBucket().toLowerCase() : "day";
+            if (!columnNames.contains(timeField)) {
+                errors.put(timeField, "字段不存在");
+            } else if (!isTemporalColumn(plan, timeField)) {
+                errors.put(timeField, "时间分桶只支持 DATE/DATETIME 字段");
+            } else {
+                String expression = timeBucketExpression(timeField, bucket);
+                if (expression == null) {
+                    errors.put("timeBucket", "时间粒度非法，可选值: hour, day, week, month, quarter, year");
+                } else {
+                    resultColumns.add(AGGREGATE_BUCKET_COLUMN);
+                    selectExpressions.add(expression + " AS `" + AGGREGATE_BUCKET_COLUMN + "`");
+                    // GROUP BY 中的名称先按表列解析，模式中有同名字段时会按该列分组，因此直接使用表达式
+                    groupExpressions.add(expression);
                 }
             }
+        }
 
-            // 如果非必填且未提供值，直接跳过后续校验
-            if (!isProvided) {
-                continue;
+        // 2. 分组字段
+        if (request.getGroupBy() != null) {
+            for (String field : request.getGroupBy()) {
+                if (!columnNames.contains(field)) {
+                    errors.put(field, "字段不存在");
+                } else if (resultColumns.contains(field)) {
+                    errors.put(field, "分组字段重复");
+                } else {
+                    resultColumns.add(field);
+                    selectExpressions.add("`" + field + "`");
+                    groupExpressions.add("`" + field + "`");
+                }
             }
+        }
 
-            // --- B. 类型格式校验 ---
-            try {
-                // 尝试转换，如果转换失败会抛出 IllegalArgumentException
-                // 我们复用 convertValueToFieldType 的逻辑来做校验
-                convertValueToFieldType(fieldValue, field.getFieldType());
-            } catch (IllegalArgumentException e) {
-                errors.put(fieldName, e.getMessage()); // 使用转换方法返回的具体错误信息
-            }
-
-            // --- C. 枚举值校验 (ENUM) ---
-            if (FieldType.ENUM.equals(field.getFieldType())) {
-                validateEnum(field, fieldValue, errors);
-            }
-
-            // --- D. 正则表达式校验 ---
-            if (field.getValidationRule() != null && !field.getValidationRule().isEmpty()) {
-                try {
-                    if (!Pattern.matches(field.getValidationRule(), String.valueOf(fieldValue))) {
-                        // 如果有描述，优先提示描述，否则提示不符合规则
-                        String msg = (field.getDescription() != null && !field.getDescription().isEmpty())
-                                ? "格式不正确: " + field.getDescription()
-                                : "数据格式不符合校验规则";
-                        errors.put(fieldName, msg);
+        // 3. 指标
+        for (int i = 0; i < request.getMetrics().size(); i++) {
+            AggregateMetric metric = request.getMetrics().get(i);
+            String function = metric.getFunction() == null ? "" : metric.getFunction().toLowerCase();
+            String field = metric.getField();
+            String key = "metrics[" + i + "]";
+
+            if (field != null && !field.isBlank() && !columnNames.contains(field)) {
+                errors.put(key, "字段不存在: " + field);
+                continue;
+            }
+            boolean hasField = field != null && !field.isBlank();
+            String expression;
+            switch (function) {
+                case "count" -> expression = hasField ? "COUNT(`" + field + "`)" : "COUNT(*)";
+                case "count_distinct" -> expression = hasField ? "COUNT(DISTINCT `" + field + "`)" : null;
+                case "sum", "avg" -> {
+                    if (hasField && !isNumericColumn(plan, field)) {
+                        errors.put(key, function + " 只支持 NUMBER/INTEGER 字段");
+                        continue;
                     }
-                } catch (PatternSyntaxException e) {
-                    logger.error("Schema 定义中字段 '{}' 的正则表达式无效: {}", fieldName, field.getValidationRule());
-                    // 正则配置错误是开发者的锅，不应阻断用户，或者可以提示系统错误
+                    expression = hasField ? function.toUpperCase() + "(`" + field + "`)" : null;
+                }
+                case "min", "max" -> expression = hasField ? function.toUpperCase() + "(`" + field + "`)" : null;
+                default -> {
+                    errors.put(key, "聚合函数非法，可选值: count, count_distinct, sum, avg, min, max");
+                    continue;
                 }
             }
+            if (expression == null) {
+                errors.put(key, function + " 需要指定字段");
+                continue;
+            }
+
+            String alias = metric.getAlias() != null && !metric.getAlias().isBlank()
+                    ? metric.getAlias() : function + (hasField ? "_" + field : "");
+            if (!AGGREGATE_ALIAS_PATTERN.matcher(alias).matches()) {
+                errors.put(key, "别名只能包含字母、数字和下划线，且不超过 64 个字符");
+            } else if (resultColumns.contains(alias)) {
+                errors.put(key, "结果列名重复: " + alias);
+            } else {
+                resultColumns.add(alias);
+                selectExpressions.add(expression + " AS `" + alias + "`");
+            }
+        }
+
+        // 4. 排序
+        String orderBy;
+        if (request.getSortBy() != null && !request.getSortBy().isBlank()) {
+            if (!resultColumns.contains(request.getSortBy())) {
+                errors.put("sortBy", "排序列必须是分组字段、时间桶或指标别名");
+            }
+            orderBy = "`" + request.getSortBy() + "` " + ("desc".equalsIgnoreCase(request.getSortOrder()) ? "DESC" : "ASC");
+        } else {
+            orderBy = String.join(", ", groupExpressions);
         }
 
-        // 如果收集到了错误，统一抛出
         if (!errors.isEmpty()) {
-            throw new DataValidationException("数据校验失败，请检查输入项", errors);
+            throw new DataValidationException("聚合请求参数非法", errors);
         }
-    }
 
-    /**
-     * 独立的枚举校验逻辑，抽取出来保持代码整洁
-     */
-    private void validateEnum(MetadataFieldDTO field, Object value, Map<String, String> errors) {
-        if (field.getOptions() == null || field.getOptions().isEmpty()) {
-            return;
+        int limit = request.getLimit() != null && request.getLimit() > 0
+                ? Math.min(request.getLimit(), aggregateMaxGroups) : aggregateMaxGroups;
+
+        List<Object> queryParams = new ArrayList<>();
+        FilterRequestDTO filterRequest = FilterRequestDTO.builder().filters(request.getFilters()).build();
+        List<FilterCondition> conditions = whereClauseBuilder.collectConditions(tenantId, tableName, columnNames, cachedSchema.getPlan(), filterRequest, queryParams);
+        String whereClause = whereClauseBuilder.buildWhereClause(tableName, cachedSchema.getVersion(), columnNames, conditions);
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(String.join(", ", selectExpressions))
+                .append(" FROM `").append(tableName).append("`").append(whereClause);
+        if (!groupExpressions.isEmpty()) {
+            sql.append(" GROUP BY ").append(String.join(", ", groupExpressions));
         }
-        try {
-            List<String> options = objectMapper.readValue(field.getOptions(), new TypeReference<List<String>>() {});
-            String strValue = String.valueOf(value);
-            if (!options.contains(strValue)) {
-                errors.put(field.getFieldName(), "值无效，必须是以下选项之一: " + String.join(", ", options));
-            }
-        } catch (JsonProcessingException e) {
-            logger.error("解析字段 '{}' 的枚举选项 JSON 失败: {}", field.getFieldName(), e.getMessage());
-            // 配置错误，记录日志，暂不阻断用户（或根据策略阻断）
+        if (!orderBy.isEmpty()) {
+            sql.append(" ORDER BY ").append(orderBy);
         }
-    }
+        // 多取一行判断分组是否被截断
+        sql.append(" LIMIT ?");
 
-    /**
-     * 将值转换为目标字段类型
-     * 既用于 insert/update 的参数准备，也用于 validate 的格式检查
-     * * @throws IllegalArgumentException 如果转换失败
-     */
-    private Object convertValueToFieldType(Object value, FieldType fieldType) {
-        if (value == null) {
-            return null;
+        Query query = entityManager.createNativeQuery(sql.toString());
+        int paramIndex = 1;
+        for (Object param : queryParams) {
+            query.setParameter(paramIndex++, param);
         }
-        String strValue = String.valueOf(value).trim(); // 去除首尾空格
+        query.setParameter(paramIndex, limit + 1);
 
-        // 空字符串对于非 String 类型视为空值
-        if (strValue.isEmpty() && fieldType != FieldType.STRING && fieldType != FieldType.TEXT) {
-            return null;
+        List<?> resultList = query.getResultList();
+        boolean truncated = resultList.size() > limit;
+        if (truncated) {
+            resultList = resultList.subList(0, limit);
         }
 
-        try {
-            switch (fieldType) {
-                case INTEGER:
-                    // 允许 "123" 或 123
-                    return Long.parseLong(strValue);
-                case NUMBER:
-                    // 允许 "123.45" 或 123.45
-                    return Double.parseDouble(strValue);
-                case BOOLEAN:
-                    // 严格校验：只允许 "true"/"false" (不区分大小写)
-                    if ("true".equalsIgnoreCase(strValue)) return true;
-                    if ("false".equalsIgnoreCase(strValue)) return false;
-                    throw new IllegalArgumentException("必须是布尔值 (true/false)");
-                case DATE:
-                    // 格式：YYYY-MM-DD
-                    return LocalDate.parse(strValue);
-                case DATETIME:
-                    // 格式：YYYY-MM-DDTHH:MM:SS (ISO_LOCAL_DATE_TIME)
-                    // 前端传递时需要注意格式，或者后端这里做更宽容的解析
-                    return LocalDateTime.parse(strValue);
-                case STRING:
-                case TEXT:
-                case ENUM: // ENUM 存储为字符串
-                case FILE: // 文件路径/ID 存储为字符串
-                    return strValue;
-                case REFERENCE:
-                    // 引用 ID 通常是 Long
-                    return Long.parseLong(strValue);
-                default:
-                    return strValue;
-            }
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("必须是有效的数字格式");
-        } catch (DateTimeParseException e) {
-            throw new IllegalArgumentException("日期时间格式无效");
-        } catch (Exception e) {
-            throw new IllegalArgumentException("数据格式无效: " + e.getMessage());
-        }
-    }
-
-
-    private DynamicDataResponse mapRowToResponse(Object[] row, List<String> columnNames, String tenantId, String schemaName) {
-        Map<String, Object> dataMap = new HashMap<>();
-        Long id = null;
-        LocalDateTime createdAt = null;
-        LocalDateTime updatedAt = null;
-        String createdBy = null;
-        Long deptId = null;
-
-        for (int i = 0; i < columnNames.size(); i++) {
-            String colName = columnNames.get(i);
-            Object colValue = row[i];
-
-            if ("id".equals(colName)) id = ((Number) colValue).longValue();
-            else if ("tenant_id".equals(colName)) { /* skip */ }
-            else if ("created_at".equals(colName)) createdAt = colValue instanceof java.sql.Timestamp ? ((java.sql.Timestamp) colValue).toLocalDateTime() : null;
-            else if ("updated_at".equals(colName)) updatedAt = colValue instanceof java.sql.Timestamp ? ((java.sql.Timestamp) colValue).toLocalDateTime() : null;
-            else if ("created_by".equals(colName)) createdBy = (String) colValue;
-            else if ("dept_id".equals(colName)) deptId = colValue != null ? ((Number) colValue).longValue() : null;
-            else dataMap.put(colName, colValue);
+        List<Map<String, Object>> rows = new ArrayList<>(resultList.size());
+        for (Object result : resultList) {
+            // 只有一个结果列时原生查询返回标量而不是数组
+            Object[] row = result instanceof Object[] columns ? columns : new Object[]{result};
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < resultColumns.size(); i++) {
+                values.put(resultColumns.get(i), row[i]);
+            }
+            rows.add(values);
         }
-        return DynamicDataResponse.builder()
-                .id(id)
-                .tenantId(tenantId)
-                .schemaName(schemaName)
-                .data(dataMap)
-                .createdBy(createdBy)
-                .deptId(deptId)
-                .createdAt(createdAt)
-                .updatedAt(updatedAt)
+
+        return AggregateResponse.builder()
+                .columns(resultColumns)
+                .rows(rows)
+                .truncated(truncated)
                 .build();
     }
 
-    private void applyDataPermissionFilter(StringBuilder sql, List<Object> params) {
-        Set<String> scopes = UserContext.getDataScopes();
-        String username = UserContext.getUsername();
+    private static boolean isTemporalColumn(SchemaPlan plan, String column) {
+        if ("created_at".equals(column) || "updated_at".equals(column)) {
+            return true;
+        }
+        FieldPlan field = plan.getField(column);
+        return field != null && (field.getFieldType() == FieldType.DATE || field.getFieldType() == FieldType.DATETIME);
+    }
 
-        // 1. 如果是超级管理员，或者拥有 "ALL" 权限，直接放行 (什么都不加 = 看全部)
-        if (scopes.contains("ALL") || "admin".equals(username)) { // 简单判断 admin
-            return;
+    private static boolean isNumericColumn(SchemaPlan plan, String column) {
+        if ("id".equals(column) || "dept_id".equals(column)) {
+            return true;
         }
+        FieldPlan field = plan.getField(column);
+        return field != null && (field.getFieldType() == FieldType.NUMBER || field.getFieldType() == FieldType.INTEGER);
+    }
 
-        // 2. 拼接权限 SQL
-        List<String> conditions = new ArrayList<>();
+    /**
+     * 时间桶表达式，统一输出为字符串便于前端直接作为坐标轴标签
+     * 周以周一为起点，输出该周周一的日期
+     */
+    private static String timeBucketExpression(String field, String bucket) {
+        String column = "`" + field + "`";
+        return switch (bucket) {
+            case "hour" -> "DATE_FORMAT(" + column + ", '%Y-%m-%d %H:00')";
+            case "day" -> "DATE_FORMAT(" + column + ", '%Y-%m-%d')";
+            case "week" -> "DATE_FORMAT(DATE_SUB(" + column + ", INTERVAL WEEKDAY(" + column + ") DAY), '%Y-%m-%d')";
+            case "month" -> "DATE_FORMAT(" + column + ", '%Y-%m')";
+            case "quarter" -> "CONCAT(YEAR(" + column + "), '-Q', QUARTER(" + column + "))";
+            case "year" -> "DATE_FORMAT(" + column + ", '%Y')";
+            default -> null;
+        };
+    }
+
+    /**
+     * 解析 fields 参数为投影列：系统列 (tenant_id 除外) 始终返回，其余只保留请求的字段
+     * 只存于 ext_data 的溢出字段按模式字段顺序追加为 ext_data.<字段> 伪列，不读取整个文档
+     * 为空时返回全部列
+     * @throws DataValidationException 请求了表中不存在的字段
+     */
+    private List<String> resolveProjection(List<String> columnNames, SchemaPlan plan, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return columnNames;
+        }
+        return queryTemplateCache.getProjection(columnNames, plan.getVersion(), fields, () -> {
+            Set<String> requested = new HashSet<>();
+            for (String field : fields.split(",")) {
+                if (!field.isBlank()) {
+                    requested.add(field.trim());
+                }
+            }
+            Map<String, String> unknown = new LinkedHashMap<>();
+            for (String field : requested) {
+                if (OverflowColumn.NAME.equals(field) || !columnNames.contains(field) && !WhereClauseBuilder.isJsonOnlyField(plan, columnNames, field)) {
+                    unknown.put(field, "字段不存在");
+                }
+            }
+            if (!unknown.isEmpty()) {
+                throw new DataValidationException("fields 参数包含不存在的字段", unknown);
+            }
+            // 按表的列顺序输出，保证同一组字段生成相同的 SQL
+            List<String> projection = new ArrayList<>();
+            for (String column : columnNames) {
+                if (PROJECTION_SYSTEM_COLUMNS.contains(column) || requested.contains(column)) {
+                    projection.add(column);
+                }
+            }
+            for (FieldPlan field : plan.getFields()) {
+                if (requested.contains(field.getName()) && WhereClauseBuilder.isJsonOnlyField(plan, columnNames, field.getName())) {
+                    projection.add(OverflowColumn.fieldColumn(field.getName()));
+                }
+            }
+            return projection;
+        });
+    }
 
-        Set<Long> accessibleDeptIds = UserContext.getAccessibleDeptIds();
+    // 列表结果缓存按模式的修改计数器失效，未开启结果缓存的模式不做任何事
+    private void invalidateResults(String tenantId, String schemaName) {
+        queryResultCache.invalidate(schemaCacheManager.getCachedSchema(tenantId, schemaName).getSchema());
+    }
 
-        if (scopes.contains("DEPT_AND_CHILD") || scopes.contains("DEPT")) {
-            if (!accessibleDeptIds.isEmpty()) {
-                // 构建 IN 语句: dept_id IN (?, ?, ?)
-                String placeholders = accessibleDeptIds.stream()
-                        .map(id -> "?")
-                        .collect(Collectors.joining(", "));
-                conditions.add("dept_id IN (" + placeholders + ")");
-                params.addAll(accessibleDeptIds);
+    /**
+     * 条件对应的第一个参数在参数列表中的位置 (第一个参数为租户ID)
+     */
+    private static int indexOfParam(List<FilterCondition> conditions, FilterCondition target) {
+        int index = 1;
+        for (FilterCondition condition : conditions) {
+            if (condition == target) {
+                return index;
             }
-        } else if (username != null) {
-            conditions.add("created_by = ?");
-            params.add(username);
+            index += condition.arity();
         }
+        throw new IllegalStateException("condition not found");
+    }
 
-        // 将条件拼接到 SQL
-        if (!conditions.isEmpty()) {
-            sql.append(" AND (").append(String.join(" OR ", conditions)).append(") ");
+    /**
+     * 列表结果缓存的查询键：编译后的条件与参数 (含数据权限) 加上分页、排序、投影与计数模式
+     */
+    private record ListQueryKey(List<FilterCondition> conditions, List<Object> params, Integer page, Integer size,
+                                String sortBy, String sortOrder, String count, String fields, String cursor) {
+
+        static ListQueryKey of(List<FilterCondition> conditions, List<Object> params, PageRequestDTO pageRequest) {
+            if (pageRequest == null) {
+                return new ListQueryKey(List.copyOf(conditions), new ArrayList<>(params), null, null, null, null, null, null, null);
+            }
+            return new ListQueryKey(List.copyOf(conditions), new ArrayList<>(params), pageRequest.getPage(), pageRequest.getSize(),
+                    pageRequest.getSortBy(), pageRequest.getSortOrder(), pageRequest.getCount(), pageRequest.getFields(),
+                    pageRequest.getCursor());
         }
     }
 }
@@ -34,7 +34,7 @@ public class WorkflowIntegrationServiceImpl implements WorkflowIntegrationServic
 
         String tenantId = loginUser.getTenantId();
         // 1. 获取业务数据
-        DynamicDataResponse response = dynamicDataService.getDynamicDataById(tenantId, schemaName, dataId);
+        DynamicDataResponse response = dynamicDataService.getDynamicDataById(tenantId, schemaName, dataId, null);
         Map<String, Object> data = response.getData();
 
         // 2. 准备流程变量
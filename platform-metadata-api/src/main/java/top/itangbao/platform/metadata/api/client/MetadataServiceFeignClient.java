@@ -5,6 +5,8 @@ import org.springframework.web.bind.annotation.*;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaCreateRequest;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
 
+import java.util.List;
+
 /**
  * Feign 客户端，用于调用 Metadata Service
  * name: 服务的逻辑名称 (未来可以与服务注册中心集成)
@@ -19,6 +21,9 @@ public interface MetadataServiceFeignClient {
     @GetMapping("/api/metadata/schemas/{id}")
     MetadataSchemaDTO getSchemaById(@PathVariable("id") Long id);
 
+    @GetMapping("/api/metadata/schemas/by-tenant/{tenantId}")
+    List<MetadataSchemaDTO> getAllSchemasByTenantId(@PathVariable("tenantId") String tenantId);
+
     /**
      * 创建元数据模式
      * @param request 创建请求体
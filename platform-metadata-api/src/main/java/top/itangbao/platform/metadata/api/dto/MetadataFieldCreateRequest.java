@@ -36,4 +36,16 @@ public class MetadataFieldCreateRequest {
 
     private String relatedSchemaName;
     private String relatedFieldName;
+
+    @Builder.Default
+    private Boolean indexed = false; // 是否为该字段建立二级索引
+
+    @Builder.Default
+    private Boolean unique = false; // 是否唯一 (租户内)，唯一字段隐含建立索引
+
+    @Builder.Default
+    private Boolean searchable = false; // 是否支持全文检索 (仅 STRING/TEXT)，建立 ngram FULLTEXT 索引
+
+    @Builder.Default
+    private Boolean overflow = false; // 是否存放在 JSON 溢出列 (新增不改表结构，适合稀疏的自定义字段)；创建后不可修改
 }
@@ -23,6 +23,10 @@ public class MetadataFieldDTO {
     private String description;
     private String relatedSchemaName;
     private String relatedFieldName;
+    private Boolean indexed; // 是否为该字段建立二级索引
+    private Boolean unique; // 是否唯一 (租户内)
+    private Boolean searchable; // 是否支持全文检索 (match 操作符)
+    private Boolean overflow; // 是否存放在 JSON 溢出列 ext_data，不建物理列
     private Long schemaId; // 所属模式ID
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
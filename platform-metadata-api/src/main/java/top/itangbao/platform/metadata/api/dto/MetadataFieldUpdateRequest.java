@@ -32,4 +32,10 @@ public class MetadataFieldUpdateRequest {
 
     private String relatedSchemaName;
     private String relatedFieldName;
+
+    private Boolean indexed;
+
+    private Boolean unique;
+
+    private Boolean searchable;
 }
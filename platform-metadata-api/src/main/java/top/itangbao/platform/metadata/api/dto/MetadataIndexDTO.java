@@ -0,0 +1,27 @@
+package top.itangbao.platform.metadata.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 模式上的组合索引定义，由 data-service 同步为动态表的二级索引
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MetadataIndexDTO {
+    @Size(max = 40, message = "Index name cannot exceed 40 characters")
+    private String name; // 索引名称 (可选)，为空时按字段生成
+
+    @NotEmpty(message = "Index fields cannot be empty")
+    private List<String> fields; // 索引字段，按顺序组成组合索引
+
+    private Boolean unique; // 是否唯一索引
+}
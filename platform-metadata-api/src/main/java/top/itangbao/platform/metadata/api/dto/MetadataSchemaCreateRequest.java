@@ -1,6 +1,7 @@
 package top.itangbao.platform.metadata.api.dto;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -29,10 +30,19 @@ public class MetadataSchemaCreateRequest {
     @Valid // 嵌套校验字段列表
     private List<MetadataFieldCreateRequest> fields;
 
+    @Valid
+    private List<MetadataIndexDTO> indexes; // 组合索引定义
+
 
     private Boolean workflowEnabled = false;
 
     private String workflowProcessKey;
 
     private String workflowFormKey;
+
+    @Min(value = 0, message = "Result cache TTL cannot be negative")
+    private Integer resultCacheTtlSeconds; // 列表查询结果缓存时间 (秒)，适合读多写少的模式；为空或 0 表示不缓存
+
+    @Min(value = 1, message = "Result cache max entries must be at least 1")
+    private Integer resultCacheMaxEntries; // 结果缓存的最大条目数
 }
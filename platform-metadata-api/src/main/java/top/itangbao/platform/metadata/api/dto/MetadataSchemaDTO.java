@@ -22,5 +22,9 @@ public class MetadataSchemaDTO {
     private String workflowFormKey;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version; // 模式版本号，模式或字段变更时递增
+    private Integer resultCacheTtlSeconds; // 列表查询结果缓存时间 (秒)，为空或 0 表示不缓存
+    private Integer resultCacheMaxEntries; // 结果缓存的最大条目数，为空时使用数据服务的默认值
     private List<MetadataFieldDTO> fields; // 包含字段列表
+    private List<MetadataIndexDTO> indexes; // 组合索引定义
 }
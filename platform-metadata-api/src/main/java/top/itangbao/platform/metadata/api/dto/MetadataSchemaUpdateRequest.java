@@ -1,5 +1,7 @@
 package top.itangbao.platform.metadata.api.dto;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -27,4 +29,13 @@ public class MetadataSchemaUpdateRequest {
     private String workflowProcessKey;
 
     private String workflowFormKey;
+
+    @Valid
+    private List<MetadataIndexDTO> indexes; // 组合索引定义，为 null 时保持不变
+
+    @Min(value = 0, message = "Result cache TTL cannot be negative")
+    private Integer resultCacheTtlSeconds; // 列表查询结果缓存时间 (秒)，0 表示关闭，为 null 时保持不变
+
+    @Min(value = 1, message = "Result cache max entries must be at least 1")
+    private Integer resultCacheMaxEntries; // 结果缓存的最大条目数，为 null 时保持不变
 }
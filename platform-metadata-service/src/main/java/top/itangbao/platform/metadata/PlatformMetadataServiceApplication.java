@@ -3,6 +3,7 @@ package top.itangbao.platform.metadata;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.ComponentScan;
 
 @SpringBootApplication
@@ -11,6 +12,7 @@ import org.springframework.context.annotation.ComponentScan;
         "top.itangbao.platform.common"}
 )
 @EnableDiscoveryClient
+@EnableFeignClients(basePackages = "top.itangbao.platform.data.api.client") // 只启用 data-service 客户端
 public class PlatformMetadataServiceApplication {
 
     public static void main(String[] args) {
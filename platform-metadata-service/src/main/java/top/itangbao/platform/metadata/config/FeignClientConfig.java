@@ -0,0 +1,40 @@
+package top.itangbao.platform.metadata.config;
+
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Feign 客户端配置，调用 data-service 时透传当前请求的认证信息
+ */
+@Configuration
+public class FeignClientConfig {
+
+    @Bean
+    public RequestInterceptor requestInterceptor() {
+        return new RequestInterceptor() {
+            @Override
+            public void apply(RequestTemplate template) {
+                ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+                if (attributes != null) {
+                    HttpServletRequest request = attributes.getRequest();
+                    copyHeader(request, template, "Authorization");
+                    copyHeader(request, template, "X-Auth-User");
+                    copyHeader(request, template, "X-Auth-Roles");
+                    copyHeader(request, template, "X-User-Tenant-Id");
+                }
+            }
+        };
+    }
+
+    private void copyHeader(HttpServletRequest request, RequestTemplate template, String headerName) {
+        String value = request.getHeader(headerName);
+        if (value != null) {
+            template.header(headerName, value);
+        }
+    }
+}
@@ -50,6 +50,18 @@ public class MetadataField {
     @Column(name = "related_field_name", length = 50)
     private String relatedFieldName;
 
+    @Column(name = "is_indexed")
+    private Boolean indexed = false; // 是否在动态表上为该字段建立二级索引
+
+    @Column(name = "is_unique")
+    private Boolean unique = false; // 是否唯一 (租户内)，唯一字段隐含建立索引
+
+    @Column(name = "is_searchable")
+    private Boolean searchable = false; // 是否在动态表上建立全文索引 (仅 STRING/TEXT)
+
+    @Column(name = "is_overflow", updatable = false)
+    private Boolean overflow = false; // 是否存放在动态表的 JSON 溢出列，indexed/unique 时建立生成列索引
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -77,6 +89,10 @@ public class MetadataField {
                 .description(field.getDescription())
                 .relatedSchemaName(field.getRelatedSchemaName())
                 .relatedFieldName(field.getRelatedFieldName())
+                .indexed(field.getIndexed())
+                .unique(field.getUnique())
+                .searchable(field.getSearchable())
+                .overflow(field.getOverflow())
                 .schemaId(field.getSchema() != null ? field.getSchema().getId() : null)
                 .createdAt(field.getCreatedAt())
                 .updatedAt(field.getUpdatedAt())
@@ -0,0 +1,26 @@
+package top.itangbao.platform.metadata.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 模式上的组合索引定义 (值对象，随模式一起保存)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class MetadataIndex {
+
+    @Column(name = "index_name", length = 40)
+    private String name; // 索引名称，可为空
+
+    @Column(name = "index_fields", nullable = false, length = 500)
+    private String fields; // 索引字段，逗号分隔，顺序即组合索引列顺序
+
+    @Column(name = "is_unique")
+    private Boolean unique = false;
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -40,6 +42,15 @@ public class MetadataSchema {
     @Column(name = "workflow_form_key", length = 100)
     private String workflowFormKey; // 关联的表单Key
 
+    @Column(name = "schema_version")
+    private Long version = 0L; // 模式版本号，模式或字段变更时递增，供下游缓存判断是否过期
+
+    @Column(name = "result_cache_ttl_seconds")
+    private Integer resultCacheTtlSeconds; // 数据服务列表查询结果缓存时间 (秒)，为空或 0 表示不缓存
+
+    @Column(name = "result_cache_max_entries")
+    private Integer resultCacheMaxEntries; // 结果缓存的最大条目数
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -55,4 +66,18 @@ public class MetadataSchema {
     // orphanRemoval = true 表示当从列表中移除 MetadataField 时，它会被删除
     // fetch = FetchType.EAGER 表示加载 MetadataSchema 时立即加载其所有字段
     private List<MetadataField> fields = new ArrayList<>();
+
+    // 组合索引定义；使用单独查询加载，避免与 fields 同时 JOIN 抓取导致字段列表重复
+    @ElementCollection(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SELECT)
+    @CollectionTable(name = "mf_metadata_schema_indexes", joinColumns = @JoinColumn(name = "schema_id"))
+    @OrderColumn(name = "index_order")
+    private List<MetadataIndex> indexes = new ArrayList<>();
+
+    /**
+     * 递增模式版本号 (历史数据该列可能为 NULL，视为 0)
+     */
+    public void bumpVersion() {
+        this.version = (this.version == null ? 0L : this.version) + 1;
+    }
 }
@@ -24,10 +24,14 @@ public class MetadataFieldServiceImpl implements MetadataFieldService {
     private final MetadataFieldRepository fieldRepository;
     private final MetadataSchemaRepository schemaRepository;
 
+    private final SchemaCacheNotifier schemaCacheNotifier;
+
     @Autowired
-    public MetadataFieldServiceImpl(MetadataFieldRepository fieldRepository, MetadataSchemaRepository schemaRepository) {
+    public MetadataFieldServiceImpl(MetadataFieldRepository fieldRepository, MetadataSchemaRepository schemaRepository,
+                                    SchemaCacheNotifier schemaCacheNotifier) {
         this.fieldRepository = fieldRepository;
         this.schemaRepository = schemaRepository;
+        this.schemaCacheNotifier = schemaCacheNotifier;
     }
 
     @Override
@@ -46,6 +50,8 @@ public class MetadataFieldServiceImpl implements MetadataFieldService {
 
         field.setRelatedSchemaName(request.getRelatedSchemaName());
         field.setRelatedFieldName(request.getRelatedFieldName());
+        schema.bumpVersion(); // 字段变更同样视为模式变更
+        schemaCacheNotifier.schemaChanged(schema.getTenantId(), schema.getName());
 
         MetadataField savedField = fieldRepository.save(field);
         return convertToDTO(savedField);
@@ -106,6 +112,18 @@ public class MetadataFieldServiceImpl implements MetadataFieldService {
         if (request.getRelatedFieldName() != null) {
             field.setRelatedFieldName(request.getRelatedFieldName());
         }
+        if (request.getIndexed() != null) {
+            field.setIndexed(request.getIndexed());
+        }
+        if (request.getUnique() != null) {
+            field.setUnique(request.getUnique());
+        }
+        if (request.getSearchable() != null) {
+            field.setSearchable(request.getSearchable());
+        }
+
+        field.getSchema().bumpVersion();
+        schemaCacheNotifier.schemaChanged(field.getSchema().getTenantId(), field.getSchema().getName());
 
         MetadataField updatedField = fieldRepository.save(field);
         return convertToDTO(updatedField);
@@ -114,10 +132,14 @@ public class MetadataFieldServiceImpl implements MetadataFieldService {
     @Override
     @Transactional
     public void deleteField(Long id) {
-        if (!fieldRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Metadata field not found with ID: " + id);
-        }
-        fieldRepository.deleteById(id);
+        MetadataField field = fieldRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Metadata field not found with ID: " + id));
+        MetadataSchema schema = field.getSchema();
+        // 从集合中移除，由 orphanRemoval 负责删除，避免级联保存与删除冲突
+        schema.getFields().removeIf(f -> f.getId().equals(field.getId()));
+        schema.bumpVersion();
+        schemaRepository.save(schema);
+        schemaCacheNotifier.schemaChanged(schema.getTenantId(), schema.getName());
     }
 
     @Override
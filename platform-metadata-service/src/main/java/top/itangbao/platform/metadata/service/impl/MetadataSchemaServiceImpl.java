@@ -7,8 +7,10 @@ import org.springframework.transaction.annotation.Transactional;
 import top.itangbao.platform.common.exception.ResourceAlreadyExistsException;
 import top.itangbao.platform.common.exception.ResourceNotFoundException;
 import top.itangbao.platform.metadata.domain.MetadataField;
+import top.itangbao.platform.metadata.domain.MetadataIndex;
 import top.itangbao.platform.metadata.domain.MetadataSchema;
 import top.itangbao.platform.metadata.api.dto.MetadataFieldDTO;
+import top.itangbao.platform.metadata.api.dto.MetadataIndexDTO;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaCreateRequest;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaDTO;
 import top.itangbao.platform.metadata.api.dto.MetadataSchemaUpdateRequest;
@@ -16,6 +18,7 @@ import top.itangbao.platform.metadata.repository.MetadataFieldRepository;
 import top.itangbao.platform.metadata.repository.MetadataSchemaRepository;
 import top.itangbao.platform.metadata.service.MetadataSchemaService;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -24,12 +27,15 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
 
     private final MetadataSchemaRepository schemaRepository;
     private final MetadataFieldRepository fieldRepository; // 用于保存级联字段
+    private final SchemaCacheNotifier schemaCacheNotifier;
 
     @Autowired
     public MetadataSchemaServiceImpl(MetadataSchemaRepository schemaRepository,
-                                     MetadataFieldRepository fieldRepository) {
+                                     MetadataFieldRepository fieldRepository,
+                                     SchemaCacheNotifier schemaCacheNotifier) {
         this.schemaRepository = schemaRepository;
         this.fieldRepository = fieldRepository;
+        this.schemaCacheNotifier = schemaCacheNotifier;
     }
 
     @Override
@@ -49,6 +55,8 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
             schema.setWorkflowFormKey(request.getWorkflowFormKey());
             schema.setWorkflowProcessKey(request.getWorkflowProcessKey());
         }
+        schema.setResultCacheTtlSeconds(request.getResultCacheTtlSeconds());
+        schema.setResultCacheMaxEntries(request.getResultCacheMaxEntries());
         // 处理字段列表
         if (request.getFields() != null && !request.getFields().isEmpty()) {
             List<MetadataField> fields = request.getFields().stream()
@@ -61,6 +69,9 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
                     .collect(Collectors.toList());
             schema.setFields(fields);
         }
+        if (request.getIndexes() != null) {
+            schema.setIndexes(convertIndexes(request.getIndexes()));
+        }
 
         MetadataSchema savedSchema = schemaRepository.save(schema);
         return convertToDTO(savedSchema);
@@ -97,6 +108,10 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
             throw new ResourceAlreadyExistsException("Metadata schema with name '" + request.getName() + "' already exists for tenant '" + schema.getTenantId() + "'");
         }
 
+        // 改名或改租户时旧键下的缓存也要失效
+        String previousName = schema.getName();
+        String previousTenantId = schema.getTenantId();
+        schemaCacheNotifier.schemaChanged(previousTenantId, previousName);
         if (request.getName() != null) {
             schema.setName(request.getName());
         }
@@ -111,6 +126,20 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
             schema.setWorkflowFormKey(request.getWorkflowFormKey());
             schema.setWorkflowProcessKey(request.getWorkflowProcessKey());
         }
+        if (request.getIndexes() != null) {
+            schema.getIndexes().clear();
+            schema.getIndexes().addAll(convertIndexes(request.getIndexes()));
+        }
+        if (request.getResultCacheTtlSeconds() != null) {
+            schema.setResultCacheTtlSeconds(request.getResultCacheTtlSeconds());
+        }
+        if (request.getResultCacheMaxEntries() != null) {
+            schema.setResultCacheMaxEntries(request.getResultCacheMaxEntries());
+        }
+        schema.bumpVersion();
+        if (!schema.getName().equals(previousName) || !schema.getTenantId().equals(previousTenantId)) {
+            schemaCacheNotifier.schemaChanged(schema.getTenantId(), schema.getName());
+        }
 
         MetadataSchema updatedSchema = schemaRepository.save(schema);
         return convertToDTO(updatedSchema);
@@ -119,10 +148,10 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
     @Override
     @Transactional
     public void deleteSchema(Long id) {
-        if (!schemaRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Metadata schema not found with ID: " + id);
-        }
-        schemaRepository.deleteById(id);
+        MetadataSchema schema = schemaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Metadata schema not found with ID: " + id));
+        schemaRepository.delete(schema);
+        schemaCacheNotifier.schemaChanged(schema.getTenantId(), schema.getName());
     }
 
     @Override
@@ -141,10 +170,29 @@ public class MetadataSchemaServiceImpl implements MetadataSchemaService {
                 .workflowFormKey(schema.getWorkflowFormKey())
                 .createdAt(schema.getCreatedAt())
                 .updatedAt(schema.getUpdatedAt())
+                .version(schema.getVersion())
+                .resultCacheTtlSeconds(schema.getResultCacheTtlSeconds())
+                .resultCacheMaxEntries(schema.getResultCacheMaxEntries())
                 .fields(fieldDTOs)
+                .indexes(schema.getIndexes().stream()
+                        .map(index -> MetadataIndexDTO.builder()
+                                .name(index.getName())
+                                .fields(Arrays.asList(index.getFields().split(",")))
+                                .unique(index.getUnique())
+                                .build())
+                        .collect(Collectors.toList()))
                 .build();
     }
 
+    // 辅助方法：将组合索引定义转换为实体值对象
+    private List<MetadataIndex> convertIndexes(List<MetadataIndexDTO> indexDTOs) {
+        return indexDTOs.stream()
+                .map(dto -> new MetadataIndex(dto.getName(),
+                        dto.getFields().stream().map(String::trim).collect(Collectors.joining(",")),
+                        Boolean.TRUE.equals(dto.getUnique())))
+                .collect(Collectors.toList());
+    }
+
     // 辅助方法：将 MetadataField 实体转换为 MetadataFieldDTO
     private MetadataFieldDTO convertFieldToDTO(MetadataField field) {
         return MetadataField.getMetadataFieldDTO(field);
@@ -0,0 +1,53 @@
+package top.itangbao.platform.metadata.service.impl;
+
+import feign.FeignException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import top.itangbao.platform.data.api.client.DataServiceFeignClient;
+
+/**
+ * 模式或字段变更提交后通知 data-service 失效本地缓存的模式
+ * 接收通知的 data-service 实例再通过失效广播通知其他实例；调用沿用当前请求的令牌，接口允许 schema:write
+ * 通知失败 (含鉴权被拒) 只记录日志：data-service 仍会在 refresh-after-write 后访问时刷新
+ */
+@Component
+public class SchemaCacheNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCacheNotifier.class);
+
+    private final DataServiceFeignClient dataServiceFeignClient;
+
+    public SchemaCacheNotifier(DataServiceFeignClient dataServiceFeignClient) {
+        this.dataServiceFeignClient = dataServiceFeignClient;
+    }
+
+    /**
+     * 在当前事务提交后发送 (回滚时不发送)；不在事务中时立即发送
+     */
+    public void schemaChanged(String tenantId, String schemaName) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(tenantId, schemaName);
+                }
+            });
+        } else {
+            evict(tenantId, schemaName);
+        }
+    }
+
+    private void evict(String tenantId, String schemaName) {
+        try {
+            dataServiceFeignClient.evictSchemaCache(tenantId, schemaName);
+        } catch (FeignException e) {
+            logger.warn("Failed to evict schema cache of {}/{} in data-service: HTTP {} {}", tenantId, schemaName,
+                    e.status(), e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Failed to evict schema cache of {}/{} in data-service: {}", tenantId, schemaName, e.getMessage());
+        }
+    }
+}